@@ -0,0 +1,55 @@
+package blindchess.benchmarks;
+
+
+import blindchess.bot.BotConfig;
+import blindchess.bot.MinimaxChessBot;
+import blindchess.bot.SearchLimits;
+import blindchess.bot.TranspositionTable;
+import chess.gameplay.ChessGameImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A single-threaded bot move at fixed depth, starting from an empty transposition table each time so that
+ * every invocation does the same work.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BotBenchmark
+{
+	@Param({
+			"middlegame-open", "middlegame-closed", "middlegame-tactical", "middlegame-castled",
+			"endgame-rook", "endgame-lucena", "endgame-pawns", "endgame-kpk"
+	})
+	public String position;
+
+	@Param({"3"})
+	public int depth;
+
+	private ChessGameImpl game;
+	private TranspositionTable table;
+	private MinimaxChessBot bot;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		game = Corpus.load(position);
+		table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+		bot = new MinimaxChessBot(BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.depth(depth)).withTranspositionTable(table));
+	}
+
+	@Setup(Level.Invocation)
+	public void clearTable() {
+		table.clear();
+	}
+
+	@Benchmark
+	public Object chooseMove() {
+		return bot.chooseMove(game, game.getTeamTurn());
+	}
+}
@@ -0,0 +1,37 @@
+package blindchess.benchmarks;
+
+
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.Fen;
+
+import java.util.Map;
+
+
+/**
+ * Fixed positions every benchmark runs over, so numbers from different commits are comparable. The names are
+ * repeated in each benchmark's {@code @Param} list because annotation values must be constants.
+ */
+final class Corpus
+{
+	private static final Map<String, String> POSITIONS = Map.of(
+			"middlegame-open", "r1bqkb1r/pppp1ppp/2n2n2/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4",
+			"middlegame-closed", "rnbqkb1r/ppp2ppp/4pn2/3p2B1/2PP4/2N5/PP2PPPP/R2QKBNR b KQkq - 3 4",
+			"middlegame-tactical", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"middlegame-castled", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+			"endgame-rook", "8/5pk1/6p1/8/3R4/6P1/5PK1/r7 w - - 0 40",
+			"endgame-lucena", "1K1k4/1P6/8/8/8/8/r7/2R5 w - - 0 1",
+			"endgame-pawns", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+			"endgame-kpk", "8/8/8/4k3/8/8/4P3/4K3 w - - 0 1"
+	);
+
+	private Corpus() {
+	}
+
+	static ChessGameImpl load(String name) {
+		String fen = POSITIONS.get(name);
+		if (fen == null) {
+			throw new IllegalArgumentException("Unknown benchmark position: " + name);
+		}
+		return Fen.load(fen);
+	}
+}
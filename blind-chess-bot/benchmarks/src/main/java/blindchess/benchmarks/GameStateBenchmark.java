@@ -0,0 +1,49 @@
+package blindchess.benchmarks;
+
+
+import chess.gameplay.ChessGameCopier;
+import chess.gameplay.ChessGameImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Copying a game and the end-of-game checks the server runs after every move.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameStateBenchmark
+{
+	@Param({
+			"middlegame-open", "middlegame-closed", "middlegame-tactical", "middlegame-castled",
+			"endgame-rook", "endgame-lucena", "endgame-pawns", "endgame-kpk"
+	})
+	public String position;
+
+	private ChessGameImpl game;
+
+	@Setup
+	public void setUp() {
+		game = Corpus.load(position);
+	}
+
+	@Benchmark
+	public Object copy() {
+		return ChessGameCopier.copy(game);
+	}
+
+	@Benchmark
+	public boolean isInCheckmate() {
+		return game.isInCheckmate(game.getTeamTurn());
+	}
+
+	@Benchmark
+	public boolean isInStalemate() {
+		return game.isInStalemate(game.getTeamTurn());
+	}
+}
@@ -0,0 +1,63 @@
+package blindchess.benchmarks;
+
+
+import blindchess.notation.ChessRules;
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessPosition;
+import chess.gameplay.MoveGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Legal move generation for the side to move, through the per-piece API, through the rules helper the
+ * notation code uses, and as packed moves into a reused array as the bot's search does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark
+{
+	@Param({
+			"middlegame-open", "middlegame-closed", "middlegame-tactical", "middlegame-castled",
+			"endgame-rook", "endgame-lucena", "endgame-pawns", "endgame-kpk"
+	})
+	public String position;
+
+	private ChessGameImpl game;
+	private ChessPosition[] pieces;
+	private final int[] packedMoves = new int[MoveGenerator.MAX_MOVES];
+
+	@Setup
+	public void setUp() {
+		game = Corpus.load(position);
+		long occupancy = game.getBoard().occupancy(game.getTeamTurn());
+		pieces = new ChessPosition[Long.bitCount(occupancy)];
+		for (int i = 0; occupancy != 0; occupancy &= occupancy - 1, i++) {
+			pieces[i] = Bitboards.position(Long.numberOfTrailingZeros(occupancy));
+		}
+	}
+
+	@Benchmark
+	public void validMoves(Blackhole blackhole) {
+		for (ChessPosition piece : pieces) {
+			blackhole.consume(game.validMoves(piece));
+		}
+	}
+
+	@Benchmark
+	public Object legalMoves() {
+		return ChessRules.legalMoves(game, game.getTeamTurn());
+	}
+
+	@Benchmark
+	public int packedMoves() {
+		return MoveGenerator.generate(game.getBoard(), game.getTeamTurn(), packedMoves, 0);
+	}
+}
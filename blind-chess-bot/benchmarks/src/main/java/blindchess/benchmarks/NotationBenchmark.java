@@ -0,0 +1,60 @@
+package blindchess.benchmarks;
+
+
+import blindchess.notation.ChessNotation;
+import blindchess.notation.ChessRules;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Converting every legal move of a position to SAN and parsing each SAN string back, as the server does for
+ * the bot's reply and the player's input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NotationBenchmark
+{
+	@Param({
+			"middlegame-open", "middlegame-closed", "middlegame-tactical", "middlegame-castled",
+			"endgame-rook", "endgame-lucena", "endgame-pawns", "endgame-kpk"
+	})
+	public String position;
+
+	private ChessGameImpl game;
+	private List<ChessMove> moves;
+	private String[] sans;
+
+	@Setup
+	public void setUp() {
+		game = Corpus.load(position);
+		moves = ChessRules.legalMoves(game, game.getTeamTurn());
+		sans = new String[moves.size()];
+		for (int i = 0; i < sans.length; i++) {
+			sans[i] = ChessNotation.toSan(game, moves.get(i));
+		}
+	}
+
+	@Benchmark
+	public void toSan(Blackhole blackhole) {
+		for (ChessMove move : moves) {
+			blackhole.consume(ChessNotation.toSan(game, move));
+		}
+	}
+
+	@Benchmark
+	public void parse(Blackhole blackhole) {
+		for (String san : sans) {
+			blackhole.consume(ChessNotation.parse(san, game));
+		}
+	}
+}
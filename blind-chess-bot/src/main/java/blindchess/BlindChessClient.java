@@ -4,6 +4,7 @@ package blindchess;
 import blindchess.api.CreateSessionRequest;
 import blindchess.api.ErrorResponse;
 import blindchess.api.MoveRequest;
+import blindchess.api.SessionEvent;
 import blindchess.api.SessionResponse;
 import blindchess.model.GameMode;
 import com.google.gson.Gson;
@@ -14,12 +15,20 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 
 public class BlindChessClient
 {
 	private static final Gson GSON = new Gson();
+	// Event streams that may end without the bot's reply before the client stops waiting, and the pause before the
+	// first retry, doubled before each one after it
+	private static final int MAX_EMPTY_STREAMS = 5;
+	private static final long RETRY_DELAY_MILLIS = 250;
 	private final HttpClient httpClient = HttpClient.newHttpClient();
 	private final String serverBaseUrl;
 
@@ -45,6 +54,7 @@ public class BlindChessClient
 				new CreateSessionRequest(mode.name(), color.name()),
 				SessionResponse.class
 		);
+		session = awaitBot(session);
 		printState(session);
 
 		while (true) {
@@ -99,6 +109,7 @@ public class BlindChessClient
 			
 			try {
 				session = post("/api/sessions/" + session.sessionId + "/moves", new MoveRequest(input), SessionResponse.class);
+				session = awaitBot(session);
 				printState(session);
 			} catch (IllegalStateException e) {
 				System.out.println(e.getMessage());
@@ -106,6 +117,132 @@ public class BlindChessClient
 		}
 	}
 
+	/**
+	 * Follows the session's event stream while the bot's reply is pending, keeping the player's move from the
+	 * first response. The stream only sends what changed, so the session is updated from its events rather than
+	 * fetched again. A stream that ends early is opened again after a growing pause; after
+	 * {@link #MAX_EMPTY_STREAMS} of them the session is fetched once and returned as it stands, still pending.
+	 */
+	private SessionResponse awaitBot(SessionResponse session) throws IOException, InterruptedException {
+		if (!session.pending) {
+			return session;
+		}
+		System.out.println("Bot is thinking...");
+		HttpRequest request = HttpRequest.newBuilder(URI.create(serverBaseUrl + "/api/sessions/" + session.sessionId + "/events"))
+				.header("Accept", "text/event-stream")
+				.GET()
+				.build();
+		long retryDelay = RETRY_DELAY_MILLIS;
+		for (int attempt = 1; attempt <= MAX_EMPTY_STREAMS; attempt++) {
+			if (attempt > 1) {
+				Thread.sleep(retryDelay);
+				retryDelay *= 2;
+			}
+			HttpResponse<Stream<String>> response = httpClient.send(request, HttpResponse.BodyHandlers.ofLines());
+			if (response.statusCode() >= 400) {
+				ErrorResponse error = GSON.fromJson(String.join("\n", response.body().toList()), ErrorResponse.class);
+				throw new IllegalStateException(error == null ? "Request failed." : error.error);
+			}
+			try (Stream<String> lines = response.body()) {
+				String event = null;
+				StringBuilder data = new StringBuilder();
+				for (Iterator<String> iterator = lines.iterator(); iterator.hasNext(); ) {
+					String line = iterator.next();
+					if (line.startsWith("event:")) {
+						event = line.substring("event:".length()).trim();
+					} else if (line.startsWith("data:")) {
+						data.append(line.substring("data:".length()).trim());
+					} else if (line.isEmpty() && event != null) {
+						if (applyEvent(session, event, data.toString())) {
+							return session;
+						}
+						event = null;
+						data.setLength(0);
+					}
+				}
+			}
+			// The stream ended early, such as when the session left the server's memory; the next one reloads it
+		}
+		System.out.println("The server stopped sending updates; use status to check on the bot's reply.");
+		SessionResponse latest = get("/api/sessions/" + session.sessionId, SessionResponse.class);
+		latest.playerMove = session.playerMove;
+		return latest;
+	}
+
+	/**
+	 * @return true once the bot has replied or the game is over
+	 */
+	private boolean applyEvent(SessionResponse session, String event, String data) {
+		switch (event) {
+			case "state" -> {
+				SessionResponse state = GSON.fromJson(data, SessionResponse.class);
+				if (state.pending) {
+					return false;
+				}
+				// The reply was played before the stream opened
+				String playerMove = session.playerMove;
+				copyState(state, session);
+				session.playerMove = playerMove;
+				session.botMove = "RESIGNED".equals(state.status) ? null : state.latestMove;
+				return true;
+			}
+			case "botMove" -> {
+				SessionEvent move = GSON.fromJson(data, SessionEvent.class);
+				session.botMove = move.move;
+				session.latestMove = move.move;
+				addHistoryLine(session, move.historyLine);
+				applyStatus(session, move);
+				return true;
+			}
+			case "gameOver" -> {
+				applyStatus(session, GSON.fromJson(data, SessionEvent.class));
+				return true;
+			}
+			default -> {
+				return false;
+			}
+		}
+	}
+
+	private void applyStatus(SessionResponse session, SessionEvent event) {
+		session.pending = false;
+		session.status = event.status;
+		session.resultMessage = event.resultMessage;
+		session.prompt = event.prompt;
+		session.yourTurn = "ACTIVE".equals(event.status);
+		session.turn = session.yourTurn ? session.playerColor : null;
+	}
+
+	// A line with the same move number as the last one completes it; any other line follows it
+	private void addHistoryLine(SessionResponse session, String line) {
+		if ("NO_HISTORY".equals(session.mode)) {
+			session.visibleHistory = List.of(line);
+			return;
+		}
+		List<String> history = new ArrayList<>(session.visibleHistory == null ? List.of() : session.visibleHistory);
+		if (!history.isEmpty() && moveNumber(history.get(history.size() - 1)).equals(moveNumber(line))) {
+			history.set(history.size() - 1, line);
+		} else {
+			history.add(line);
+		}
+		session.visibleHistory = history;
+	}
+
+	private String moveNumber(String historyLine) {
+		return historyLine.substring(0, historyLine.indexOf('.'));
+	}
+
+	private void copyState(SessionResponse from, SessionResponse to) {
+		to.turn = from.turn;
+		to.yourTurn = from.yourTurn;
+		to.pending = from.pending;
+		to.status = from.status;
+		to.resultMessage = from.resultMessage;
+		to.latestMove = from.latestMove;
+		to.visibleHistory = from.visibleHistory;
+		to.prompt = from.prompt;
+	}
+
 	private GameMode promptMode(Scanner scanner) {
 		while (true) {
 			System.out.print("Choose mode [history/no-history]: ");
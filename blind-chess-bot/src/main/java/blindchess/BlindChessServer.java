@@ -4,49 +4,210 @@ package blindchess;
 import blindchess.api.CreateSessionRequest;
 import blindchess.api.ErrorResponse;
 import blindchess.api.MoveRequest;
+import blindchess.api.SessionEvent;
 import blindchess.api.SessionResponse;
+import blindchess.bot.BookChessBot;
+import blindchess.bot.BotConfig;
+import blindchess.bot.ChessBot;
 import blindchess.bot.MinimaxChessBot;
+import blindchess.bot.OpeningBook;
+import blindchess.bot.SearchLimits;
+import blindchess.bot.SearchListener;
+import blindchess.bot.SearchOptions;
+import blindchess.bot.Tablebase;
 import blindchess.model.BlindChessSession;
 import blindchess.model.BlindChessSessionManager;
 import blindchess.model.GameMode;
+import blindchess.model.MoveJournal;
+import blindchess.model.Ponderer;
+import blindchess.model.SearchScheduler;
+import blindchess.model.SessionClosedException;
+import blindchess.model.SessionListener;
+import blindchess.model.SessionManagerConfig;
+import blindchess.model.SessionStatus;
+import blindchess.notation.ChessNotation;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import chess.gameplay.ChessGame;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 public class BlindChessServer
 {
 	private static final Gson GSON = new Gson();
-	private final BlindChessSessionManager sessionManager = new BlindChessSessionManager(new MinimaxChessBot());
+	private static final long DEFAULT_BOT_MOVE_TIME_MILLIS = 1_000;
+	private static final long MAX_BOT_MOVE_TIME_MILLIS = 10_000;
+	// How long a request waits for the bot's reply before answering that it is still pending
+	private static final long BOT_REPLY_WAIT_MILLIS = 2_000;
+	// How long an event stream may go quiet before a comment is sent to keep the connection open
+	private static final long EVENT_HEARTBEAT_MILLIS = 15_000;
+	// Bot turns beyond the searching workers that may wait in line
+	private static final int SEARCH_QUEUE_CAPACITY = 256;
+	// JSON bodies up to this size are sent whole with a Content-Length; larger ones are streamed in chunks
+	private static final int MAX_BUFFERED_BODY_BYTES = 8_192;
+	// System properties overriding the accept backlog and the cap on open connections
+	private static final String BACKLOG_PROPERTY = "blindchess.backlog";
+	private static final String MAX_CONNECTIONS_PROPERTY = "blindchess.maxConnections";
+	// The JDK server's own setting for the connection cap, read once when the first server is created
+	private static final String JDK_MAX_CONNECTIONS_PROPERTY = "sun.net.httpserver.maxConnections";
+	private static final int DEFAULT_MAX_CONNECTIONS = 10_000;
+	// System property naming an opening book file built by OpeningBookBuilder
+	private static final String BOOK_PROPERTY = "blindchess.book";
+	// System property naming a directory of endgame tables built by TablebaseGenerator
+	private static final String TABLEBASE_PROPERTY = "blindchess.tablebases";
+	// System property overriding the aspiration window, in centipawns; 0 turns aspiration off
+	private static final String ASPIRATION_WINDOW_PROPERTY = "blindchess.aspirationWindow";
+	// System property that, when "true", logs every completed search iteration to standard output
+	private static final String SEARCH_LOG_PROPERTY = "blindchess.searchLog";
+	// System property giving how many sessions may ponder on the player's time at once; unset or 0 turns pondering off
+	private static final String PONDER_SEARCHES_PROPERTY = "blindchess.ponderSearches";
+	// System property giving how many player replies each pondering session prepares an answer for
+	private static final String PONDER_REPLIES_PROPERTY = "blindchess.ponderReplies";
+	private static final int DEFAULT_PONDER_REPLIES = 3;
+	// System properties giving how long a session may sit unused and how many may be in memory before they are
+	// evicted, and the directory games in progress are spilled to when they are; without one they are forgotten
+	private static final String SESSION_IDLE_MINUTES_PROPERTY = "blindchess.sessionIdleMinutes";
+	private static final String MAX_SESSIONS_PROPERTY = "blindchess.maxSessions";
+	private static final String SPILL_DIRECTORY_PROPERTY = "blindchess.spillDirectory";
+	// System property naming the directory every session's moves are journaled to, so games survive a restart
+	private static final String JOURNAL_DIRECTORY_PROPERTY = "blindchess.journalDirectory";
+	private final BlindChessSessionManager sessionManager;
 	private final HttpServer server;
 
 	public BlindChessServer(int port) throws IOException {
-		server = HttpServer.create(new InetSocketAddress(port), 0);
+		this(port, ServerConfig.DEFAULTS);
+	}
+
+	/**
+	 * Requests are handled on virtual threads, one per exchange, so thousands of clients waiting on bot replies
+	 * cost no more than that many small objects; the searches themselves run on the scheduler's platform threads.
+	 * The cap on open connections is the JVM-wide {@code sun.net.httpserver.maxConnections}, which
+	 * {@link #main} sets from {@code blindchess.maxConnections}.
+	 * <p>
+	 * Sessions that go unused or exceed the cap leave memory: finished games are forgotten, and games in progress
+	 * are spilled to disk and read back when next requested. {@code GET /api/metrics} reports the evictions.
+	 */
+	public BlindChessServer(int port, ServerConfig config) throws IOException {
+		ChessBot bot = new MinimaxChessBot(BotConfig.DEFAULTS
+				.withDefaultLimits(SearchLimits.moveTime(DEFAULT_BOT_MOVE_TIME_MILLIS))
+				.withThreads(Runtime.getRuntime().availableProcessors())
+				.withOptions(config.searchOptions())
+				.withTablebase(config.tablebase())
+				.withListener(config.searchListener()));
+		// Searches run on their own workers, so a long one never holds up requests for other sessions
+		SearchScheduler scheduler = new SearchScheduler(Runtime.getRuntime().availableProcessors(), SEARCH_QUEUE_CAPACITY);
+		sessionManager = new BlindChessSessionManager(config.book() == null ? bot : new BookChessBot(config.book(), bot),
+				SessionManagerConfig.DEFAULTS
+						.withPonderer(config.ponderer())
+						.withScheduler(scheduler)
+						.withIdleTimeout(config.sessionIdleTimeout())
+						.withMaxSessions(config.maxSessions())
+						.withSpillDirectory(config.spillDirectory())
+						.withJournal(config.journal()));
+		server = HttpServer.create(new InetSocketAddress(port), config.backlog());
 		server.createContext("/api/sessions", this::handleSessions);
-		server.setExecutor(null);
+		server.createContext("/api/metrics", this::handleMetrics);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
 	}
 
 	public static void main(String[] args) throws IOException {
 		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
-		BlindChessServer server = new BlindChessServer(port);
+		String bookFile = System.getProperty(BOOK_PROPERTY);
+		OpeningBook book = bookFile == null ? null : OpeningBook.open(Path.of(bookFile));
+		String tablebaseDirectory = System.getProperty(TABLEBASE_PROPERTY);
+		Tablebase tablebase = tablebaseDirectory == null ? null : new Tablebase(Path.of(tablebaseDirectory));
+		ServerConfig config = ServerConfig.DEFAULTS;
+		SearchOptions options = config.searchOptions();
+		String aspirationWindow = System.getProperty(ASPIRATION_WINDOW_PROPERTY);
+		if (aspirationWindow != null) {
+			options = options.withAspirationWindow(Integer.parseInt(aspirationWindow));
+		}
+		SearchListener listener = Boolean.getBoolean(SEARCH_LOG_PROPERTY) ? BlindChessServer::logIteration : null;
+		int ponderSearches = Integer.getInteger(PONDER_SEARCHES_PROPERTY, 0);
+		Ponderer ponderer = ponderSearches > 0
+				? new Ponderer(ponderSearches, Integer.getInteger(PONDER_REPLIES_PROPERTY, DEFAULT_PONDER_REPLIES))
+				: null;
+		if (System.getProperty(JDK_MAX_CONNECTIONS_PROPERTY) == null) {
+			System.setProperty(JDK_MAX_CONNECTIONS_PROPERTY,
+					String.valueOf(Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS)));
+		}
+		String sessionIdleMinutes = System.getProperty(SESSION_IDLE_MINUTES_PROPERTY);
+		Duration sessionIdleTimeout = sessionIdleMinutes == null ? config.sessionIdleTimeout()
+				: Duration.ofMinutes(Long.parseLong(sessionIdleMinutes));
+		String spillDirectory = System.getProperty(SPILL_DIRECTORY_PROPERTY);
+		String journalDirectory = System.getProperty(JOURNAL_DIRECTORY_PROPERTY);
+		MoveJournal journal = journalDirectory == null ? null
+				: new MoveJournal(Path.of(journalDirectory), MoveJournal.DEFAULT_SNAPSHOT_INTERVAL);
+		BlindChessServer server = new BlindChessServer(port, config
+				.withBook(book)
+				.withTablebase(tablebase)
+				.withSearchOptions(options)
+				.withSearchListener(listener)
+				.withPonderer(ponderer)
+				.withBacklog(Integer.getInteger(BACKLOG_PROPERTY, config.backlog()))
+				.withSessionIdleTimeout(sessionIdleTimeout)
+				.withMaxSessions(Integer.getInteger(MAX_SESSIONS_PROPERTY, config.maxSessions()))
+				.withSpillDirectory(spillDirectory == null ? null : Path.of(spillDirectory))
+				.withJournal(journal));
+		if (journal != null) {
+			// Moves still queued when the server is stopped are written out first
+			Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "move-journal-shutdown"));
+		}
 		server.start();
 		System.out.println("Blind chess server listening on http://localhost:" + port);
+		if (book != null) {
+			System.out.println("Opening book " + bookFile + " loaded with " + book.size() + " entries");
+		}
+	}
+
+	// One line per iteration, in a form that is easy to grep and split when tuning the aspiration window
+	private static void logIteration(SearchListener.Iteration iteration) {
+		System.out.printf("search depth=%d score=%d nodes=%d timeMs=%d failLows=%d failHighs=%d move=%s%n",
+				iteration.depth(), iteration.score(), iteration.nodes(), iteration.elapsedMillis(),
+				iteration.failLows(), iteration.failHighs(), ChessNotation.toCoordinateString(iteration.bestMove()));
 	}
 
 	public void start() {
 		server.start();
 	}
 
+	/**
+	 * Stops accepting requests and closes the open connections. Searches already running finish on their own.
+	 */
+	public void stop() {
+		server.stop(0);
+	}
+
+	/**
+	 * @return the port the server listens on, which the system picks when the server is created with port 0
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
 	private void handleSessions(HttpExchange exchange) throws IOException {
 		try {
 			List<String> pathSegments = Arrays.stream(exchange.getRequestURI().getPath().split("/"))
@@ -62,7 +223,7 @@ public class BlindChessServer
 			if (pathSegments.size() == 3) {
 				String sessionId = pathSegments.get(2);
 				if ("GET".equals(method)) {
-					writeJson(exchange, 200, toResponse(sessionManager.getSession(sessionId), null, null));
+					handleGetSession(exchange, sessionId);
 					return;
 				}
 			}
@@ -74,9 +235,12 @@ public class BlindChessServer
 					handleMove(exchange, sessionId);
 					return;
 				}
+				if ("events".equals(resource) && "GET".equals(method)) {
+					handleEvents(exchange, sessionId);
+					return;
+				}
 				if ("resign".equals(resource) && "POST".equals(method)) {
-					BlindChessSession session = sessionManager.getSession(sessionId);
-					session.resignPlayer();
+					BlindChessSession session = sessionManager.resignPlayer(sessionId);
 					writeJson(exchange, 200, toResponse(session, null, null));
 					return;
 				}
@@ -92,19 +256,176 @@ public class BlindChessServer
 		}
 	}
 
+	private void handleMetrics(HttpExchange exchange) throws IOException {
+		if (!"GET".equals(exchange.getRequestMethod())) {
+			writeJson(exchange, 404, new ErrorResponse("Route not found."));
+			return;
+		}
+		writeJson(exchange, 200, sessionManager.getSessionMetrics());
+	}
+
 	private void handleCreateSession(HttpExchange exchange) throws IOException {
 		CreateSessionRequest request = readJson(exchange, CreateSessionRequest.class);
 		GameMode mode = GameMode.fromString(request.mode);
 		ChessGame.TeamColor playerColor = parseColor(request.playerColor);
-		BlindChessSession session = sessionManager.createSession(mode, playerColor);
-		writeJson(exchange, 200, toResponse(session, null, null));
+		String startingFen = request.startingFen == null || request.startingFen.isBlank() ? null : request.startingFen;
+		BlindChessSession session = sessionManager.createSession(mode, playerColor, parseBotLimits(request.botMoveTimeMillis), startingFen);
+		String botMove = awaitBotMove(session);
+		writeSession(exchange, session, null, botMove);
 	}
 
+	/**
+	 * A poll while the bot is thinking also reschedules a bot move the scheduler had no room for.
+	 */
+	private void handleGetSession(HttpExchange exchange, String sessionId) throws IOException {
+		BlindChessSession session = sessionManager.getSession(sessionId);
+		try {
+			sessionManager.scheduleBotTurn(session);
+		} catch (RejectedExecutionException e) {
+			// Still pending; the next poll tries again
+		}
+		writeSession(exchange, session, null, null);
+	}
+
+	/**
+	 * Plays the player's move at once and waits a short while for the bot's reply. If the bot is still thinking
+	 * after that, the response says the reply is pending and the client polls the session for it.
+	 */
 	private void handleMove(HttpExchange exchange, String sessionId) throws IOException {
 		MoveRequest request = readJson(exchange, MoveRequest.class);
-		BlindChessSession session = sessionManager.getSession(sessionId);
-		BlindChessSession.TurnOutcome outcome = session.playPlayerMove(request.notation);
-		writeJson(exchange, 200, toResponse(session, outcome.playerMove(), outcome.botMove()));
+		BlindChessSessionManager.PlayedMove played = sessionManager.acceptPlayerMove(sessionId, request.notation);
+		String botMove = awaitBotMove(played.session());
+		writeSession(exchange, played.session(), played.san(), botMove);
+	}
+
+	/**
+	 * Streams a session's events until the game is over, the client goes away or the session leaves memory. The
+	 * first event is the session's full state; after it come only moves, the bot starting on its move, and the end
+	 * of the game. A pending bot move is scheduled when the stream opens, and again at each heartbeat while the
+	 * scheduler has no room for it.
+	 */
+	private void handleEvents(HttpExchange exchange, String sessionId) throws IOException {
+		BlockingQueue<StreamedEvent> events = new LinkedBlockingQueue<>();
+		SessionListener listener = new SessionListener()
+		{
+			@Override
+			public void movePlayed(BlindChessSession session, int moveCount, ChessGame.TeamColor color, String san) {
+				SessionEvent event = stateEvent(session);
+				event.moveCount = moveCount;
+				event.move = san;
+				event.color = color.name();
+				event.historyLine = session.getLatestHistoryLine();
+				events.add(new StreamedEvent(color == session.getPlayerColor() ? "playerMove" : "botMove", event));
+				if (session.getStatus() != SessionStatus.ACTIVE) {
+					events.add(new StreamedEvent("gameOver", stateEvent(session)));
+				}
+			}
+
+			@Override
+			public void botThinking(BlindChessSession session) {
+				events.add(new StreamedEvent("botThinking", new SessionEvent()));
+			}
+
+			@Override
+			public void resigned(BlindChessSession session) {
+				events.add(new StreamedEvent("gameOver", stateEvent(session)));
+			}
+
+			@Override
+			public void closed(BlindChessSession session) {
+				events.add(StreamedEvent.END);
+			}
+		};
+		BlindChessSession session = null;
+		SessionResponse state = null;
+		// Subscribed and read under the session's own lock, so no move can fall between the state and the events. A
+		// session that left memory in the meantime would never end the stream, so it is fetched again.
+		while (state == null) {
+			session = sessionManager.getSession(sessionId);
+			synchronized (session) {
+				try {
+					session.addListener(listener);
+					state = toResponse(session, null, null);
+				} catch (SessionClosedException e) {
+					// Left memory after the lookup; the next lookup reads it back
+				}
+			}
+		}
+
+		try {
+			exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+			exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+			exchange.sendResponseHeaders(200, 0);
+			try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+				writeEvent(writer, "state", state);
+				boolean open = "ACTIVE".equals(state.status);
+				while (open) {
+					if (session.isBotPending()) {
+						try {
+							sessionManager.scheduleBotTurn(session);
+						} catch (RejectedExecutionException e) {
+							// Tried again at the next heartbeat
+						}
+					}
+					StreamedEvent event = events.poll(EVENT_HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+					if (event == null) {
+						writer.write(":\n\n");
+						writer.flush();
+					} else if (event == StreamedEvent.END) {
+						open = false;
+					} else {
+						writeEvent(writer, event.name(), event.data());
+						open = !"gameOver".equals(event.name());
+					}
+				}
+			}
+		} catch (IOException e) {
+			// The client went away; there is nobody left to answer
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			session.removeListener(listener);
+			exchange.close();
+		}
+	}
+
+	private static SessionEvent stateEvent(BlindChessSession session) {
+		SessionEvent event = new SessionEvent();
+		event.status = session.getStatus().name();
+		event.resultMessage = session.getResultMessage();
+		event.prompt = session.getPrompt();
+		return event;
+	}
+
+	// Each event is flushed on its own, since the client acts on it as soon as it arrives
+	private void writeEvent(Writer writer, String name, Object data) throws IOException {
+		writer.write("event: " + name + "\ndata: ");
+		GSON.toJson(data, data.getClass(), writer);
+		writer.write("\n\n");
+		writer.flush();
+	}
+
+	/**
+	 * @return the bot's move in SAN if it was played within {@link #BOT_REPLY_WAIT_MILLIS}, otherwise null
+	 */
+	private String awaitBotMove(BlindChessSession session) {
+		try {
+			return sessionManager.scheduleBotTurn(session).get(BOT_REPLY_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException | RejectedExecutionException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+		}
+	}
+
+	// 202 while the bot's reply is pending, so a client can tell it has to poll
+	private void writeSession(HttpExchange exchange, BlindChessSession session, String playerMove, String botMove)
+			throws IOException {
+		SessionResponse response = toResponse(session, playerMove, botMove);
+		writeJson(exchange, response.pending ? 202 : 200, response);
 	}
 
 	private ChessGame.TeamColor parseColor(String color) {
@@ -114,10 +435,24 @@ public class BlindChessServer
 		return ChessGame.TeamColor.valueOf(color.trim().toUpperCase());
 	}
 
+	private SearchLimits parseBotLimits(Long botMoveTimeMillis) {
+		if (botMoveTimeMillis == null) {
+			return null;
+		}
+		if (botMoveTimeMillis <= 0) {
+			throw new IllegalArgumentException("Bot move time must be positive.");
+		}
+		return SearchLimits.moveTime(Math.min(botMoveTimeMillis, MAX_BOT_MOVE_TIME_MILLIS));
+	}
+
+	// Parsed as it streams in, through the type adapters Gson caches per class, without a copy of the whole body
 	private <T> T readJson(HttpExchange exchange, Class<T> targetClass) throws IOException {
-		try (InputStream inputStream = exchange.getRequestBody()) {
-			String body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-			return GSON.fromJson(body, targetClass);
+		try (JsonReader reader = new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+			T request = GSON.fromJson(reader, targetClass);
+			if (request == null) {
+				throw new IllegalArgumentException("Request body is required.");
+			}
+			return request;
 		}
 	}
 
@@ -129,6 +464,7 @@ public class BlindChessServer
 		response.botColor = session.getBotColor().name();
 		response.turn = session.getCurrentTurn() == null ? null : session.getCurrentTurn().name();
 		response.yourTurn = session.isPlayerTurn();
+		response.pending = session.isBotPending();
 		response.status = session.getStatus().name();
 		response.resultMessage = session.getResultMessage();
 		response.latestMove = session.getLatestMove();
@@ -139,12 +475,67 @@ public class BlindChessServer
 		return response;
 	}
 
+	// Written straight to the response rather than built as a String first; see JsonBody
 	private void writeJson(HttpExchange exchange, int statusCode, Object payload) throws IOException {
-		byte[] json = GSON.toJson(payload).getBytes(StandardCharsets.UTF_8);
 		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
-		exchange.sendResponseHeaders(statusCode, json.length);
-		try (OutputStream outputStream = exchange.getResponseBody()) {
-			outputStream.write(json);
+		try (JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(new JsonBody(exchange, statusCode), StandardCharsets.UTF_8)))) {
+			GSON.toJson(payload, payload.getClass(), writer);
+		}
+	}
+
+	/**
+	 * A response body that holds back its first {@link #MAX_BUFFERED_BODY_BYTES} bytes. A body that fits is sent
+	 * with its length when closed, as almost every response is; one that outgrows the buffer starts a chunked
+	 * response and streams the rest.
+	 */
+	private static final class JsonBody extends OutputStream
+	{
+		private final HttpExchange exchange;
+		private final int statusCode;
+		private byte[] buffer = new byte[MAX_BUFFERED_BODY_BYTES];
+		private int length;
+		private OutputStream streamed;
+
+		private JsonBody(HttpExchange exchange, int statusCode) {
+			this.exchange = exchange;
+			this.statusCode = statusCode;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] {(byte) b}, 0, 1);
 		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int count) throws IOException {
+			if (streamed == null && length + count > buffer.length) {
+				exchange.sendResponseHeaders(statusCode, 0);
+				streamed = exchange.getResponseBody();
+				streamed.write(buffer, 0, length);
+				buffer = null;
+			}
+			if (streamed != null) {
+				streamed.write(bytes, offset, count);
+			} else {
+				System.arraycopy(bytes, offset, buffer, length, count);
+				length += count;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (streamed == null) {
+				exchange.sendResponseHeaders(statusCode, length == 0 ? -1 : length);
+				streamed = exchange.getResponseBody();
+				streamed.write(buffer, 0, length);
+			}
+			streamed.close();
+		}
+	}
+
+	private record StreamedEvent(String name, SessionEvent data)
+	{
+		// Ends the stream without an event of its own
+		private static final StreamedEvent END = new StreamedEvent(null, null);
 	}
 }
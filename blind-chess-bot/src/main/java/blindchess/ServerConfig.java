@@ -0,0 +1,87 @@
+package blindchess;
+
+
+import blindchess.bot.OpeningBook;
+import blindchess.bot.SearchListener;
+import blindchess.bot.SearchOptions;
+import blindchess.bot.Tablebase;
+import blindchess.model.MoveJournal;
+import blindchess.model.Ponderer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+
+/**
+ * Everything a {@link BlindChessServer} is built with besides its port. Start from {@link #DEFAULTS} and change
+ * what differs.
+ *
+ * @param book               opening book the bot plays from before it starts searching, or null to always search
+ * @param tablebase          endgame tables the bot plays small endings from, or null to search them
+ * @param searchOptions      search techniques the bot uses
+ * @param searchListener     told about every search iteration the bot completes, or null
+ * @param ponderer           thinks on the players' time for every session, or null to not ponder
+ * @param backlog            connections the operating system may queue before the server accepts them
+ * @param sessionIdleTimeout how long a session may go unused before it leaves memory
+ * @param maxSessions        how many sessions may be in memory at once
+ * @param spillDirectory     where games in progress are written when they leave memory, or null to forget them
+ * @param journal            records every move so sessions can be brought back after a restart, or null to keep
+ *                           them only in memory and the spill directory
+ */
+public record ServerConfig(OpeningBook book, Tablebase tablebase, SearchOptions searchOptions,
+                           SearchListener searchListener, Ponderer ponderer, int backlog, Duration sessionIdleTimeout,
+                           int maxSessions, Path spillDirectory, MoveJournal journal)
+{
+	public static final ServerConfig DEFAULTS = new ServerConfig(null, null, SearchOptions.DEFAULTS, null, null, 1_024,
+			Duration.ofMinutes(30), 10_000, null, null);
+
+	public ServerConfig withBook(OpeningBook book) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withTablebase(Tablebase tablebase) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withSearchOptions(SearchOptions searchOptions) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withSearchListener(SearchListener searchListener) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withPonderer(Ponderer ponderer) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withBacklog(int backlog) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withSessionIdleTimeout(Duration sessionIdleTimeout) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withMaxSessions(int maxSessions) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withSpillDirectory(Path spillDirectory) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+
+	public ServerConfig withJournal(MoveJournal journal) {
+		return new ServerConfig(book, tablebase, searchOptions, searchListener, ponderer, backlog, sessionIdleTimeout,
+				maxSessions, spillDirectory, journal);
+	}
+}
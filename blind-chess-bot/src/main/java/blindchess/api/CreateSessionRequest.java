@@ -5,6 +5,8 @@ public class CreateSessionRequest
 {
 	public String mode;
 	public String playerColor;
+	public Long botMoveTimeMillis;
+	public String startingFen;
 
 	public CreateSessionRequest() {
 	}
@@ -0,0 +1,20 @@
+package blindchess.api;
+
+
+/**
+ * Data of one event on a session's event stream. Move events carry the move and the session's state after it,
+ * game over events only the state; a bot thinking event carries nothing.
+ */
+public class SessionEvent
+{
+	// How many moves the history holds after this one, to tell events apart from the state they follow
+	public Integer moveCount;
+	public String move;
+	public String color;
+	// The last line of visibleHistory after the move: it replaces the previous last line when it has the same move
+	// number, and follows it otherwise
+	public String historyLine;
+	public String status;
+	public String resultMessage;
+	public String prompt;
+}
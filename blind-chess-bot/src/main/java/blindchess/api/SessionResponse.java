@@ -13,6 +13,8 @@ public class SessionResponse
 	public String botColor;
 	public String turn;
 	public boolean yourTurn;
+	// True while the bot is still thinking about its reply; poll the session until it is false
+	public boolean pending;
 	public String status;
 	public String resultMessage;
 	public String latestMove;
@@ -0,0 +1,67 @@
+package blindchess.bot;
+
+
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameCopier;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+
+/**
+ * Plays from an {@link OpeningBook} while the position is in it and hands every other position to a searching bot.
+ * A book hit costs one binary search instead of a full search, which matters most in the opening positions every
+ * session passes through.
+ */
+public class BookChessBot implements ChessBot
+{
+	private final OpeningBook book;
+	private final ChessBot fallback;
+	private final RandomGenerator random;
+
+	public BookChessBot(OpeningBook book, ChessBot fallback) {
+		this(book, fallback, null);
+	}
+
+	/**
+	 * @param random picks among the book moves; must be safe to share between the threads that call this bot,
+	 *               or null to use {@link ThreadLocalRandom}
+	 */
+	public BookChessBot(OpeningBook book, ChessBot fallback, RandomGenerator random) {
+		this.book = book;
+		this.fallback = fallback;
+		this.random = random;
+	}
+
+	@Override
+	public ChessMove chooseMove(ChessGame game, ChessGame.TeamColor teamColor) {
+		ChessMove bookMove = bookMove(game, teamColor);
+		return bookMove != null ? bookMove : fallback.chooseMove(game, teamColor);
+	}
+
+	@Override
+	public ChessMove chooseMove(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits) {
+		ChessMove bookMove = bookMove(game, teamColor);
+		return bookMove != null ? bookMove : fallback.chooseMove(game, teamColor, limits);
+	}
+
+	@Override
+	public ChessMove ponder(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits, AtomicBoolean cancelled) {
+		ChessMove bookMove = bookMove(game, teamColor);
+		return bookMove != null ? bookMove : fallback.ponder(game, teamColor, limits, cancelled);
+	}
+
+	private ChessMove bookMove(ChessGame game, ChessGame.TeamColor teamColor) {
+		ChessGameImpl position;
+		if (game instanceof ChessGameImpl impl && impl.getTeamTurn() == teamColor) {
+			position = impl;
+		} else {
+			position = ChessGameCopier.copy(game);
+			position.setTeamTurn(teamColor);
+		}
+		return book.choose(position, random != null ? random : ThreadLocalRandom.current());
+	}
+}
@@ -0,0 +1,56 @@
+package blindchess.bot;
+
+
+/**
+ * Everything a {@link MinimaxChessBot} is built with. Start from {@link #DEFAULTS} and change what differs.
+ *
+ * @param defaultLimits      budget used when a caller does not pass one
+ * @param transpositionTable table shared by every search the bot runs, across turns and sessions, or null for a
+ *                           new table of the bot's own
+ * @param threads            threads per search, including the caller's; 1 searches on the calling thread only and
+ *                           always picks the same move for the same position and budget
+ * @param evaluator          scores the positions at the leaves of the search
+ * @param options            which search techniques to use on top of alpha-beta
+ * @param tablebase          endgame tables consulted at the root and in the search, or null to search every ending
+ * @param listener           told about every iteration the main search completes, or null
+ */
+public record BotConfig(SearchLimits defaultLimits, TranspositionTable transpositionTable, int threads, Evaluator evaluator,
+                        SearchOptions options, Tablebase tablebase, SearchListener listener)
+{
+	public static final BotConfig DEFAULTS = new BotConfig(SearchLimits.depth(2), null, 1, new Evaluator(),
+			SearchOptions.DEFAULTS, null, null);
+
+	public BotConfig {
+		if (threads < 1) {
+			throw new IllegalArgumentException("A search needs at least one thread.");
+		}
+	}
+
+	public BotConfig withDefaultLimits(SearchLimits defaultLimits) {
+		return new BotConfig(defaultLimits, transpositionTable, threads, evaluator, options, tablebase, listener);
+	}
+
+	public BotConfig withTranspositionTable(TranspositionTable transpositionTable) {
+		return new BotConfig(defaultLimits, transpositionTable, threads, evaluator, options, tablebase, listener);
+	}
+
+	public BotConfig withThreads(int threads) {
+		return new BotConfig(defaultLimits, transpositionTable, threads, evaluator, options, tablebase, listener);
+	}
+
+	public BotConfig withEvaluator(Evaluator evaluator) {
+		return new BotConfig(defaultLimits, transpositionTable, threads, evaluator, options, tablebase, listener);
+	}
+
+	public BotConfig withOptions(SearchOptions options) {
+		return new BotConfig(defaultLimits, transpositionTable, threads, evaluator, options, tablebase, listener);
+	}
+
+	public BotConfig withTablebase(Tablebase tablebase) {
+		return new BotConfig(defaultLimits, transpositionTable, threads, evaluator, options, tablebase, listener);
+	}
+
+	public BotConfig withListener(SearchListener listener) {
+		return new BotConfig(defaultLimits, transpositionTable, threads, evaluator, options, tablebase, listener);
+	}
+}
@@ -4,8 +4,28 @@ package blindchess.bot;
 import chess.gameplay.ChessGame;
 import chess.gameplay.ChessMove;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 
 public interface ChessBot
 {
 	ChessMove chooseMove(ChessGame game, ChessGame.TeamColor teamColor);
+
+	/**
+	 * Chooses a move within the given budget. Bots that cannot honour a budget use their own settings.
+	 */
+	default ChessMove chooseMove(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits) {
+		return chooseMove(game, teamColor);
+	}
+
+	/**
+	 * Chooses a move in the background, while the opponent is still thinking. The search should use as little of
+	 * the machine as it can, and may stop early once {@code cancelled} is set, in which case the move it returns
+	 * is a guess and is discarded. Bots that cannot be cancelled simply search.
+	 *
+	 * @param limits budget for the search, or null for the bot's own default
+	 */
+	default ChessMove ponder(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits, AtomicBoolean cancelled) {
+		return limits == null ? chooseMove(game, teamColor) : chooseMove(game, teamColor, limits);
+	}
 }
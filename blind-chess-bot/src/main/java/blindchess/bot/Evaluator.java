@@ -0,0 +1,67 @@
+package blindchess.bot;
+
+
+import chess.gameplay.Attacks;
+import chess.gameplay.ChessBoardImpl;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.PieceSquareTables;
+import chess.pieces.ChessPiece;
+
+
+/**
+ * Static evaluation for the search.
+ * <p>
+ * Material and piece placement are read from the running sums the board keeps up to date on every move,
+ * tapered between middlegame and endgame by phase, so the base evaluation costs a few field reads. The
+ * optional mobility term counts the squares knights, bishops, rooks and queens attack, from attack masks
+ * rather than generated moves.
+ */
+public final class Evaluator
+{
+	private static final int MOBILITY_WEIGHT = 3;
+
+	private final boolean mobility;
+
+	public Evaluator() {
+		this(true);
+	}
+
+	/**
+	 * @param mobility whether to add the attack-count mobility term
+	 */
+	public Evaluator(boolean mobility) {
+		this.mobility = mobility;
+	}
+
+	/**
+	 * @return the score of the position from the point of view of the given side, in centipawns
+	 */
+	public int evaluate(ChessGameImpl game, ChessGame.TeamColor sideToMove) {
+		ChessBoardImpl board = game.getBoard();
+		int score = PieceSquareTables.taper(board.middlegameScore(), board.endgameScore(), board.phase());
+		if (mobility) {
+			score += MOBILITY_WEIGHT * (mobility(board, ChessGame.TeamColor.WHITE) - mobility(board, ChessGame.TeamColor.BLACK));
+		}
+		return sideToMove == ChessGame.TeamColor.WHITE ? score : -score;
+	}
+
+	private int mobility(ChessBoardImpl board, ChessGame.TeamColor color) {
+		long occupancy = board.occupancy();
+		long targets = ~board.occupancy(color);
+		int count = 0;
+		for (long knights = board.pieces(color, ChessPiece.PieceType.KNIGHT); knights != 0; knights &= knights - 1) {
+			count += Long.bitCount(Attacks.knight(Long.numberOfTrailingZeros(knights)) & targets);
+		}
+		for (long bishops = board.pieces(color, ChessPiece.PieceType.BISHOP); bishops != 0; bishops &= bishops - 1) {
+			count += Long.bitCount(Attacks.bishop(Long.numberOfTrailingZeros(bishops), occupancy) & targets);
+		}
+		for (long rooks = board.pieces(color, ChessPiece.PieceType.ROOK); rooks != 0; rooks &= rooks - 1) {
+			count += Long.bitCount(Attacks.rook(Long.numberOfTrailingZeros(rooks), occupancy) & targets);
+		}
+		for (long queens = board.pieces(color, ChessPiece.PieceType.QUEEN); queens != 0; queens &= queens - 1) {
+			count += Long.bitCount(Attacks.queen(Long.numberOfTrailingZeros(queens), occupancy) & targets);
+		}
+		return count;
+	}
+}
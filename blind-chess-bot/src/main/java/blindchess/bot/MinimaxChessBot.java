@@ -1,162 +1,632 @@
 package blindchess.bot;
 
 
-import blindchess.notation.ChessNotation;
-import blindchess.notation.ChessRules;
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessBoardImpl;
 import chess.gameplay.ChessGame;
 import chess.gameplay.ChessGameCopier;
 import chess.gameplay.ChessGameImpl;
 import chess.gameplay.ChessMove;
-import chess.gameplay.ChessPosition;
-import chess.gameplay.ChessPositionImpl;
-import chess.gameplay.InvalidMoveException;
+import chess.gameplay.MoveGenerator;
+import chess.gameplay.PackedMove;
 import chess.pieces.ChessPiece;
 
-import java.util.Comparator;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 
 public class MinimaxChessBot implements ChessBot
 {
-	private static final double CHECKMATE_SCORE = 100_000;
-	private final int searchDepth;
+	private static final int CHECKMATE_SCORE = 100_000;
+	// Scores beyond this are mates, stored in the table relative to the node rather than the root
+	private static final int MATE_THRESHOLD = CHECKMATE_SCORE - 1_000;
+	private static final int INFINITY = CHECKMATE_SCORE + 1;
+	// Nodes between clock and node-budget checks
+	private static final int CHECK_INTERVAL = 1024;
+	// A capture that cannot lift the score to alpha even with this much positional gain is not searched
+	private static final int DELTA_MARGIN = 200;
+	private static final int MAX_PLY = 128;
+	// Null-move pruning needs this much depth left, and searches the reply this much shallower (one more when deep)
+	private static final int NULL_MOVE_MIN_DEPTH = 3;
+	private static final int NULL_MOVE_REDUCTION = 2;
+	// Late-move reductions start after this many moves, at this much depth left
+	private static final int LMR_MIN_MOVES = 3;
+	private static final int LMR_MIN_DEPTH = 3;
+	// Reductions by depth and move number, growing with the logarithm of both
+	private static final int[][] LMR_REDUCTIONS = new int[64][64];
+	// Iterations this shallow are cheap and their scores jumpy, so they are searched without a window
+	private static final int ASPIRATION_MIN_DEPTH = 4;
+	private static final int[] NO_KILLERS = {PackedMove.NONE, PackedMove.NONE};
+
+	static {
+		for (int depth = 1; depth < LMR_REDUCTIONS.length; depth++) {
+			for (int moveNumber = 1; moveNumber < LMR_REDUCTIONS[depth].length; moveNumber++) {
+				LMR_REDUCTIONS[depth][moveNumber] = (int) (0.75 + Math.log(depth) * Math.log(moveNumber) / 2.25);
+			}
+		}
+	}
+
+	private final SearchLimits defaultLimits;
+	private final TranspositionTable transpositionTable;
+	private final int threads;
+	private final Evaluator evaluator;
+	private final SearchOptions options;
+	private final Tablebase tablebase;
+	private final SearchListener listener;
 
 	public MinimaxChessBot() {
 		this(2);
 	}
 
 	public MinimaxChessBot(int searchDepth) {
-		this.searchDepth = Math.max(1, searchDepth);
+		this(BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.depth(searchDepth)));
+	}
+
+	public MinimaxChessBot(BotConfig config) {
+		this.defaultLimits = config.defaultLimits();
+		this.transpositionTable = config.transpositionTable() == null ? new TranspositionTable() : config.transpositionTable();
+		this.threads = config.threads();
+		this.evaluator = config.evaluator();
+		this.options = config.options();
+		this.tablebase = config.tablebase();
+		this.listener = config.listener();
 	}
 
 	@Override
 	public ChessMove chooseMove(ChessGame game, ChessGame.TeamColor teamColor) {
-		List<ChessMove> legalMoves = ChessRules.legalMoves(game, teamColor);
-		if (legalMoves.isEmpty()) {
-			throw new IllegalStateException("No legal moves available for the bot.");
-		}
+		return chooseMove(game, teamColor, defaultLimits);
+	}
 
-		legalMoves.sort(Comparator.comparing(ChessNotation::toCoordinateString));
+	/**
+	 * Searches with iterative deepening until the depth, time or node budget runs out. An iteration cut short
+	 * by the budget is discarded, except that the first iteration always completes so there is a move to play.
+	 * From the fourth iteration on, each one starts with a narrow window around the previous score
+	 * (see {@link SearchOptions#aspirationWindow()}) and widens it only when the score falls outside.
+	 * <p>
+	 * With more than one thread this is a Lazy SMP search: helper threads run the same search alongside the
+	 * caller's and fill the shared transposition table. Helpers are only borrowed while cores are free (see
+	 * {@link SearchWorkers}), so under load a search quietly falls back to fewer threads.
+	 */
+	@Override
+	public ChessMove chooseMove(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits) {
+		return search(game, teamColor, limits, threads, null);
+	}
 
-		double bestScore = Double.NEGATIVE_INFINITY;
-		ChessMove bestMove = legalMoves.get(0);
-		for (ChessMove move : legalMoves) {
-			ChessGameImpl simulation = ChessGameCopier.copy(game);
-			simulation.setTeamTurn(teamColor);
-			try {
-				simulation.makeMove(ChessGameCopier.copyMove(move));
-			} catch (InvalidMoveException e) {
-				continue;
-			}
+	/**
+	 * Searches on the calling thread alone, so pondering never takes helpers from a search someone is waiting
+	 * for, and reports no iterations to the listener.
+	 */
+	@Override
+	public ChessMove ponder(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits, AtomicBoolean cancelled) {
+		return search(game, teamColor, limits == null ? defaultLimits : limits, 1, cancelled);
+	}
 
-			double score = minimax(simulation, searchDepth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, teamColor);
-			if (score > bestScore) {
-				bestScore = score;
-				bestMove = move;
+	/**
+	 * @param cancelled stops the search at the next budget check once set, or null if only the budget stops it
+	 */
+	private ChessMove search(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits, int threads,
+	                         AtomicBoolean cancelled) {
+		// One private copy per search; every node below is reached by make/unmake on this position
+		ChessGameImpl position = ChessGameCopier.copy(game);
+		position.setTeamTurn(teamColor);
+
+		// Moves stay packed ints through the search and become a ChessMove only on the way out
+		int[] buffer = new int[MoveGenerator.MAX_MOVES];
+		int[] legalMoves = Arrays.copyOf(buffer, MoveGenerator.generate(position.getBoard(), teamColor, buffer, 0));
+		if (legalMoves.length == 0) {
+			throw new IllegalStateException("No legal moves available for the bot.");
+		}
+		if (tablebase != null) {
+			// A won or lost ending is played straight from the table; a drawn one is searched among the moves that hold it
+			int[] tablebaseMoves = tablebaseMoves(position, legalMoves);
+			if (tablebaseMoves != legalMoves && tablebaseMoves.length == 1) {
+				return PackedMove.toChessMove(tablebaseMoves[0]);
 			}
+			legalMoves = tablebaseMoves;
 		}
-		return bestMove;
-	}
 
-	private double minimax(ChessGame game, int depth, double alpha, double beta, ChessGame.TeamColor botColor) {
-		ChessGame.TeamColor currentTurn = game.getTeamTurn();
-		if (currentTurn == null) {
-			return evaluate(game, botColor);
+		transpositionTable.newSearch();
+		// Helpers share only the table; they search their own copies and their results reach the main
+		// search through the entries they leave behind
+		AtomicBoolean finished = new AtomicBoolean();
+		int helpers = SearchWorkers.acquire(threads - 1);
+		for (int helper = 1; helper <= helpers; helper++) {
+			Search search = new Search(ChessGameCopier.copy(position), limits, finished, null, helper);
+			int[] helperMoves = legalMoves.clone();
+			SearchWorkers.run(() -> search.iterate(helperMoves));
 		}
-		if (game.isInCheckmate(currentTurn)) {
-			return currentTurn == botColor ? -CHECKMATE_SCORE - depth : CHECKMATE_SCORE + depth;
+		try {
+			return PackedMove.toChessMove(new Search(position, limits, finished, cancelled, 0).iterate(legalMoves));
+		} finally {
+			finished.set(true);
 		}
-		if (game.isInStalemate(currentTurn) || depth == 0) {
-			return evaluate(game, botColor);
+	}
+
+	/**
+	 * State of one bot move's search: the position being searched and the budget counters. Confined to the
+	 * thread running the search, so the bot itself can be shared by concurrent sessions.
+	 */
+	private final class Search
+	{
+		private final ChessGameImpl game;
+		private final SearchLimits limits;
+		private final long startNanos;
+		private final long deadlineNanos;
+		private final long maxNodes;
+		private final AtomicBoolean finished;
+		private final AtomicBoolean cancelled;
+		private final int helperIndex;
+		// Two killer moves per ply and a history score per side and from/to pair, both as packed moves
+		private final int[][] killers = new int[MAX_PLY][2];
+		private final int[][] history = new int[2][Bitboards.SQUARE_COUNT * Bitboards.SQUARE_COUNT];
+		// One move picker per ply, reset at every node so move ordering allocates nothing
+		private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+		// Likewise for tablebase probes
+		private final Tablebase.Scratch tablebaseScratch = new Tablebase.Scratch();
+		private long nodes;
+		private int rootDepth;
+		// Best root move of the last searchRoot call
+		private int rootBest;
+		private int quiescenceBudget;
+		private boolean stoppable;
+		private boolean stopped;
+
+		/**
+		 * @param finished    set once the main search has its answer, which stops every helper
+		 * @param cancelled   set by a caller that no longer wants the answer, or null
+		 * @param helperIndex 0 for the main search, 1 and up for Lazy SMP helpers
+		 */
+		private Search(ChessGameImpl game, SearchLimits limits, AtomicBoolean finished, AtomicBoolean cancelled, int helperIndex) {
+			this.game = game;
+			this.limits = limits;
+			this.startNanos = System.nanoTime();
+			this.deadlineNanos = limits.moveTimeMillis() > 0 ? startNanos + limits.moveTimeMillis() * 1_000_000 : 0;
+			this.finished = finished;
+			this.cancelled = cancelled;
+			this.helperIndex = helperIndex;
+			// Helpers only feed the table, so the node budget belongs to the main search alone
+			this.maxNodes = helperIndex == 0 ? limits.maxNodes() : 0;
 		}
 
-		List<ChessMove> legalMoves = ChessRules.legalMoves(game, currentTurn);
-		legalMoves.sort(Comparator.comparing(ChessNotation::toCoordinateString));
-		if (legalMoves.isEmpty()) {
-			return evaluate(game, botColor);
+		/**
+		 * Iterative deepening over the root moves. Odd-numbered helpers start one ply deeper than the main
+		 * search so the threads spread over neighbouring depths instead of repeating the same work.
+		 *
+		 * @return the best move of the deepest completed iteration as a {@link PackedMove}; for a helper the result
+		 * is not used
+		 */
+		private int iterate(int[] rootMoves) {
+			long key = game.getZobristKey();
+			int bestMove = rootMoves[0];
+			int previousScore = 0;
+			int firstDepth = 1 + (helperIndex & 1);
+			for (int depth = firstDepth; depth <= limits.maxDepth(); depth++) {
+				orderMoves(rootMoves, depth == firstDepth ? TranspositionTable.move(transpositionTable.probe(key)) : bestMove);
+				stoppable = helperIndex != 0 || depth > 1;
+				rootDepth = depth;
+
+				// A mate score is exact enough that a window around it only costs re-searches
+				int delta = options.aspirationWindow();
+				boolean aspirate = delta > 0 && depth >= ASPIRATION_MIN_DEPTH && depth > firstDepth
+						&& Math.abs(previousScore) < MATE_THRESHOLD;
+				int alpha = aspirate ? Math.max(previousScore - delta, -INFINITY) : -INFINITY;
+				int beta = aspirate ? Math.min(previousScore + delta, INFINITY) : INFINITY;
+				int failLows = 0;
+				int failHighs = 0;
+				int score;
+				while (true) {
+					score = searchRoot(rootMoves, depth, alpha, beta);
+					if (stopped) {
+						break;
+					}
+					if (score <= alpha && alpha > -INFINITY) {
+						failLows++;
+						delta *= 2;
+						alpha = Math.max(score - delta, -INFINITY);
+					} else if (score >= beta && beta < INFINITY) {
+						failHighs++;
+						delta *= 2;
+						beta = Math.min(score + delta, INFINITY);
+						// The move that failed high is the one to prove first
+						orderMoves(rootMoves, rootBest);
+					} else {
+						break;
+					}
+				}
+				if (stopped) {
+					break;
+				}
+
+				bestMove = rootBest;
+				previousScore = score;
+				transpositionTable.store(key, depth, TranspositionTable.Bound.EXACT, score, PackedMove.key(bestMove));
+				if (listener != null && helperIndex == 0 && cancelled == null) {
+					listener.iterationCompleted(new SearchListener.Iteration(depth, score, PackedMove.toChessMove(bestMove),
+							nodes, (System.nanoTime() - startNanos) / 1_000_000, failLows, failHighs));
+				}
+				// A forced mate will not change with more depth
+				if (Math.abs(score) > MATE_THRESHOLD) {
+					break;
+				}
+			}
+			return bestMove;
 		}
 
-		if (currentTurn == botColor) {
-			double best = Double.NEGATIVE_INFINITY;
-			for (ChessMove move : legalMoves) {
-				best = Math.max(best, evaluateChild(game, currentTurn, move, depth, alpha, beta, botColor));
+		/**
+		 * Searches every root move within a window. The score is fail-soft: at most alpha when no move reaches
+		 * alpha, and at least beta as soon as one move reaches beta, in which case the remaining moves are skipped.
+		 * The best move is left in {@link #rootBest}.
+		 */
+		private int searchRoot(int[] rootMoves, int depth, int alpha, int beta) {
+			int best = -INFINITY;
+			rootBest = PackedMove.NONE;
+			for (int move : rootMoves) {
+				game.makeMoveUnchecked(move);
+				int score;
+				// With PVS, later root moves only have to show they are not better than the best so far
+				if (options.principalVariation() && rootBest != PackedMove.NONE) {
+					score = -negamax(depth - 1, 1, -alpha - 1, -alpha, true);
+					if (score > alpha && score < beta && !stopped) {
+						score = -negamax(depth - 1, 1, -beta, -alpha, true);
+					}
+				} else {
+					score = -negamax(depth - 1, 1, -beta, -alpha, true);
+				}
+				game.unmakeMove();
+				if (stopped) {
+					return 0;
+				}
+				if (score > best) {
+					best = score;
+					rootBest = move;
+				}
+				alpha = Math.max(alpha, score);
+				if (alpha >= beta) {
+					break;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Alpha-beta search scored from the point of view of the side to move, with the pruning, reductions and
+		 * extensions {@link SearchOptions} turns on.
+		 *
+		 * @param nullAllowed false right after a null move, so two passes in a row cannot prune a node
+		 */
+		private int negamax(int depth, int ply, int alpha, int beta, boolean nullAllowed) {
+			if ((++nodes & (CHECK_INTERVAL - 1)) == 0 && stoppable && budgetExhausted()) {
+				stopped = true;
+			}
+			if (stopped) {
+				return 0;
+			}
+
+			ChessGame.TeamColor currentTurn = game.getTeamTurn();
+			if (tablebase != null && Long.bitCount(game.getBoard().occupancy()) <= Tablebase.MAX_PIECES) {
+				int value = tablebase.probe(game, tablebaseScratch);
+				if (value != Tablebase.MISSING) {
+					return tablebaseScore(value, ply);
+				}
+			}
+
+			// Checks are searched a ply deeper so forcing lines are not cut off at the horizon; the cap on the
+			// ply keeps a long series of checks from running away
+			boolean inCheck = inCheck(game, currentTurn);
+			if (inCheck && options.checkExtensions() && ply < 2 * rootDepth) {
+				depth++;
+			}
+			long key = game.getZobristKey();
+
+			long entry = transpositionTable.probe(key);
+			int hashMove = PackedMove.NONE;
+			if (entry != 0) {
+				hashMove = TranspositionTable.move(entry);
+				if (TranspositionTable.depth(entry) >= depth) {
+					int score = fromTableScore(TranspositionTable.score(entry), ply);
+					TranspositionTable.Bound bound = TranspositionTable.bound(entry);
+					if (bound == TranspositionTable.Bound.EXACT
+							|| (bound == TranspositionTable.Bound.LOWER && score >= beta)
+							|| (bound == TranspositionTable.Bound.UPPER && score <= alpha)) {
+						return score;
+					}
+				}
+			}
+
+			if (depth == 0 && options.quiescence()) {
+				quiescenceBudget = options.maxQuiescenceNodes();
+				return quiescence(ply, alpha, beta);
+			}
+			// Quiet leaves are scored without generating moves; a leaf in check still needs them to spot mate
+			if (depth == 0 && !inCheck) {
+				return evaluator.evaluate(game, currentTurn);
+			}
+
+			// If passing still holds beta, a real move will too. Passing is only a safe guess while the side to move
+			// has pieces besides pawns; in pawn endings zugzwang is common and the guess would prune winning lines.
+			if (options.nullMove() && nullAllowed && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+					&& Math.abs(beta) < MATE_THRESHOLD && hasPieces(game, currentTurn)
+					&& evaluator.evaluate(game, currentTurn) >= beta) {
+				int reduction = NULL_MOVE_REDUCTION + (depth >= 6 ? 1 : 0);
+				game.makeNullMove();
+				int score = -negamax(Math.max(depth - 1 - reduction, 0), ply + 1, -beta, -beta + 1, false);
+				game.unmakeMove();
+				if (stopped) {
+					return 0;
+				}
+				if (score >= beta) {
+					// A mate found after passing is not a mate the side to move can claim
+					return score > MATE_THRESHOLD ? beta : score;
+				}
+			}
+
+			int[] killers = ply < MAX_PLY ? this.killers[ply] : NO_KILLERS;
+			int[] history = this.history[Bitboards.colorIndex(currentTurn)];
+			MovePicker picker = picker(ply);
+			picker.reset(game, hashMove, killers, history, true);
+			int originalAlpha = alpha;
+			int best = -INFINITY;
+			int bestMove = PackedMove.NONE;
+			int moveCount = 0;
+			for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+				if (depth == 0) {
+					// A legal move exists, so this checked leaf is not mate
+					return evaluator.evaluate(game, currentTurn);
+				}
+				moveCount++;
+				boolean quiet = PackedMove.isQuiet(move);
+				game.makeMoveUnchecked(move);
+				int score = searchMove(depth, ply, alpha, beta, moveCount, quiet && !inCheck);
+				game.unmakeMove();
+				if (stopped) {
+					return 0;
+				}
+				if (score > best) {
+					best = score;
+					bestMove = move;
+				}
 				alpha = Math.max(alpha, best);
-				if (beta <= alpha) {
+				if (alpha >= beta) {
+					if (quiet) {
+						recordCutoff(killers, history, PackedMove.key(move), depth);
+					}
 					break;
 				}
 			}
+			if (moveCount == 0) {
+				return inCheck ? -CHECKMATE_SCORE + ply : evaluator.evaluate(game, currentTurn);
+			}
+
+			TranspositionTable.Bound bound = best <= originalAlpha
+					? TranspositionTable.Bound.UPPER
+					: best >= beta ? TranspositionTable.Bound.LOWER : TranspositionTable.Bound.EXACT;
+			transpositionTable.store(key, depth, bound, toTableScore(best, ply), PackedMove.key(bestMove));
 			return best;
 		}
 
-		double best = Double.POSITIVE_INFINITY;
-		for (ChessMove move : legalMoves) {
-			best = Math.min(best, evaluateChild(game, currentTurn, move, depth, alpha, beta, botColor));
-			beta = Math.min(beta, best);
-			if (beta <= alpha) {
-				break;
+		/**
+		 * Scores the move just made. The first move gets the full window. With late-move reductions, a quiet move
+		 * late in the order is first searched shallower with a zero window, and again at full depth only if it
+		 * beats alpha. With PVS, every later move is tried with a zero window before a full-window search.
+		 *
+		 * @param reducible whether the move is quiet and was played out of check, so it may be reduced
+		 */
+		private int searchMove(int depth, int ply, int alpha, int beta, int moveCount, boolean reducible) {
+			int newDepth = depth - 1;
+			if (moveCount == 1) {
+				return -negamax(newDepth, ply + 1, -beta, -alpha, true);
+			}
+
+			int reduction = 0;
+			if (options.lateMoveReductions() && reducible && depth >= LMR_MIN_DEPTH && moveCount > LMR_MIN_MOVES
+					&& !inCheck(game, game.getTeamTurn())) {
+				int row = Math.min(depth, LMR_REDUCTIONS.length - 1);
+				int column = Math.min(moveCount, LMR_REDUCTIONS.length - 1);
+				reduction = Math.min(LMR_REDUCTIONS[row][column], newDepth - 1);
 			}
+
+			int score = 0;
+			boolean fullWindow = true;
+			if (reduction > 0) {
+				score = -negamax(newDepth - reduction, ply + 1, -alpha - 1, -alpha, true);
+				fullWindow = score > alpha;
+			}
+			if (fullWindow && options.principalVariation()) {
+				score = -negamax(newDepth, ply + 1, -alpha - 1, -alpha, true);
+				fullWindow = score > alpha && score < beta;
+			}
+			if (fullWindow && !stopped) {
+				score = -negamax(newDepth, ply + 1, -beta, -alpha, true);
+			}
+			return score;
 		}
-		return best;
-	}
 
-	private double evaluateChild(
-			ChessGame game,
-			ChessGame.TeamColor movingTeam,
-			ChessMove move,
-			int depth,
-			double alpha,
-			double beta,
-			ChessGame.TeamColor botColor
-	) {
-		ChessGameImpl simulation = ChessGameCopier.copy(game);
-		simulation.setTeamTurn(movingTeam);
-		try {
-			simulation.makeMove(ChessGameCopier.copyMove(move));
-		} catch (InvalidMoveException e) {
-			return movingTeam == botColor ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		/**
+		 * Searches captures and promotions until the position is quiet, so the static score is never taken in
+		 * the middle of an exchange. The side to move may stand pat on the static score instead of capturing;
+		 * when in check and evasions are enabled it must answer the check instead, which also finds mates.
+		 */
+		private int quiescence(int ply, int alpha, int beta) {
+			if ((++nodes & (CHECK_INTERVAL - 1)) == 0 && stoppable && budgetExhausted()) {
+				stopped = true;
+			}
+			if (stopped) {
+				return 0;
+			}
+
+			ChessGame.TeamColor currentTurn = game.getTeamTurn();
+			if (quiescenceBudget-- <= 0) {
+				return evaluator.evaluate(game, currentTurn);
+			}
+
+			boolean evading = options.quiescenceEvasions() && inCheck(game, currentTurn);
+			int standPat = 0;
+			int best = -INFINITY;
+			if (!evading) {
+				standPat = evaluator.evaluate(game, currentTurn);
+				if (standPat >= beta) {
+					return standPat;
+				}
+				alpha = Math.max(alpha, standPat);
+				best = standPat;
+			}
+
+			// Evasions include quiet moves; otherwise only captures and promotions are searched
+			MovePicker picker = picker(ply);
+			picker.reset(game, PackedMove.NONE, NO_KILLERS, history[Bitboards.colorIndex(currentTurn)], evading);
+			int moveCount = 0;
+			for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+				moveCount++;
+				if (!evading && !PackedMove.isPromotion(move)
+						&& standPat + MovePicker.capturedValue(game, move) + DELTA_MARGIN <= alpha) {
+					continue;
+				}
+				game.makeMoveUnchecked(move);
+				int score = -quiescence(ply + 1, -beta, -alpha);
+				game.unmakeMove();
+				if (stopped) {
+					return 0;
+				}
+				if (score > best) {
+					best = score;
+					alpha = Math.max(alpha, score);
+					if (alpha >= beta) {
+						break;
+					}
+				}
+			}
+			if (evading && moveCount == 0) {
+				return -CHECKMATE_SCORE + ply;
+			}
+			return best;
+		}
+
+		// A quiet move that refuted this node is tried early in its siblings and wherever it recurs
+		private void recordCutoff(int[] killers, int[] history, int move, int depth) {
+			if (killers != NO_KILLERS && killers[0] != move) {
+				killers[1] = killers[0];
+				killers[0] = move;
+			}
+			history[(PackedMove.from(move) << 6) | PackedMove.to(move)] += depth * depth;
+		}
+
+		// Quiescence can run past the last ply with a picker of its own; those rare nodes get a fresh one
+		private MovePicker picker(int ply) {
+			if (ply >= MAX_PLY) {
+				return new MovePicker();
+			}
+			if (pickers[ply] == null) {
+				pickers[ply] = new MovePicker();
+			}
+			return pickers[ply];
+		}
+
+		private boolean budgetExhausted() {
+			return finished.get() || (cancelled != null && cancelled.get()) || (maxNodes > 0 && nodes >= maxNodes) || (deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0);
 		}
-		return minimax(simulation, depth - 1, alpha, beta, botColor);
 	}
 
-	private double evaluate(ChessGame game, ChessGame.TeamColor botColor) {
-		ChessGame.TeamColor opposingColor = opposite(botColor);
-		double material = materialScore(game, botColor) - materialScore(game, opposingColor);
-		double mobility = ChessRules.legalMoves(game, botColor).size() - ChessRules.legalMoves(game, opposingColor).size();
-		double checkPressure = 0;
-		if (game.getTeamTurn() != null) {
-			if (game.isInCheck(opposingColor)) {
-				checkPressure += 30;
+	/**
+	 * Picks the move the tables prefer: the fastest mate when winning, the longest resistance when losing. When the
+	 * position is drawn, the moves that throw the draw away are dropped for the search.
+	 *
+	 * @return an array holding only the move to play, the drawing moves to search, or {@code legalMoves} itself
+	 * when the tables do not cover the position or every reply
+	 */
+	private int[] tablebaseMoves(ChessGameImpl position, int[] legalMoves) {
+		Tablebase.Result result = tablebase.probe(position);
+		if (result == null) {
+			return legalMoves;
+		}
+
+		int bestMove = PackedMove.NONE;
+		int bestScore = -INFINITY;
+		int[] drawingMoves = new int[legalMoves.length];
+		int drawingCount = 0;
+		for (int move : legalMoves) {
+			position.makeMoveUnchecked(move);
+			Tablebase.Result reply = tablebase.probe(position);
+			position.unmakeMove();
+			if (reply == null) {
+				// A move into a position the tables do not cover, such as one with an en passant square
+				return legalMoves;
 			}
-			if (game.isInCheck(botColor)) {
-				checkPressure -= 30;
+			int score = -tablebaseScore(reply, 1);
+			if (score > bestScore) {
+				bestScore = score;
+				bestMove = move;
+			}
+			if (reply.outcome() == Tablebase.Outcome.DRAW) {
+				drawingMoves[drawingCount++] = move;
 			}
 		}
-		return material + (mobility * 3) + checkPressure;
+		if (result.outcome() != Tablebase.Outcome.DRAW || drawingCount == 1) {
+			return new int[] {bestMove};
+		}
+		return Arrays.copyOf(drawingMoves, drawingCount);
+	}
+
+	// Scores a raw table entry, as the search probes them
+	private static int tablebaseScore(int value, int ply) {
+		if (value == Tablebase.DRAW) {
+			return 0;
+		}
+		return Tablebase.isWin(value) ? CHECKMATE_SCORE - ply - Tablebase.plies(value) : -CHECKMATE_SCORE + ply + Tablebase.plies(value);
+	}
+
+	private static int tablebaseScore(Tablebase.Result result, int ply) {
+		return switch (result.outcome()) {
+			case WIN -> CHECKMATE_SCORE - ply - result.plies();
+			case LOSS -> -CHECKMATE_SCORE + ply + result.plies();
+			case DRAW -> 0;
+		};
 	}
 
-	private int materialScore(ChessGame game, ChessGame.TeamColor teamColor) {
-		int score = 0;
-		for (ChessPosition position : ChessPositionImpl.getAllPositions()) {
-			ChessPiece piece = game.getBoard().getPiece(position);
-			if (piece != null && piece.teamColor() == teamColor) {
-				score += pieceValue(piece.getPieceType());
+	// Moves the hash move to the front and otherwise keeps the order of the previous iteration
+	private void orderMoves(int[] moves, int hashMove) {
+		if (hashMove == PackedMove.NONE) {
+			return;
+		}
+		for (int i = 0; i < moves.length; i++) {
+			if (PackedMove.key(moves[i]) == PackedMove.key(hashMove)) {
+				int move = moves[i];
+				System.arraycopy(moves, 0, moves, 1, i);
+				moves[0] = move;
+				return;
 			}
 		}
+	}
+
+	private int toTableScore(int score, int ply) {
+		if (score > MATE_THRESHOLD) {
+			return score + ply;
+		}
+		if (score < -MATE_THRESHOLD) {
+			return score - ply;
+		}
 		return score;
 	}
 
-	private int pieceValue(ChessPiece.PieceType pieceType) {
-		return switch (pieceType) {
-			case PAWN -> 100;
-			case KNIGHT -> 320;
-			case BISHOP -> 330;
-			case ROOK -> 500;
-			case QUEEN -> 900;
-			case KING -> 20_000;
-		};
+	private int fromTableScore(int score, int ply) {
+		if (score > MATE_THRESHOLD) {
+			return score - ply;
+		}
+		if (score < -MATE_THRESHOLD) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	// Whether a team has anything besides its king and pawns, the guard against zugzwang in null-move pruning
+	private boolean hasPieces(ChessGameImpl game, ChessGame.TeamColor color) {
+		ChessBoardImpl board = game.getBoard();
+		return (board.occupancy(color) & ~board.pieces(color, ChessPiece.PieceType.PAWN)
+				& ~board.pieces(color, ChessPiece.PieceType.KING)) != 0;
 	}
 
-	private ChessGame.TeamColor opposite(ChessGame.TeamColor color) {
-		return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+	private boolean inCheck(ChessGameImpl game, ChessGame.TeamColor color) {
+		ChessBoardImpl board = game.getBoard();
+		int kingSquare = board.kingSquare(color);
+		return kingSquare >= 0 && board.isSquareAttacked(kingSquare, Bitboards.opposite(color));
 	}
 }
@@ -0,0 +1,222 @@
+package blindchess.bot;
+
+
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessBoardImpl;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.MoveGenerator;
+import chess.gameplay.PackedMove;
+import chess.gameplay.PieceSquareTables;
+import chess.pieces.ChessPiece;
+
+
+/**
+ * Hands out the legal moves of one node in the order most likely to cause a cutoff: the hash move, then
+ * captures and promotions by most valuable victim and least valuable attacker, then the killer moves, then
+ * the remaining quiet moves by history score.
+ * <p>
+ * Each stage is generated only when the previous one runs out, so a cutoff on the hash move or a capture
+ * never pays for generating the quiet moves. The hash move and killers come from other positions and are
+ * checked against the moves of their piece before they are returned.
+ * <p>
+ * Moves are {@link PackedMove} ints kept in arrays the picker owns, and a search keeps one picker per ply and
+ * {@link #reset resets} it for each node, so ordering moves allocates nothing.
+ */
+final class MovePicker
+{
+	private static final int STAGE_HASH = 0;
+	private static final int STAGE_GENERATE_CAPTURES = 1;
+	private static final int STAGE_CAPTURES = 2;
+	private static final int STAGE_KILLERS = 3;
+	private static final int STAGE_GENERATE_QUIETS = 4;
+	private static final int STAGE_QUIETS = 5;
+	private static final int STAGE_DONE = 6;
+
+	private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+	private final int[] scores = new int[MoveGenerator.MAX_MOVES];
+	// Moves of a single piece, for checking the hash move and killers
+	private final int[] candidates = new int[MoveGenerator.MAX_MOVES];
+	private ChessGameImpl game;
+	private ChessGame.TeamColor us;
+	private int hashMove;
+	private int[] killers;
+	private int[] history;
+	private boolean quiets;
+	private int count;
+	private int index;
+	private int killerIndex;
+	private int stage = STAGE_DONE;
+
+	/**
+	 * Creates a picker with nothing to pick until it is {@link #reset}.
+	 */
+	MovePicker() {
+	}
+
+	/**
+	 * Creates a picker for one node, as {@link #reset} does.
+	 */
+	MovePicker(ChessGameImpl game, int hashMove, int[] killers, int[] history, boolean quiets) {
+		reset(game, hashMove, killers, history, quiets);
+	}
+
+	/**
+	 * Starts over on a new node. The picker holds on to the arrays passed in, so they must not change until the
+	 * node is done.
+	 *
+	 * @param hashMove the table's best move for this position as a {@link PackedMove}, or {@link PackedMove#NONE}
+	 * @param killers  quiet moves that caused cutoffs at this ply in sibling nodes, as packed moves
+	 * @param history  cutoff counts of the side to move, indexed by {@code from * 64 + to}
+	 * @param quiets   false to stop after the captures and promotions, as quiescence search does
+	 */
+	void reset(ChessGameImpl game, int hashMove, int[] killers, int[] history, boolean quiets) {
+		this.game = game;
+		this.us = game.getTeamTurn();
+		this.hashMove = PackedMove.key(hashMove);
+		this.killers = killers;
+		this.history = history;
+		this.quiets = quiets;
+		count = 0;
+		index = 0;
+		killerIndex = 0;
+		stage = STAGE_HASH;
+	}
+
+	/**
+	 * @return the next move to search with its generator flags, or {@link PackedMove#NONE} once every legal move
+	 * has been returned
+	 */
+	int next() {
+		while (true) {
+			switch (stage) {
+				case STAGE_HASH -> {
+					stage = STAGE_GENERATE_CAPTURES;
+					int move = legalMove(hashMove);
+					if (move != PackedMove.NONE && (quiets || !PackedMove.isQuiet(move))) {
+						return move;
+					}
+				}
+				case STAGE_GENERATE_CAPTURES -> {
+					count = MoveGenerator.generateNoisy(game.getBoard(), us, moves, 0);
+					scoreCaptures();
+					stage = STAGE_CAPTURES;
+				}
+				case STAGE_CAPTURES -> {
+					int move = pickBest(hashMove, PackedMove.NONE, PackedMove.NONE);
+					if (move != PackedMove.NONE) {
+						return move;
+					}
+					stage = quiets ? STAGE_KILLERS : STAGE_DONE;
+				}
+				case STAGE_KILLERS -> {
+					if (killerIndex == killers.length) {
+						stage = STAGE_GENERATE_QUIETS;
+						continue;
+					}
+					int killer = killers[killerIndex++];
+					if (killer != hashMove) {
+						int move = legalMove(killer);
+						if (move != PackedMove.NONE && PackedMove.isQuiet(move)) {
+							return move;
+						}
+					}
+				}
+				case STAGE_GENERATE_QUIETS -> {
+					index = 0;
+					count = MoveGenerator.generateQuiet(game.getBoard(), us, moves, 0);
+					scoreQuiets();
+					stage = STAGE_QUIETS;
+				}
+				case STAGE_QUIETS -> {
+					int move = pickBest(hashMove, killers[0], killers[1]);
+					if (move != PackedMove.NONE) {
+						return move;
+					}
+					stage = STAGE_DONE;
+				}
+				default -> {
+					return PackedMove.NONE;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return a score for ordering a capture or promotion: most valuable victim first, then least valuable attacker
+	 */
+	static int captureScore(ChessGameImpl game, int move) {
+		ChessPiece attacker = game.getBoard().getPiece(PackedMove.from(move));
+		ChessPiece.PieceType promotionType = PackedMove.promotion(move);
+		int promotion = promotionType == null ? 0 : PieceSquareTables.material(promotionType);
+		return (capturedValue(game, move) + promotion) * 8 - PieceSquareTables.material(attacker.getPieceType()) / 100;
+	}
+
+	/**
+	 * @return the material value of the piece a move captures, 0 if it captures nothing
+	 */
+	static int capturedValue(ChessGameImpl game, int move) {
+		ChessPiece victim = game.getBoard().getPiece(PackedMove.to(move));
+		if (victim != null) {
+			return PieceSquareTables.material(victim.getPieceType());
+		}
+		// An empty target is either en passant or a promoting push
+		ChessPiece mover = game.getBoard().getPiece(PackedMove.from(move));
+		return mover.getPieceType() == ChessPiece.PieceType.PAWN && Bitboards.col(PackedMove.from(move)) != Bitboards.col(PackedMove.to(move))
+				? PieceSquareTables.material(ChessPiece.PieceType.PAWN)
+				: 0;
+	}
+
+	private void scoreCaptures() {
+		for (int i = 0; i < count; i++) {
+			scores[i] = captureScore(game, moves[i]);
+		}
+	}
+
+	private void scoreQuiets() {
+		for (int i = 0; i < count; i++) {
+			scores[i] = history[(PackedMove.from(moves[i]) << 6) | PackedMove.to(moves[i])];
+		}
+	}
+
+	// Selection sort one step at a time, skipping moves an earlier stage already returned
+	private int pickBest(int skip, int skipKiller1, int skipKiller2) {
+		while (index < count) {
+			int best = index;
+			for (int i = index + 1; i < count; i++) {
+				if (scores[i] > scores[best]) {
+					best = i;
+				}
+			}
+			int move = moves[best];
+			moves[best] = moves[index];
+			scores[best] = scores[index];
+			index++;
+
+			int key = PackedMove.key(move);
+			if (key != skip && key != skipKiller1 && key != skipKiller2) {
+				return move;
+			}
+		}
+		return PackedMove.NONE;
+	}
+
+	// Finds a packed move among the legal moves of the piece on its from square, returning it with its flags
+	private int legalMove(int packed) {
+		if (packed == PackedMove.NONE) {
+			return PackedMove.NONE;
+		}
+		ChessBoardImpl board = game.getBoard();
+		ChessPiece piece = board.getPiece(PackedMove.from(packed));
+		if (piece == null || piece.teamColor() != us) {
+			return PackedMove.NONE;
+		}
+		int end = MoveGenerator.generate(board, us, Bitboards.bit(PackedMove.from(packed)), candidates, 0);
+		for (int i = 0; i < end; i++) {
+			if (PackedMove.key(candidates[i]) == packed) {
+				return candidates[i];
+			}
+		}
+		return PackedMove.NONE;
+	}
+}
@@ -0,0 +1,144 @@
+package blindchess.bot;
+
+
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import chess.gameplay.PackedMove;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+
+/**
+ * A read-only opening book in a Polyglot-style binary file, looked up by binary search over a memory-mapped
+ * copy of the file.
+ * <p>
+ * The file is a sequence of 16-byte big-endian entries sorted by position key (compared unsigned) and, within a
+ * key, by falling weight: the {@link ChessGameImpl#getZobristKey() Zobrist key} (8 bytes), a {@link PackedMove}
+ * (2 bytes), the weight (2 bytes, unsigned) and 4 unused bytes. The layout follows Polyglot, but the keys and
+ * move encoding are this engine's own, so Polyglot books from elsewhere cannot be read. Books are written by
+ * {@link OpeningBookBuilder}.
+ * <p>
+ * Lookups only use absolute reads of the mapping, so one book can serve every session at once. The operating
+ * system pages the file in on demand and shares it between processes.
+ */
+public final class OpeningBook
+{
+	static final int ENTRY_BYTES = 16;
+	static final int MAX_WEIGHT = 0xFFFF;
+
+	private final MappedByteBuffer entries;
+	private final int size;
+
+	private OpeningBook(MappedByteBuffer entries) {
+		this.entries = entries;
+		this.size = entries.capacity() / ENTRY_BYTES;
+	}
+
+	/**
+	 * @throws IOException if the file cannot be read or is not a whole number of entries
+	 */
+	public static OpeningBook open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length % ENTRY_BYTES != 0 || length / ENTRY_BYTES > Integer.MAX_VALUE / ENTRY_BYTES) {
+				throw new IOException("Not an opening book: " + file);
+			}
+			// The mapping stays valid after the channel is closed
+			return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+		}
+	}
+
+	/**
+	 * @return the number of entries in the book
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the book moves for a position key, heaviest first; empty when the position is not in the book
+	 */
+	public List<Entry> entries(long key) {
+		List<Entry> found = new ArrayList<>();
+		for (int index = firstIndexOf(key); index < size && keyAt(index) == key; index++) {
+			int offset = index * ENTRY_BYTES;
+			found.add(new Entry(Short.toUnsignedInt(entries.getShort(offset + 8)), Short.toUnsignedInt(entries.getShort(offset + 10))));
+		}
+		return found;
+	}
+
+	/**
+	 * Picks one of the book moves for the game's position at random, each in proportion to its weight. Entries
+	 * that are not legal here, which only happens on a key collision, are never picked.
+	 *
+	 * @return the chosen move, or null if the position is not in the book
+	 */
+	public ChessMove choose(ChessGameImpl game, RandomGenerator random) {
+		List<Entry> candidates = entries(game.getZobristKey());
+		if (candidates.isEmpty()) {
+			return null;
+		}
+
+		Set<Integer> legal = new HashSet<>();
+		for (ChessMove move : game.allValidMoves(game.getTeamTurn())) {
+			legal.add(PackedMove.of(move));
+		}
+		long totalWeight = 0;
+		for (Entry entry : candidates) {
+			if (legal.contains(entry.move())) {
+				totalWeight += entry.weight();
+			}
+		}
+		if (totalWeight == 0) {
+			return null;
+		}
+
+		long pick = random.nextLong(totalWeight);
+		for (Entry entry : candidates) {
+			if (!legal.contains(entry.move())) {
+				continue;
+			}
+			pick -= entry.weight();
+			if (pick < 0) {
+				return PackedMove.toChessMove(entry.move());
+			}
+		}
+		throw new AssertionError("Weighted pick ran past the last entry.");
+	}
+
+	// Lower bound: the first entry whose key is not below the given key, in unsigned order
+	private int firstIndexOf(long key) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private long keyAt(int index) {
+		return entries.getLong(index * ENTRY_BYTES);
+	}
+
+	/**
+	 * @param move   the book move as a {@link PackedMove}
+	 * @param weight relative frequency of the move, from 0 to 65535
+	 */
+	public record Entry(int move, int weight)
+	{
+	}
+}
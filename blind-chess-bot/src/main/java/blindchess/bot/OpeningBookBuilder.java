@@ -0,0 +1,229 @@
+package blindchess.bot;
+
+
+import blindchess.notation.ChessNotation;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import chess.gameplay.PackedMove;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Builds an {@link OpeningBook} file from games in PGN.
+ * <p>
+ * Every move in the first {@link #DEFAULT_MAX_PLIES plies} of a game is counted for the position it was played
+ * from, weighted as Polyglot does by how the game went for the side that played it: 2 for a win, 1 for a draw
+ * or unknown result, 0 for a loss. Moves that only ever lost are left out of the book.
+ * <p>
+ * Run from the command line as {@code OpeningBookBuilder [--plies N] <book file> <pgn file> ...}.
+ */
+public final class OpeningBookBuilder
+{
+	public static final int DEFAULT_MAX_PLIES = 20;
+
+	private final int maxPlies;
+	// Weight of each move, by position key and then packed move
+	private final Map<Long, Map<Integer, Long>> weights = new HashMap<>();
+	private int games;
+
+	public OpeningBookBuilder() {
+		this(DEFAULT_MAX_PLIES);
+	}
+
+	/**
+	 * @param maxPlies how many plies from the start of each game go into the book
+	 */
+	public OpeningBookBuilder(int maxPlies) {
+		if (maxPlies < 1) {
+			throw new IllegalArgumentException("An opening book needs at least one ply per game.");
+		}
+		this.maxPlies = maxPlies;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int maxPlies = DEFAULT_MAX_PLIES;
+		List<Path> files = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--plies")) {
+				maxPlies = Integer.parseInt(args[++i]);
+			} else {
+				files.add(Path.of(args[i]));
+			}
+		}
+		if (files.size() < 2) {
+			System.err.println("Usage: OpeningBookBuilder [--plies N] <book file> <pgn file> ...");
+			System.exit(2);
+		}
+
+		OpeningBookBuilder builder = new OpeningBookBuilder(maxPlies);
+		for (Path pgn : files.subList(1, files.size())) {
+			builder.addPgn(Files.readString(pgn, StandardCharsets.ISO_8859_1));
+		}
+		int entries = builder.write(files.get(0));
+		System.out.printf("%,d games, %,d book entries written to %s%n", builder.games(), entries, files.get(0));
+	}
+
+	/**
+	 * Adds every game in a PGN text. Tags, comments, variations and annotation glyphs are skipped; a game stops
+	 * counting at its first move that cannot be played.
+	 */
+	public void addPgn(String pgn) {
+		List<String> moves = new ArrayList<>();
+		String result = "*";
+		int index = 0;
+		while (index < pgn.length()) {
+			char c = pgn.charAt(index);
+			if (c == '[') {
+				// A tag after moves starts the next game, even if the last one had no result token
+				if (!moves.isEmpty()) {
+					addGame(moves, result);
+					moves = new ArrayList<>();
+					result = "*";
+				}
+				int end = pgn.indexOf(']', index);
+				end = end < 0 ? pgn.length() : end;
+				String tag = pgn.substring(index + 1, end).trim();
+				if (tag.startsWith("Result ")) {
+					result = tag.substring("Result ".length()).replace("\"", "").trim();
+				}
+				index = end + 1;
+			} else if (c == '{') {
+				int end = pgn.indexOf('}', index);
+				index = end < 0 ? pgn.length() : end + 1;
+			} else if (c == ';') {
+				int end = pgn.indexOf('\n', index);
+				index = end < 0 ? pgn.length() : end + 1;
+			} else if (c == '(') {
+				index = skipVariation(pgn, index);
+			} else if (Character.isWhitespace(c) || c == ')') {
+				index++;
+			} else {
+				int end = index;
+				while (end < pgn.length() && !Character.isWhitespace(pgn.charAt(end)) && "{(;[".indexOf(pgn.charAt(end)) < 0) {
+					end++;
+				}
+				String token = pgn.substring(index, end);
+				index = end;
+				if (isResult(token)) {
+					addGame(moves, token);
+					moves = new ArrayList<>();
+					result = "*";
+				} else if (!token.startsWith("$")) {
+					// "12." and "12..." prefixes may be glued to the move that follows them
+					String move = token.replaceFirst("^\\d+\\.+", "");
+					if (!move.isEmpty()) {
+						moves.add(move);
+					}
+				}
+			}
+		}
+		if (!moves.isEmpty()) {
+			addGame(moves, result);
+		}
+	}
+
+	/**
+	 * Adds one game from the standard starting position.
+	 *
+	 * @param sanMoves the game's moves in standard algebraic notation
+	 * @param result   the PGN result: {@code 1-0}, {@code 0-1}, {@code 1/2-1/2} or {@code *}
+	 */
+	public void addGame(List<String> sanMoves, String result) {
+		games++;
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		for (int ply = 0; ply < Math.min(maxPlies, sanMoves.size()); ply++) {
+			ChessMove move;
+			try {
+				move = ChessNotation.parse(sanMoves.get(ply), game);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				return;
+			}
+			int weight = weight(result, game.getTeamTurn());
+			if (weight > 0) {
+				weights.computeIfAbsent(game.getZobristKey(), key -> new HashMap<>()).merge(PackedMove.of(move), (long) weight, Long::sum);
+			}
+			game.makeMoveUnchecked(move);
+		}
+	}
+
+	/**
+	 * @return the number of games added so far
+	 */
+	public int games() {
+		return games;
+	}
+
+	/**
+	 * Writes the book, sorted for {@link OpeningBook}'s binary search. Weights of a position too large for the
+	 * file's 16 bits are scaled down together, keeping every move at least 1.
+	 *
+	 * @return the number of entries written
+	 */
+	public int write(Path file) throws IOException {
+		List<Long> keys = new ArrayList<>(weights.keySet());
+		keys.sort(Long::compareUnsigned);
+
+		int entries = 0;
+		try (OutputStream out = Files.newOutputStream(file);
+		     DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+			for (long key : keys) {
+				List<Map.Entry<Integer, Long>> moves = new ArrayList<>(weights.get(key).entrySet());
+				moves.sort(Map.Entry.<Integer, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+				long heaviest = moves.get(0).getValue();
+				for (Map.Entry<Integer, Long> move : moves) {
+					long weight = heaviest <= OpeningBook.MAX_WEIGHT
+							? move.getValue()
+							: Math.max(1, move.getValue() * OpeningBook.MAX_WEIGHT / heaviest);
+					data.writeLong(key);
+					data.writeShort(move.getKey());
+					data.writeShort((int) weight);
+					data.writeInt(0);
+					entries++;
+				}
+			}
+		}
+		return entries;
+	}
+
+	private static int weight(String result, ChessGame.TeamColor mover) {
+		return switch (result) {
+			case "1-0" -> mover == ChessGame.TeamColor.WHITE ? 2 : 0;
+			case "0-1" -> mover == ChessGame.TeamColor.BLACK ? 2 : 0;
+			default -> 1;
+		};
+	}
+
+	private static boolean isResult(String token) {
+		return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+	}
+
+	// Returns the index just past the variation opening at the given index, including nested ones
+	private static int skipVariation(String pgn, int index) {
+		int depth = 0;
+		while (index < pgn.length()) {
+			char c = pgn.charAt(index++);
+			if (c == '{') {
+				int end = pgn.indexOf('}', index);
+				index = end < 0 ? pgn.length() : end + 1;
+			} else if (c == '(') {
+				depth++;
+			} else if (c == ')' && --depth == 0) {
+				break;
+			}
+		}
+		return index;
+	}
+}
@@ -0,0 +1,45 @@
+package blindchess.bot;
+
+
+/**
+ * Budget for a single bot move. The search deepens one ply at a time until it reaches {@code maxDepth} or
+ * runs out of time or nodes, and then plays the best move of the last iteration it completed.
+ *
+ * @param maxDepth       deepest iteration to search, at least 1
+ * @param moveTimeMillis wall-clock budget per move, or 0 for no time limit
+ * @param maxNodes       node budget per move, or 0 for no node limit
+ */
+public record SearchLimits(int maxDepth, long moveTimeMillis, long maxNodes)
+{
+	public static final int MAX_DEPTH = 64;
+
+	public SearchLimits {
+		if (moveTimeMillis < 0 || maxNodes < 0) {
+			throw new IllegalArgumentException("Search budgets cannot be negative.");
+		}
+		maxDepth = Math.min(Math.max(1, maxDepth), MAX_DEPTH);
+	}
+
+	public static SearchLimits depth(int maxDepth) {
+		return new SearchLimits(maxDepth, 0, 0);
+	}
+
+	public static SearchLimits moveTime(long moveTimeMillis) {
+		return new SearchLimits(MAX_DEPTH, moveTimeMillis, 0);
+	}
+
+	public static SearchLimits nodes(long maxNodes) {
+		return new SearchLimits(MAX_DEPTH, 0, maxNodes);
+	}
+
+	public SearchLimits withMaxDepth(int maxDepth) {
+		return new SearchLimits(maxDepth, moveTimeMillis, maxNodes);
+	}
+
+	/**
+	 * @return true if the search may stop before reaching {@code maxDepth}
+	 */
+	public boolean isBudgeted() {
+		return moveTimeMillis > 0 || maxNodes > 0;
+	}
+}
@@ -0,0 +1,28 @@
+package blindchess.bot;
+
+
+import chess.gameplay.ChessMove;
+
+
+/**
+ * Receives a report from {@link MinimaxChessBot} each time its search completes an iteration, such as for
+ * logging how often aspiration windows fail. Called on the searching thread, so it should return quickly.
+ */
+@FunctionalInterface
+public interface SearchListener
+{
+	void iterationCompleted(Iteration iteration);
+
+	/**
+	 * @param depth         depth of the completed iteration
+	 * @param score         score of the best move in centipawns, for the side to move
+	 * @param bestMove      move the search would play if it stopped now
+	 * @param nodes         nodes the main search has visited so far this move, helper threads not counted
+	 * @param elapsedMillis time since the search started
+	 * @param failLows      times this iteration's aspiration window was too high and had to be lowered
+	 * @param failHighs     times this iteration's aspiration window was too low and had to be raised
+	 */
+	record Iteration(int depth, int score, ChessMove bestMove, long nodes, long elapsedMillis, int failLows, int failHighs)
+	{
+	}
+}
@@ -0,0 +1,75 @@
+package blindchess.bot;
+
+
+/**
+ * Switches for the search techniques {@link MinimaxChessBot} layers on top of plain alpha-beta, so each can be
+ * turned off to measure what it is worth.
+ *
+ * @param quiescence             whether the horizon is extended with captures and promotions until the position is quiet
+ * @param quiescenceEvasions     whether quiescence searches every evasion when in check rather than standing pat
+ * @param maxQuiescenceNodes     quiescence nodes allowed below each horizon node before it falls back to the static score
+ * @param principalVariation     whether moves after the first are searched with a zero window around alpha, and only
+ *                               searched again with the full window when they beat it
+ * @param nullMove               whether a node is cut off early when passing the move still scores above beta; never
+ *                               tried in check or by a side with only king and pawns, where passing may be the best move
+ * @param lateMoveReductions     whether quiet moves late in the move order are searched less deep first
+ * @param checkExtensions        whether a node in check is searched one ply deeper
+ * @param aspirationWindow       centipawns either side of the previous iteration's score that the next iteration
+ *                               searches first, doubling on the side that fails; 0 searches every iteration with
+ *                               an unbounded window
+ */
+public record SearchOptions(boolean quiescence, boolean quiescenceEvasions, int maxQuiescenceNodes,
+                            boolean principalVariation, boolean nullMove, boolean lateMoveReductions, boolean checkExtensions,
+                            int aspirationWindow)
+{
+	public static final SearchOptions DEFAULTS = new SearchOptions(true, true, 4_096, true, true, true, true, 25);
+
+	public SearchOptions {
+		if (maxQuiescenceNodes < 0) {
+			throw new IllegalArgumentException("The quiescence node cap cannot be negative.");
+		}
+		if (aspirationWindow < 0) {
+			throw new IllegalArgumentException("The aspiration window cannot be negative.");
+		}
+	}
+
+	public SearchOptions withQuiescence(boolean quiescence) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+
+	public SearchOptions withQuiescenceEvasions(boolean quiescenceEvasions) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+
+	public SearchOptions withMaxQuiescenceNodes(int maxQuiescenceNodes) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+
+	public SearchOptions withPrincipalVariation(boolean principalVariation) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+
+	public SearchOptions withNullMove(boolean nullMove) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+
+	public SearchOptions withLateMoveReductions(boolean lateMoveReductions) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+
+	public SearchOptions withCheckExtensions(boolean checkExtensions) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+
+	public SearchOptions withAspirationWindow(int aspirationWindow) {
+		return new SearchOptions(quiescence, quiescenceEvasions, maxQuiescenceNodes, principalVariation, nullMove,
+				lateMoveReductions, checkExtensions, aspirationWindow);
+	}
+}
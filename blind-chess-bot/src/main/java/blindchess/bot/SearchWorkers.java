@@ -0,0 +1,54 @@
+package blindchess.bot;
+
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Process-wide pool of helper threads for parallel search.
+ * <p>
+ * Helpers are handed out as permits, one per spare core. A search asks for as many helpers as it is
+ * configured for and gets whatever is free, so when many sessions are thinking at once each search runs
+ * with fewer helpers (down to none) instead of oversubscribing the CPU.
+ */
+final class SearchWorkers
+{
+	private static final int HELPER_CAPACITY = Math.max(0, Runtime.getRuntime().availableProcessors() - 1);
+	private static final Semaphore PERMITS = new Semaphore(HELPER_CAPACITY);
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+	private static final ExecutorService POOL = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "bot-search-helper-" + THREAD_COUNTER.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private SearchWorkers() {
+	}
+
+	/**
+	 * @return how many of the wanted helper permits were free, between 0 and {@code wanted}
+	 */
+	static int acquire(int wanted) {
+		int acquired = 0;
+		while (acquired < wanted && PERMITS.tryAcquire()) {
+			acquired++;
+		}
+		return acquired;
+	}
+
+	/**
+	 * Runs a helper that holds one permit. The permit is returned when the helper finishes.
+	 */
+	static void run(Runnable helper) {
+		POOL.execute(() -> {
+			try {
+				helper.run();
+			} finally {
+				PERMITS.release();
+			}
+		});
+	}
+}
@@ -0,0 +1,254 @@
+package blindchess.bot;
+
+
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessBoardImpl;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+
+/**
+ * Distance-to-mate endgame tables for positions with at most {@link #MAX_PIECES} pieces, written by
+ * {@link TablebaseGenerator}.
+ * <p>
+ * Each table is a file named after its material, such as {@code KRvK.dtm}, holding one byte per position (see
+ * {@link TablebaseLayout} for the indexing): 0 for a draw, an odd number of plies to mate for a win, and the
+ * plies until being mated plus two for a loss. A table is memory-mapped the first time a position with its
+ * material is probed; tables that are not on disk are simply not consulted.
+ * <p>
+ * The tables know nothing of castling or en passant, so positions where either is possible are not probed.
+ */
+public final class Tablebase
+{
+	public static final int MAX_PIECES = 4;
+	public static final String FILE_SUFFIX = ".dtm";
+
+	static final int DRAW = 0;
+	// Marks entries that are not legal positions; never the answer to a probe of a real game
+	static final int INVALID = 255;
+	static final int MISSING = -1;
+	private static final int KING_TYPE = ChessPiece.PieceType.KING.ordinal();
+	// One more than the number of piece indices, so zero can stand for no piece
+	private static final int MATERIAL_DIGITS = 2 * Bitboards.PIECE_TYPE_COUNT + 1;
+
+	private final Function<String, ByteBuffer> loader;
+	private final Map<String, Optional<Table>> tables = new ConcurrentHashMap<>();
+	private final AtomicReferenceArray<Material> materials = new AtomicReferenceArray<>(MATERIAL_DIGITS * MATERIAL_DIGITS);
+
+	/**
+	 * @param directory where the {@code .dtm} files are; it does not need to hold every table, or to exist
+	 */
+	public Tablebase(Path directory) {
+		this(name -> map(directory.resolve(name + FILE_SUFFIX)));
+	}
+
+	/**
+	 * @param loader returns a table's entries by name, or null if there is no such table
+	 */
+	Tablebase(Function<String, ByteBuffer> loader) {
+		this.loader = loader;
+	}
+
+	/**
+	 * @return the game-theoretic result for the side to move, or null if the position is not covered by a table
+	 */
+	public Result probe(ChessGameImpl game) {
+		int value = probe(game, new Scratch());
+		if (value == MISSING) {
+			return null;
+		}
+		if (value == DRAW) {
+			return new Result(Outcome.DRAW, 0);
+		}
+		return isWin(value) ? new Result(Outcome.WIN, plies(value)) : new Result(Outcome.LOSS, plies(value));
+	}
+
+	/**
+	 * Probes without allocating, for the search, which probes every node with few enough pieces.
+	 *
+	 * @param scratch working space, reused from probe to probe by one thread
+	 *
+	 * @return the raw table entry for the side to move, or {@link #MISSING} if the position is not covered
+	 */
+	int probe(ChessGameImpl game, Scratch scratch) {
+		ChessBoardImpl board = game.getBoard();
+		long occupancy = board.occupancy();
+		if (Long.bitCount(occupancy) > MAX_PIECES || game.getTeamTurn() == null
+				|| board.castlingRights() != 0 || game.getEnPassantSquare() >= 0) {
+			return MISSING;
+		}
+
+		int count = 0;
+		for (long occupied = occupancy; occupied != 0; occupied &= occupied - 1) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			ChessPiece piece = board.getPiece(square);
+			scratch.pieces[count] = Bitboards.pieceIndex(piece.teamColor(), piece.getPieceType());
+			scratch.squares[count++] = square;
+		}
+
+		int value = value(scratch.pieces, scratch.squares, count, Bitboards.colorIndex(game.getTeamTurn()), scratch);
+		return value == INVALID ? MISSING : value;
+	}
+
+	/**
+	 * @param pieces  {@link Bitboards#pieceIndex} of each piece, kings included
+	 * @param squares square of each piece
+	 * @param stm     side to move, 0 for White and 1 for Black
+	 *
+	 * @return the raw table entry, or {@link #MISSING} if the table is not available
+	 */
+	int value(int[] pieces, int[] squares, int count, int stm, Scratch scratch) {
+		if (count == 2) {
+			return DRAW;
+		}
+		Material material = material(pieces, count);
+		Table table = material == null ? null : material.table();
+		if (table == null) {
+			return MISSING;
+		}
+
+		// Slot the pieces in table order, swapping colors and ranks if Black is the stronger side
+		boolean flipped = material.flipped();
+		int[] slotPieces = table.layout().pieces;
+		int[] slotSquares = scratch.slotSquares;
+		boolean[] used = scratch.used;
+		Arrays.fill(used, false);
+		for (int slot = 0; slot < slotPieces.length; slot++) {
+			for (int i = 0; i < count; i++) {
+				int piece = flipped ? swapColor(pieces[i]) : pieces[i];
+				if (!used[i] && piece == slotPieces[slot]) {
+					used[i] = true;
+					slotSquares[slot] = flipped ? squares[i] ^ 56 : squares[i];
+					break;
+				}
+			}
+		}
+		return Byte.toUnsignedInt(table.values().get(table.layout().index(slotSquares, flipped ? 1 - stm : stm)));
+	}
+
+	static int win(int plies) {
+		return plies;
+	}
+
+	static int loss(int plies) {
+		return plies + 2;
+	}
+
+	static boolean isWin(int value) {
+		return value != INVALID && (value & 1) == 1;
+	}
+
+	static boolean isLoss(int value) {
+		return value != DRAW && (value & 1) == 0;
+	}
+
+	static int plies(int value) {
+		return isWin(value) ? value : value - 2;
+	}
+
+	/**
+	 * Looks a position's material up by the pieces besides the kings, so a probe builds no table name.
+	 *
+	 * @return the table and orientation for the material, or null for more pieces than any table holds
+	 */
+	private Material material(int[] pieces, int count) {
+		int key = 0;
+		int others = 0;
+		for (int i = 0; i < count; i++) {
+			if (pieces[i] % Bitboards.PIECE_TYPE_COUNT != KING_TYPE) {
+				if (++others > MAX_PIECES - 2) {
+					return null;
+				}
+				// The two piece indices, each plus one and the smaller first, as digits of one number
+				int digit = pieces[i] + 1;
+				key = key == 0 ? digit : Math.min(key, digit) * MATERIAL_DIGITS + Math.max(key, digit);
+			}
+		}
+		Material material = materials.get(key);
+		if (material == null) {
+			material = new Material(table(TablebaseLayout.name(pieces, count)), TablebaseLayout.flipped(pieces, count));
+			materials.set(key, material);
+		}
+		return material;
+	}
+
+	private Table table(String name) {
+		return tables.computeIfAbsent(name, key -> {
+			ByteBuffer values = loader.apply(key);
+			if (values == null) {
+				return Optional.empty();
+			}
+			TablebaseLayout layout = TablebaseLayout.of(key);
+			if (values.capacity() != layout.size) {
+				throw new IllegalStateException("Tablebase " + key + " has " + values.capacity() + " entries, expected " + layout.size);
+			}
+			return Optional.of(new Table(layout, values));
+		}).orElse(null);
+	}
+
+	private static ByteBuffer map(Path file) {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot map tablebase " + file, e);
+		}
+	}
+
+	private static int swapColor(int pieceIndex) {
+		return pieceIndex < Bitboards.PIECE_TYPE_COUNT ? pieceIndex + Bitboards.PIECE_TYPE_COUNT : pieceIndex - Bitboards.PIECE_TYPE_COUNT;
+	}
+
+	public enum Outcome
+	{
+		WIN, DRAW, LOSS
+	}
+
+	/**
+	 * @param outcome the result with best play, for the side to move
+	 * @param plies   half-moves until mate with best play by both sides; 0 for a draw or if already mated
+	 */
+	public record Result(Outcome outcome, int plies)
+	{
+	}
+
+	private record Table(TablebaseLayout layout, ByteBuffer values)
+	{
+	}
+
+	/**
+	 * @param table   the table holding the material, or null if it is not on disk
+	 * @param flipped whether Black has the stronger side, so positions are looked up with colors swapped
+	 */
+	private record Material(Table table, boolean flipped)
+	{
+	}
+
+	/**
+	 * The arrays one probe works in, kept by whoever probes over and over so probing allocates nothing.
+	 */
+	static final class Scratch
+	{
+		private final int[] pieces = new int[MAX_PIECES];
+		private final int[] squares = new int[MAX_PIECES];
+		private final int[] slotSquares = new int[MAX_PIECES];
+		private final boolean[] used = new boolean[MAX_PIECES];
+	}
+}
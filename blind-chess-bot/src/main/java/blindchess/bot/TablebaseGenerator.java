@@ -0,0 +1,434 @@
+package blindchess.bot;
+
+
+import chess.gameplay.Attacks;
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessGame;
+import chess.pieces.ChessPiece;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Builds {@link Tablebase} files by retrograde analysis.
+ * <p>
+ * A table is solved one ply at a time outwards from the checkmates: after pass {@code n}, every position that
+ * wins in {@code n} plies (some move reaches a loss in {@code n - 1}) or loses in {@code n} plies (every move
+ * reaches a win, the longest in {@code n - 1}) is known, and whatever is left when the passes stop changing
+ * anything is a draw. Captures and promotions leave the table, so the tables they lead to are built first and
+ * looked up instead.
+ * <p>
+ * Run from the command line as {@code TablebaseGenerator [--pieces 3|4] <directory> [table ...]}. Without table
+ * names it builds every table with up to the given number of pieces, three by default; tables already in the
+ * directory are reused. Three-piece tables take seconds, four-piece tables minutes each.
+ */
+public final class TablebaseGenerator
+{
+	// Letters of the non-king pieces in table names, and their types
+	private static final String PIECE_LETTERS = "QRBNP";
+	private static final ChessPiece.PieceType[] PIECE_TYPES = {
+			ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT,
+			ChessPiece.PieceType.PAWN
+	};
+	private static final ChessPiece.PieceType[] PROMOTIONS = {
+			ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+	};
+	private static final int MAX_PLIES = 253;
+
+	private final Path directory;
+	private final Map<String, ByteBuffer> tables = new HashMap<>();
+	private final Tablebase tablebase;
+	private final Tablebase.Scratch scratch = new Tablebase.Scratch();
+
+	/**
+	 * @param directory where tables are written, and where existing ones are reused from
+	 */
+	public TablebaseGenerator(Path directory) {
+		this.directory = directory;
+		this.tablebase = new Tablebase(this::table);
+	}
+
+	public static void main(String[] args) throws IOException {
+		int maxPieces = 3;
+		Path directory = null;
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("--pieces")) {
+				maxPieces = Integer.parseInt(args[++i]);
+			} else if (directory == null) {
+				directory = Path.of(args[i]);
+			} else {
+				names.add(args[i]);
+			}
+		}
+		if (directory == null) {
+			System.err.println("Usage: TablebaseGenerator [--pieces 3|4] <directory> [table ...]");
+			System.exit(2);
+		}
+
+		Files.createDirectories(directory);
+		TablebaseGenerator generator = new TablebaseGenerator(directory);
+		for (String name : names.isEmpty() ? tableNames(maxPieces) : names) {
+			for (Generated table : generator.generate(name)) {
+				System.out.printf("%s: %,d positions, longest mate %d plies, %,d ms%n", table.name(), table.positions(),
+						table.longestMate(), table.elapsedMillis());
+			}
+		}
+	}
+
+	/**
+	 * @return the name of every table with at least three and at most {@code maxPieces} pieces, smallest first
+	 */
+	public static List<String> tableNames(int maxPieces) {
+		if (maxPieces < 3 || maxPieces > Tablebase.MAX_PIECES) {
+			throw new IllegalArgumentException("Tablebases cover 3 to " + Tablebase.MAX_PIECES + " pieces.");
+		}
+		Set<String> names = new LinkedHashSet<>();
+		for (int extra = 1; extra <= maxPieces - 2; extra++) {
+			for (int white = extra; white >= 0; white--) {
+				for (String whitePieces : combinations(white)) {
+					for (String blackPieces : combinations(extra - white)) {
+						names.add(canonicalName(whitePieces, blackPieces));
+					}
+				}
+			}
+		}
+		return List.copyOf(names);
+	}
+
+	/**
+	 * Builds a table and every table it depends on, skipping those already built or on disk.
+	 *
+	 * @return the tables built, dependencies before the tables that need them
+	 */
+	public List<Generated> generate(String name) throws IOException {
+		List<Generated> generated = new ArrayList<>();
+		generate(name, generated);
+		return generated;
+	}
+
+	private void generate(String name, List<Generated> generated) throws IOException {
+		if (table(name) != null) {
+			return;
+		}
+		TablebaseLayout layout = TablebaseLayout.of(name);
+		if (!name.equals(TablebaseLayout.name(layout.pieces, layout.pieces.length))) {
+			throw new IllegalArgumentException("Table names put the stronger side first: " + name);
+		}
+		int longestExit = 0;
+		for (String dependency : dependencies(layout)) {
+			generate(dependency, generated);
+			longestExit = Math.max(longestExit, longestMate(table(dependency)));
+		}
+
+		long start = System.nanoTime();
+		byte[] values = solve(layout, longestExit);
+		Files.write(directory.resolve(name + Tablebase.FILE_SUFFIX), values);
+		tables.put(name, ByteBuffer.wrap(values));
+		generated.add(new Generated(name, values.length, longestMate(ByteBuffer.wrap(values)),
+				(System.nanoTime() - start) / 1_000_000));
+	}
+
+	private byte[] solve(TablebaseLayout layout, int longestExit) {
+		byte[] values = new byte[layout.size];
+		int[] squares = new int[layout.pieces.length];
+		for (int index = 0; index < values.length; index++) {
+			int stm = layout.decode(index, squares);
+			values[index] = (byte) (isLegal(layout.pieces, squares, squares.length, stm)
+					? resolve(layout, values, squares, stm, 0)
+					: Tablebase.INVALID);
+		}
+
+		// Exits can decide a position late, so keep going until past the longest mate of the tables left through
+		boolean changed = true;
+		for (int plies = 1; changed || plies <= longestExit + 1; plies++) {
+			if (plies > MAX_PLIES) {
+				throw new IllegalStateException(layout.name + " has mates longer than a table can hold.");
+			}
+			changed = false;
+			for (int index = 0; index < values.length; index++) {
+				if (values[index] != Tablebase.DRAW) {
+					continue;
+				}
+				int stm = layout.decode(index, squares);
+				int value = resolve(layout, values, squares, stm, plies);
+				if (value != Tablebase.DRAW) {
+					values[index] = (byte) value;
+					changed = true;
+				}
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * @return the position's value if it is decided at exactly {@code plies}, otherwise {@link Tablebase#DRAW}
+	 */
+	private int resolve(TablebaseLayout layout, byte[] values, int[] squares, int stm, int plies) {
+		int[] pieces = layout.pieces;
+		int count = pieces.length;
+		long occupancy = occupancy(squares, count);
+		long ours = 0;
+		for (int slot = 0; slot < count; slot++) {
+			if (colorIndex(pieces[slot]) == stm) {
+				ours |= Bitboards.bit(squares[slot]);
+			}
+		}
+
+		int[] childPieces = new int[count];
+		int[] childSquares = new int[count];
+		int moves = 0;
+		int longestWin = -1;
+		boolean allWins = true;
+		for (int slot = 0; slot < count; slot++) {
+			if (colorIndex(pieces[slot]) != stm) {
+				continue;
+			}
+			int from = squares[slot];
+			boolean pawn = type(pieces[slot]) == ChessPiece.PieceType.PAWN;
+			for (long targets = targets(pieces[slot], from, occupancy, ours); targets != 0; targets &= targets - 1) {
+				int to = Long.numberOfTrailingZeros(targets);
+				int captured = slotOn(squares, count, to);
+				boolean promotes = pawn && (to >>> 3 == 0 || to >>> 3 == 7);
+				for (int promotion = 0; promotion < (promotes ? PROMOTIONS.length : 1); promotion++) {
+					// The child keeps slot order unless a piece is captured
+					int childCount = 0;
+					for (int other = 0; other < count; other++) {
+						if (other == captured) {
+							continue;
+						}
+						childPieces[childCount] = other == slot && promotes
+								? Bitboards.pieceIndex(Bitboards.color(stm), PROMOTIONS[promotion])
+								: pieces[other];
+						childSquares[childCount++] = other == slot ? to : squares[other];
+					}
+					if (kingAttacked(childPieces, childSquares, childCount, stm)) {
+						continue;
+					}
+					moves++;
+					if (plies == 0) {
+						continue;
+					}
+
+					int child = captured >= 0 || promotes
+							? tablebase.value(childPieces, childSquares, childCount, 1 - stm, scratch)
+							: Byte.toUnsignedInt(values[layout.index(childSquares, 1 - stm)]);
+					if (Tablebase.isLoss(child) && Tablebase.plies(child) == plies - 1) {
+						return Tablebase.win(plies);
+					}
+					if (Tablebase.isWin(child)) {
+						longestWin = Math.max(longestWin, Tablebase.plies(child));
+					} else {
+						allWins = false;
+					}
+				}
+			}
+		}
+		if (plies == 0) {
+			return moves == 0 && kingAttacked(pieces, squares, count, stm) ? Tablebase.loss(0) : Tablebase.DRAW;
+		}
+		return moves > 0 && allWins && longestWin == plies - 1 ? Tablebase.loss(plies) : Tablebase.DRAW;
+	}
+
+	private static long targets(int piece, int from, long occupancy, long ours) {
+		ChessGame.TeamColor color = Bitboards.color(colorIndex(piece));
+		return switch (type(piece)) {
+			case PAWN -> {
+				int forward = color == ChessGame.TeamColor.WHITE ? 8 : -8;
+				long pushes = 0;
+				if ((occupancy & Bitboards.bit(from + forward)) == 0) {
+					pushes = Bitboards.bit(from + forward);
+					int startRank = color == ChessGame.TeamColor.WHITE ? 1 : 6;
+					if (from >>> 3 == startRank && (occupancy & Bitboards.bit(from + 2 * forward)) == 0) {
+						pushes |= Bitboards.bit(from + 2 * forward);
+					}
+				}
+				yield pushes | (Attacks.pawn(color, from) & occupancy & ~ours);
+			}
+			default -> attacks(piece, from, occupancy) & ~ours;
+		};
+	}
+
+	private static long attacks(int piece, int from, long occupancy) {
+		return switch (type(piece)) {
+			case KING -> Attacks.king(from);
+			case QUEEN -> Attacks.queen(from, occupancy);
+			case BISHOP -> Attacks.bishop(from, occupancy);
+			case KNIGHT -> Attacks.knight(from);
+			case ROOK -> Attacks.rook(from, occupancy);
+			case PAWN -> Attacks.pawn(Bitboards.color(colorIndex(piece)), from);
+		};
+	}
+
+	// Distinct squares, no pawns on the back ranks, and the side that just moved is not in check
+	private static boolean isLegal(int[] pieces, int[] squares, int count, int stm) {
+		long occupancy = 0;
+		for (int slot = 0; slot < count; slot++) {
+			long bit = Bitboards.bit(squares[slot]);
+			int rank = squares[slot] >>> 3;
+			if ((occupancy & bit) != 0 || (type(pieces[slot]) == ChessPiece.PieceType.PAWN && (rank == 0 || rank == 7))) {
+				return false;
+			}
+			occupancy |= bit;
+		}
+		return !kingAttacked(pieces, squares, count, 1 - stm);
+	}
+
+	private static boolean kingAttacked(int[] pieces, int[] squares, int count, int color) {
+		int king = Bitboards.pieceIndex(Bitboards.color(color), ChessPiece.PieceType.KING);
+		int kingSquare = squares[slotOf(pieces, count, king)];
+		long occupancy = occupancy(squares, count);
+		for (int slot = 0; slot < count; slot++) {
+			if (colorIndex(pieces[slot]) != color
+					&& (attacks(pieces[slot], squares[slot], occupancy) & Bitboards.bit(kingSquare)) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long occupancy(int[] squares, int count) {
+		long occupancy = 0;
+		for (int slot = 0; slot < count; slot++) {
+			occupancy |= Bitboards.bit(squares[slot]);
+		}
+		return occupancy;
+	}
+
+	private static int slotOn(int[] squares, int count, int square) {
+		for (int slot = 0; slot < count; slot++) {
+			if (squares[slot] == square) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	private static int slotOf(int[] pieces, int count, int piece) {
+		for (int slot = 0; slot < count; slot++) {
+			if (pieces[slot] == piece) {
+				return slot;
+			}
+		}
+		throw new IllegalStateException("No piece " + piece + " in the position.");
+	}
+
+	private static int colorIndex(int piece) {
+		return piece / Bitboards.PIECE_TYPE_COUNT;
+	}
+
+	private static ChessPiece.PieceType type(int piece) {
+		return Bitboards.pieceType(piece % Bitboards.PIECE_TYPE_COUNT);
+	}
+
+	// Tables reached by a capture, a promotion or both, each only once
+	private static Set<String> dependencies(TablebaseLayout layout) {
+		int[] pieces = layout.pieces;
+		Set<String> dependencies = new LinkedHashSet<>();
+		for (int captured = -1; captured < pieces.length; captured++) {
+			if (captured == 0 || captured == 1) {
+				continue;
+			}
+			for (int promoted = -1; promoted < pieces.length; promoted++) {
+				if (promoted == captured || (promoted >= 0 && type(pieces[promoted]) != ChessPiece.PieceType.PAWN)) {
+					continue;
+				}
+				for (ChessPiece.PieceType promotion : promoted >= 0 ? PROMOTIONS : new ChessPiece.PieceType[]{null}) {
+					int[] child = new int[pieces.length];
+					int count = 0;
+					for (int slot = 0; slot < pieces.length; slot++) {
+						if (slot != captured) {
+							child[count++] = slot == promoted
+									? Bitboards.pieceIndex(Bitboards.color(colorIndex(pieces[slot])), promotion)
+									: pieces[slot];
+						}
+					}
+					if (count > 2 && (captured >= 0 || promoted >= 0)) {
+						dependencies.add(TablebaseLayout.name(child, count));
+					}
+				}
+			}
+		}
+		return dependencies;
+	}
+
+	private static int longestMate(ByteBuffer values) {
+		int longest = 0;
+		for (int index = 0; index < values.capacity(); index++) {
+			int value = Byte.toUnsignedInt(values.get(index));
+			if (value != Tablebase.DRAW && value != Tablebase.INVALID) {
+				longest = Math.max(longest, Tablebase.plies(value));
+			}
+		}
+		return longest;
+	}
+
+	private ByteBuffer table(String name) {
+		ByteBuffer values = tables.get(name);
+		if (values != null) {
+			return values;
+		}
+		Path file = directory.resolve(name + Tablebase.FILE_SUFFIX);
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			values = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot map tablebase " + file, e);
+		}
+		tables.put(name, values);
+		return values;
+	}
+
+	private static String canonicalName(String white, String black) {
+		int[] pieces = new int[2 + white.length() + black.length()];
+		int count = 0;
+		pieces[count++] = Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+		pieces[count++] = Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+		for (char letter : white.toCharArray()) {
+			pieces[count++] = Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, PIECE_TYPES[PIECE_LETTERS.indexOf(letter)]);
+		}
+		for (char letter : black.toCharArray()) {
+			pieces[count++] = Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, PIECE_TYPES[PIECE_LETTERS.indexOf(letter)]);
+		}
+		return TablebaseLayout.name(pieces, count);
+	}
+
+	// Every multiset of the given size over the non-king pieces, in name order
+	private static List<String> combinations(int size) {
+		List<String> combinations = new ArrayList<>();
+		addCombinations("", 0, size, combinations);
+		return combinations;
+	}
+
+	private static void addCombinations(String prefix, int first, int remaining, List<String> combinations) {
+		if (remaining == 0) {
+			combinations.add(prefix);
+			return;
+		}
+		for (int letter = first; letter < PIECE_LETTERS.length(); letter++) {
+			addCombinations(prefix + PIECE_LETTERS.charAt(letter), letter, remaining - 1, combinations);
+		}
+	}
+
+	/**
+	 * @param longestMate   plies to mate from the table's longest win
+	 * @param elapsedMillis time spent solving the table, not counting the tables it depends on
+	 */
+	public record Generated(String name, int positions, int longestMate, long elapsedMillis)
+	{
+	}
+}
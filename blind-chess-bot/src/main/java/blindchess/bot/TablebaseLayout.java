@@ -0,0 +1,227 @@
+package blindchess.bot;
+
+
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessGame;
+import chess.pieces.ChessPiece;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The material of one endgame table and how its positions map to entries.
+ * <p>
+ * A table is named by the pieces of each side, stronger side first, such as {@code KRvKN}; the stronger side is
+ * always White inside the table, and positions with the material the other way round are probed with colors and
+ * ranks swapped. Pieces are held in slots: the white king, the black king, then the other white pieces and the
+ * other black pieces in name order. An entry's index is the white king's square, then every other slot's square,
+ * then the side to move. Board symmetry keeps the table small: the white king is always mirrored onto files a-d,
+ * and without pawns also onto the a1-d1-d4 triangle.
+ */
+final class TablebaseLayout
+{
+	// Piece letters in the order they appear in a table name
+	private static final String PIECE_ORDER = "QRBNP";
+	private static final int[] PIECE_VALUES = {9, 5, 3, 3, 1};
+
+	private static final int FLIP_FILE = 1;
+	private static final int FLIP_RANK = 2;
+	private static final int TRANSPOSE = 4;
+
+	private static final int[] TRIANGLE_INDEX = new int[Bitboards.SQUARE_COUNT];
+	private static final int[] TRIANGLE_SQUARES = new int[10];
+	private static final int[] HALF_INDEX = new int[Bitboards.SQUARE_COUNT];
+	private static final int[] HALF_SQUARES = new int[32];
+
+	static {
+		int triangle = 0;
+		int half = 0;
+		for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+			int file = square & 7;
+			int rank = square >>> 3;
+			TRIANGLE_INDEX[square] = -1;
+			HALF_INDEX[square] = -1;
+			if (file <= 3) {
+				HALF_SQUARES[half] = square;
+				HALF_INDEX[square] = half++;
+				if (rank <= file) {
+					TRIANGLE_SQUARES[triangle] = square;
+					TRIANGLE_INDEX[square] = triangle++;
+				}
+			}
+		}
+	}
+
+	final String name;
+	// Bitboards.pieceIndex of the piece in each slot
+	final int[] pieces;
+	final boolean pawns;
+	final int size;
+
+	private TablebaseLayout(String name, int[] pieces, boolean pawns) {
+		this.name = name;
+		this.pieces = pieces;
+		this.pawns = pawns;
+		int entries = pawns ? HALF_SQUARES.length : TRIANGLE_SQUARES.length;
+		for (int slot = 1; slot < pieces.length; slot++) {
+			entries *= Bitboards.SQUARE_COUNT;
+		}
+		this.size = entries * 2;
+	}
+
+	/**
+	 * @param name a table name such as {@code KQvK}, stronger side first
+	 */
+	static TablebaseLayout of(String name) {
+		String[] sides = name.split("v");
+		if (sides.length != 2 || !sides[0].startsWith("K") || !sides[1].startsWith("K")) {
+			throw new IllegalArgumentException("Not a tablebase name: " + name);
+		}
+		List<Integer> slots = new ArrayList<>();
+		slots.add(Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+		slots.add(Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+		boolean pawns = false;
+		for (int side = 0; side < 2; side++) {
+			ChessGame.TeamColor color = side == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+			for (char letter : sides[side].substring(1).toCharArray()) {
+				ChessPiece.PieceType type = pieceType(letter);
+				pawns |= type == ChessPiece.PieceType.PAWN;
+				slots.add(Bitboards.pieceIndex(color, type));
+			}
+		}
+		return new TablebaseLayout(name, slots.stream().mapToInt(Integer::intValue).toArray(), pawns);
+	}
+
+	/**
+	 * @return the name of the table that holds positions with the given pieces
+	 */
+	static String name(int[] pieces, int count) {
+		String white = side(pieces, count, ChessGame.TeamColor.WHITE);
+		String black = side(pieces, count, ChessGame.TeamColor.BLACK);
+		return flipped(white, black) ? black + "v" + white : white + "v" + black;
+	}
+
+	/**
+	 * @return true if Black has the stronger material, so the position is stored with colors swapped
+	 */
+	static boolean flipped(int[] pieces, int count) {
+		return flipped(side(pieces, count, ChessGame.TeamColor.WHITE), side(pieces, count, ChessGame.TeamColor.BLACK));
+	}
+
+	/**
+	 * @param squares square of each slot, in any orientation; mirror images share an entry
+	 * @param stm     side to move, 0 for White and 1 for Black
+	 */
+	int index(int[] squares, int stm) {
+		int transform = transform(squares[0]);
+		int index = kingIndex(apply(transform, squares[0]));
+		for (int slot = 1; slot < pieces.length; slot++) {
+			index = index * Bitboards.SQUARE_COUNT + apply(transform, squares[slot]);
+		}
+		return index * 2 + stm;
+	}
+
+	/**
+	 * Fills in the slot squares of an entry, the inverse of {@link #index}.
+	 *
+	 * @return the side to move, 0 for White and 1 for Black
+	 */
+	int decode(int index, int[] squares) {
+		int stm = index & 1;
+		index >>>= 1;
+		for (int slot = pieces.length - 1; slot >= 1; slot--) {
+			squares[slot] = index % Bitboards.SQUARE_COUNT;
+			index /= Bitboards.SQUARE_COUNT;
+		}
+		squares[0] = pawns ? HALF_SQUARES[index] : TRIANGLE_SQUARES[index];
+		return stm;
+	}
+
+	// The symmetry that brings the white king into the indexed part of the board
+	private int transform(int kingSquare) {
+		int transform = (kingSquare & 7) > 3 ? FLIP_FILE : 0;
+		if (pawns) {
+			return transform;
+		}
+		kingSquare = apply(transform, kingSquare);
+		if ((kingSquare >>> 3) > 3) {
+			transform |= FLIP_RANK;
+			kingSquare = apply(FLIP_RANK, kingSquare);
+		}
+		if ((kingSquare >>> 3) > (kingSquare & 7)) {
+			transform |= TRANSPOSE;
+		}
+		return transform;
+	}
+
+	private static int apply(int transform, int square) {
+		if ((transform & FLIP_FILE) != 0) {
+			square ^= 7;
+		}
+		if ((transform & FLIP_RANK) != 0) {
+			square ^= 56;
+		}
+		if ((transform & TRANSPOSE) != 0) {
+			square = ((square & 7) << 3) | (square >>> 3);
+		}
+		return square;
+	}
+
+	private int kingIndex(int square) {
+		return pawns ? HALF_INDEX[square] : TRIANGLE_INDEX[square];
+	}
+
+	private static String side(int[] pieces, int count, ChessGame.TeamColor color) {
+		int[] counts = new int[PIECE_ORDER.length()];
+		for (int i = 0; i < count; i++) {
+			if (Bitboards.color(pieces[i] / Bitboards.PIECE_TYPE_COUNT) == color) {
+				int letter = PIECE_ORDER.indexOf(letter(Bitboards.pieceType(pieces[i] % Bitboards.PIECE_TYPE_COUNT)));
+				if (letter >= 0) {
+					counts[letter]++;
+				}
+			}
+		}
+		StringBuilder side = new StringBuilder("K");
+		for (int letter = 0; letter < counts.length; letter++) {
+			side.append(String.valueOf(PIECE_ORDER.charAt(letter)).repeat(counts[letter]));
+		}
+		return side.toString();
+	}
+
+	// Stronger material goes first; equal values are ordered by name so every position has one table
+	private static boolean flipped(String white, String black) {
+		int difference = value(white) - value(black);
+		return difference != 0 ? difference < 0 : white.compareTo(black) > 0;
+	}
+
+	private static int value(String side) {
+		int value = 0;
+		for (char letter : side.substring(1).toCharArray()) {
+			value += PIECE_VALUES[PIECE_ORDER.indexOf(letter)];
+		}
+		return value;
+	}
+
+	private static char letter(ChessPiece.PieceType type) {
+		return switch (type) {
+			case KING -> 'K';
+			case QUEEN -> 'Q';
+			case ROOK -> 'R';
+			case BISHOP -> 'B';
+			case KNIGHT -> 'N';
+			case PAWN -> 'P';
+		};
+	}
+
+	private static ChessPiece.PieceType pieceType(char letter) {
+		return switch (letter) {
+			case 'Q' -> ChessPiece.PieceType.QUEEN;
+			case 'R' -> ChessPiece.PieceType.ROOK;
+			case 'B' -> ChessPiece.PieceType.BISHOP;
+			case 'N' -> ChessPiece.PieceType.KNIGHT;
+			case 'P' -> ChessPiece.PieceType.PAWN;
+			default -> throw new IllegalArgumentException("Not a tablebase piece: " + letter);
+		};
+	}
+}
@@ -0,0 +1,170 @@
+package blindchess.bot;
+
+
+import chess.gameplay.PackedMove;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Fixed-size, lock-free transposition table shared by every search that uses it.
+ * <p>
+ * Each slot is two longs: the entry data and the position key XOR-ed with that data. A reader accepts an
+ * entry only when the two halves decode back to its key, so a slot torn by a concurrent writer reads as a
+ * miss instead of as another position's result. Entry data packs the score (bits 0-31), a
+ * {@link PackedMove} (bits 32-47), depth (bits 48-55), bound (bits 56-57) and search generation
+ * (bits 58-63); generations run from 1 to 63 and wrap, so zero data always means an empty slot.
+ * <p>
+ * Every session's searches and ponders share one table, so several searches overlap, each starting a generation
+ * of its own. Entries from the last few generations therefore all count as current, and ages are taken modulo
+ * the wrap, so generation 63 is just one search older than generation 1.
+ */
+public class TranspositionTable
+{
+	public static final int DEFAULT_SIZE_MEGABYTES = 16;
+
+	private static final int BYTES_PER_ENTRY = 16;
+	private static final int GENERATIONS = 63;
+	// Generations back, the current one included, whose entries are still protected from shallower results
+	static final int RECENT_GENERATIONS = 4;
+	private static final Bound[] BOUNDS = Bound.values();
+
+	private final AtomicLongArray slots;
+	private final int indexMask;
+	private final ReplacementPolicy policy;
+	private final AtomicInteger searches = new AtomicInteger();
+
+	public TranspositionTable() {
+		this(DEFAULT_SIZE_MEGABYTES, ReplacementPolicy.DEPTH_PREFERRED);
+	}
+
+	/**
+	 * @param sizeMegabytes upper bound on memory used by the table; the entry count is rounded down to a power of two
+	 * @param policy        how a store decides whether to overwrite an occupied slot
+	 */
+	public TranspositionTable(int sizeMegabytes, ReplacementPolicy policy) {
+		if (sizeMegabytes < 1) {
+			throw new IllegalArgumentException("Transposition table size must be at least 1 MB.");
+		}
+		long requestedEntries = (long) sizeMegabytes * 1024 * 1024 / BYTES_PER_ENTRY;
+		int entries = Integer.highestOneBit((int) Math.min(requestedEntries, 1 << 26));
+		this.slots = new AtomicLongArray(entries * 2);
+		this.indexMask = entries - 1;
+		this.policy = policy;
+	}
+
+	/**
+	 * Starts a new search generation. Entries from earlier generations stay readable but are replaced first.
+	 */
+	public void newSearch() {
+		searches.incrementAndGet();
+	}
+
+	public void clear() {
+		for (int i = 0; i < slots.length(); i++) {
+			slots.setOpaque(i, 0L);
+		}
+	}
+
+	public int capacity() {
+		return indexMask + 1;
+	}
+
+	/**
+	 * @return the packed entry stored for the key, or 0 if there is none
+	 */
+	public long probe(long key) {
+		int slot = slot(key);
+		long data = slots.getOpaque(slot + 1);
+		long check = slots.getOpaque(slot);
+		return data != 0 && (check ^ data) == key ? data : 0;
+	}
+
+	/**
+	 * Stores a search result, subject to the table's replacement policy.
+	 *
+	 * @param key   the position key
+	 * @param depth the remaining depth the score was searched to
+	 * @param bound whether the score is exact or a bound
+	 * @param score the score, already adjusted to be independent of the distance from the root
+	 * @param move  the best move found as a {@link PackedMove}, or {@link PackedMove#NONE}
+	 */
+	public void store(long key, int depth, Bound bound, int score, int move) {
+		int slot = slot(key);
+		long oldData = slots.getOpaque(slot + 1);
+		boolean sameKey = oldData != 0 && (slots.getOpaque(slot) ^ oldData) == key;
+		int generation = generation();
+
+		if (policy == ReplacementPolicy.DEPTH_PREFERRED && oldData != 0
+				&& Math.floorMod(generation - generation(oldData), GENERATIONS) < RECENT_GENERATIONS && depth < depth(oldData)
+				&& (!sameKey || bound != Bound.EXACT)) {
+			return;
+		}
+		if (sameKey && move == PackedMove.NONE) {
+			move = move(oldData);
+		}
+
+		long data = (score & 0xFFFF_FFFFL)
+				| ((long) (move & 0xFFFF) << 32)
+				| ((long) Math.min(Math.max(depth, 0), 255) << 48)
+				| ((long) bound.ordinal() << 56)
+				| ((long) generation << 58);
+		slots.setOpaque(slot, key ^ data);
+		slots.setOpaque(slot + 1, data);
+	}
+
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	public static int move(long entry) {
+		return (int) ((entry >>> 32) & 0xFFFF);
+	}
+
+	public static int depth(long entry) {
+		return (int) ((entry >>> 48) & 0xFF);
+	}
+
+	public static Bound bound(long entry) {
+		return BOUNDS[(int) ((entry >>> 56) & 0x3)];
+	}
+
+	private static int generation(long entry) {
+		return (int) (entry >>> 58);
+	}
+
+	private int generation() {
+		return Math.floorMod(searches.get(), GENERATIONS) + 1;
+	}
+
+	private int slot(long key) {
+		return ((int) (key ^ (key >>> 32)) & indexMask) << 1;
+	}
+
+	/**
+	 * How a stored score relates to the true score of the position.
+	 */
+	public enum Bound
+	{
+		EXACT,
+		LOWER,
+		UPPER
+	}
+
+	/**
+	 * Decides whether a store may overwrite an occupied slot.
+	 */
+	public enum ReplacementPolicy
+	{
+		/**
+		 * Every store overwrites the slot.
+		 */
+		ALWAYS,
+		/**
+		 * A slot written in a recent search is only overwritten by a result searched at least as deep, or by an
+		 * exact score for the same position. Slots from older searches are always overwritten.
+		 */
+		DEPTH_PREFERRED
+	}
+}
@@ -2,43 +2,130 @@ package blindchess.model;
 
 
 import blindchess.bot.ChessBot;
+import blindchess.bot.SearchLimits;
 import blindchess.notation.ChessNotation;
+import chess.gameplay.Bitboards;
 import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameCopier;
 import chess.gameplay.ChessGameImpl;
 import chess.gameplay.ChessMove;
+import chess.gameplay.Fen;
 import chess.gameplay.InvalidMoveException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 
-public class BlindChessSession
+public final class BlindChessSession
 {
 	private final String sessionId;
 	private final GameMode mode;
 	private final ChessGame.TeamColor playerColor;
 	private final ChessGame.TeamColor botColor;
 	private final ChessBot bot;
+	private final SearchLimits botLimits;
 	private final ChessGameImpl game;
 	private final List<String> moveHistory = new ArrayList<>();
+	// Where numbering in the visible history starts, which differs from 1. when the game starts from a FEN
+	private final int firstMoveNumber;
+	private final boolean blackMovesFirst;
+	private final Ponderer ponderer;
+	private final List<SessionListener> listeners = new CopyOnWriteArrayList<>();
+	// Pondering since the bot's last move, or null
+	private Ponderer.Ponder ponder;
+	// Set from the player's move until the bot's reply is on the board
+	private boolean botPending;
+	private boolean botSearching;
+	private boolean closed;
+	// The bot's pending answer if pondering found it already
+	private ChessMove ponderedAnswer;
 	private SessionStatus status = SessionStatus.ACTIVE;
 	private String resultMessage;
 
 	public BlindChessSession(String sessionId, GameMode mode, ChessGame.TeamColor playerColor, ChessBot bot) {
+		this(sessionId, mode, playerColor, bot, SessionOptions.DEFAULTS);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the starting FEN is malformed or not a playable position
+	 */
+	public BlindChessSession(String sessionId, GameMode mode, ChessGame.TeamColor playerColor, ChessBot bot,
+	                         SessionOptions options) {
 		this.sessionId = sessionId;
 		this.mode = mode;
 		this.playerColor = playerColor;
 		this.botColor = playerColor == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
 		this.bot = bot;
-		this.game = new ChessGameImpl();
-		this.game.getBoard().resetBoard();
+		this.botLimits = options.botLimits();
+		this.ponderer = options.ponderer();
+		if (options.startingFen() == null) {
+			this.game = new ChessGameImpl();
+			this.game.getBoard().resetBoard();
+		} else {
+			this.game = Fen.load(options.startingFen());
+		}
+		this.firstMoveNumber = game.getFullmoveNumber();
+		this.blackMovesFirst = game.getTeamTurn() == ChessGame.TeamColor.BLACK;
 
-		if (playerColor == ChessGame.TeamColor.BLACK) {
-			runBotTurn();
+		// A starting position may already be decided, or leave the bot to move first
+		updateStatusAfterMove(Bitboards.opposite(game.getTeamTurn()));
+		botPending = status == SessionStatus.ACTIVE && game.getTeamTurn() == botColor;
+		if (!options.leaveOpeningBotMovePending()) {
+			playPendingBotTurn();
 		}
 	}
 
-	public synchronized TurnOutcome playPlayerMove(String notation) {
+	/**
+	 * Brings back a saved session. A move by the bot is left pending, as with
+	 * {@link SessionOptions#leaveOpeningBotMovePending()}.
+	 */
+	BlindChessSession(Snapshot snapshot, ChessBot bot, Ponderer ponderer) {
+		this.sessionId = snapshot.sessionId();
+		this.mode = snapshot.mode();
+		this.playerColor = snapshot.playerColor();
+		this.botColor = Bitboards.opposite(playerColor);
+		this.bot = bot;
+		this.botLimits = snapshot.botLimits();
+		this.ponderer = ponderer;
+		this.game = Fen.load(snapshot.fen());
+		this.moveHistory.addAll(snapshot.moveHistory());
+		this.firstMoveNumber = snapshot.firstMoveNumber();
+		this.blackMovesFirst = snapshot.blackMovesFirst();
+		updateStatusAfterMove(Bitboards.opposite(game.getTeamTurn()));
+		botPending = status == SessionStatus.ACTIVE && game.getTeamTurn() == botColor;
+	}
+
+	/**
+	 * @throws SessionClosedException if the session has left memory, and so will tell its listeners nothing more
+	 */
+	public synchronized void addListener(SessionListener listener) {
+		requireOpen();
+		listeners.add(listener);
+	}
+
+	public void removeListener(SessionListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Plays the player's move and then the bot's reply on the calling thread.
+	 */
+	public TurnOutcome playPlayerMove(String notation) {
+		String playerSan = acceptPlayerMove(notation);
+		return new TurnOutcome(playerSan, playPendingBotTurn());
+	}
+
+	/**
+	 * Plays the player's move and leaves the bot's reply, if the game goes on, pending for
+	 * {@link #playPendingBotTurn()}.
+	 *
+	 * @return the player's move in SAN
+	 *
+	 * @throws SessionClosedException if the session has left memory; the move was not played
+	 */
+	public synchronized String acceptPlayerMove(String notation) {
+		requireOpen();
 		requireActiveGame();
 		if (game.getTeamTurn() != playerColor) {
 			throw new IllegalStateException("It is not your turn.");
@@ -53,22 +140,84 @@ public class BlindChessSession
 		}
 		moveHistory.add(playerSan);
 		updateStatusAfterMove(playerColor);
+		for (SessionListener listener : listeners) {
+			listener.movePlayed(this, moveHistory.size(), playerColor, playerSan);
+		}
+		ChessMove pondered = ponder == null ? null : ponder.finish(playerMove);
+		ponder = null;
 
-		String botSan = null;
 		if (status == SessionStatus.ACTIVE && game.getTeamTurn() == botColor) {
-			botSan = runBotTurn();
+			botPending = true;
+			ponderedAnswer = pondered;
+		}
+		return playerSan;
+	}
+
+	/**
+	 * Searches and plays the bot's pending move. The search runs on a copy of the game without holding the
+	 * session's lock, so the session can still be read while the bot thinks.
+	 *
+	 * @return the bot's move in SAN, or null if no move was pending, another thread is already searching it, or
+	 * the player resigned during the search
+	 *
+	 * @throws SessionClosedException if the session has left memory
+	 */
+	public String playPendingBotTurn() {
+		ChessGameImpl position;
+		ChessMove pondered;
+		synchronized (this) {
+			requireOpen();
+			if (!botPending || botSearching) {
+				return null;
+			}
+			botSearching = true;
+			position = ChessGameCopier.copy(game);
+			pondered = ponderedAnswer;
+			ponderedAnswer = null;
+			for (SessionListener listener : listeners) {
+				listener.botThinking(this);
+			}
+		}
+
+		ChessMove botMove = null;
+		try {
+			botMove = pondered != null ? pondered
+					: botLimits == null ? bot.chooseMove(position, botColor) : bot.chooseMove(position, botColor, botLimits);
+		} finally {
+			synchronized (this) {
+				botSearching = false;
+			}
 		}
 
-		return new TurnOutcome(playerSan, botSan);
+		synchronized (this) {
+			if (!botPending) {
+				return null;
+			}
+			botPending = false;
+			return playBotMove(botMove);
+		}
 	}
 
+	/**
+	 * @throws SessionClosedException if the session has left memory; the player has not resigned
+	 */
 	public synchronized void resignPlayer() {
+		requireOpen();
 		if (status != SessionStatus.ACTIVE) {
 			return;
 		}
 		status = SessionStatus.RESIGNED;
 		resultMessage = "You resigned. Bot wins.";
+		botPending = false;
+		ponderedAnswer = null;
+		if (ponder != null) {
+			ponder.cancel();
+			ponder = null;
+		}
 		game.setTeamTurn(null);
+		for (SessionListener listener : listeners) {
+			listener.resigned(this);
+		}
 	}
 
 	public synchronized String getSessionId() {
@@ -113,10 +262,106 @@ public class BlindChessSession
 		return formatMovePairs();
 	}
 
+	/**
+	 * @return the last line of {@link #getVisibleHistory()}, without formatting the lines before it, or null
+	 * before the first move
+	 */
+	public synchronized String getLatestHistoryLine() {
+		if (moveHistory.isEmpty()) {
+			return null;
+		}
+		int index = moveHistory.size() - 1;
+		if (mode == GameMode.NO_HISTORY) {
+			return moveHistory.get(index);
+		}
+		// Half-moves since the start of the first numbered move, so even offsets are White's
+		int offset = index + (blackMovesFirst ? 1 : 0);
+		int moveNumber = firstMoveNumber + offset / 2;
+		if (offset % 2 == 0) {
+			return moveNumber + ". " + moveHistory.get(index);
+		}
+		if (index == 0) {
+			return moveNumber + "... " + moveHistory.get(index);
+		}
+		return moveNumber + ". " + moveHistory.get(index - 1) + ' ' + moveHistory.get(index);
+	}
+
+	/**
+	 * @return true from the player's move until the bot's reply has been played
+	 */
+	public synchronized boolean isBotPending() {
+		return botPending;
+	}
+
 	public synchronized boolean isPlayerTurn() {
 		return status == SessionStatus.ACTIVE && game.getTeamTurn() == playerColor;
 	}
 
+	/**
+	 * @return the current position in FEN
+	 */
+	public synchronized String getFen() {
+		return Fen.toFen(game);
+	}
+
+	/**
+	 * Captures what it takes to bring the session back with the same position and history, for sessions that
+	 * are moved out of memory. Positions are saved as FEN, so pondering and the bot's search state are not kept.
+	 *
+	 * @throws IllegalStateException if the game is over or the bot is to move
+	 */
+	public synchronized Snapshot snapshot() {
+		if (status != SessionStatus.ACTIVE || botPending) {
+			throw new IllegalStateException("Only a game waiting for the player can be saved.");
+		}
+		return capture();
+	}
+
+	/**
+	 * Like {@link #snapshot()}, but whoever is to move, for the move journal. A bot move being searched is not
+	 * part of it, and is left pending when the session is brought back.
+	 */
+	synchronized Snapshot capture() {
+		return new Snapshot(sessionId, mode, playerColor, botLimits, Fen.toFen(game), List.copyOf(moveHistory),
+				firstMoveNumber, blackMovesFirst);
+	}
+
+	/**
+	 * Plays a move from the journal for whichever side is to move, without searching or telling listeners.
+	 *
+	 * @throws IllegalArgumentException if the move is not legal here
+	 */
+	synchronized void replayMove(String san) {
+		requireActiveGame();
+		ChessGame.TeamColor movingTeam = game.getTeamTurn();
+		try {
+			game.makeMove(ChessNotation.parse(san, game));
+		} catch (InvalidMoveException e) {
+			throw new IllegalArgumentException("Invalid move: " + san, e);
+		}
+		moveHistory.add(san);
+		updateStatusAfterMove(movingTeam);
+		botPending = status == SessionStatus.ACTIVE && game.getTeamTurn() == botColor;
+	}
+
+	/**
+	 * Stops any pondering, for a session that is leaving memory. Moves and resignations after this are refused, so
+	 * none can land on a copy nobody will read again.
+	 */
+	synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (ponder != null) {
+			ponder.cancel();
+			ponder = null;
+		}
+		for (SessionListener listener : listeners) {
+			listener.closed(this);
+		}
+	}
+
 	public synchronized String getPrompt() {
 		if (status != SessionStatus.ACTIVE) {
 			return resultMessage;
@@ -127,8 +372,7 @@ public class BlindChessSession
 		return game.isInCheck(botColor) ? "Bot is in check." : "Bot to move.";
 	}
 
-	private String runBotTurn() {
-		ChessMove botMove = bot.chooseMove(game, botColor);
+	private String playBotMove(ChessMove botMove) {
 		String botSan = ChessNotation.toSan(game, botMove);
 		try {
 			game.makeMove(botMove);
@@ -137,6 +381,12 @@ public class BlindChessSession
 		}
 		moveHistory.add(botSan);
 		updateStatusAfterMove(botColor);
+		for (SessionListener listener : listeners) {
+			listener.movePlayed(this, moveHistory.size(), botColor, botSan);
+		}
+		if (ponderer != null && status == SessionStatus.ACTIVE) {
+			ponder = ponderer.start(bot, game, playerColor, botLimits);
+		}
 		return botSan;
 	}
 
@@ -160,9 +410,16 @@ public class BlindChessSession
 
 	private List<String> formatMovePairs() {
 		List<String> lines = new ArrayList<>();
-		for (int index = 0; index < moveHistory.size(); index += 2) {
+		int moveNumber = firstMoveNumber;
+		int index = 0;
+		if (blackMovesFirst) {
+			lines.add(moveNumber + "... " + moveHistory.get(0));
+			moveNumber++;
+			index = 1;
+		}
+		for (; index < moveHistory.size(); index += 2, moveNumber++) {
 			StringBuilder line = new StringBuilder();
-			line.append((index / 2) + 1).append(". ").append(moveHistory.get(index));
+			line.append(moveNumber).append(". ").append(moveHistory.get(index));
 			if (index + 1 < moveHistory.size()) {
 				line.append(' ').append(moveHistory.get(index + 1));
 			}
@@ -171,6 +428,12 @@ public class BlindChessSession
 		return List.copyOf(lines);
 	}
 
+	private void requireOpen() {
+		if (closed) {
+			throw new SessionClosedException(sessionId);
+		}
+	}
+
 	private void requireActiveGame() {
 		if (status != SessionStatus.ACTIVE) {
 			throw new IllegalStateException(resultMessage == null ? "Game is over." : resultMessage);
@@ -179,4 +442,17 @@ public class BlindChessSession
 
 	public record TurnOutcome(String playerMove, String botMove) {
 	}
+
+	/**
+	 * A session waiting for the player's move, in a form that can be written to disk.
+	 *
+	 * @param botLimits       search budget for each bot move, or null for the bot's default
+	 * @param fen             the current position
+	 * @param moveHistory     every move so far in SAN
+	 * @param firstMoveNumber move number of the first move in the history
+	 * @param blackMovesFirst whether the history starts with a move by Black
+	 */
+	public record Snapshot(String sessionId, GameMode mode, ChessGame.TeamColor playerColor, SearchLimits botLimits,
+	                       String fen, List<String> moveHistory, int firstMoveNumber, boolean blackMovesFirst) {
+	}
 }
@@ -2,34 +2,143 @@ package blindchess.model;
 
 
 import blindchess.bot.ChessBot;
+import blindchess.bot.SearchLimits;
 import chess.gameplay.ChessGame;
 
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 
 public class BlindChessSessionManager
 {
-	private final Map<String, BlindChessSession> sessions = new ConcurrentHashMap<>();
+	private final SessionStore sessions;
 	private final ChessBot bot;
+	private final Ponderer ponderer;
+	private final SearchScheduler scheduler;
+	private final MoveJournal journal;
 
 	public BlindChessSessionManager(ChessBot bot) {
+		this(bot, SessionManagerConfig.DEFAULTS);
+	}
+
+	public BlindChessSessionManager(ChessBot bot, SessionManagerConfig config) {
 		this.bot = bot;
+		this.ponderer = config.ponderer();
+		this.scheduler = config.scheduler();
+		this.journal = config.journal();
+		this.sessions = new SessionStore(config.idleTimeout(), config.maxSessions(), config.spillDirectory(), snapshot -> {
+			BlindChessSession session = new BlindChessSession(snapshot, bot, ponderer);
+			if (journal != null) {
+				journal.attach(session);
+			}
+			return session;
+		}, journal == null ? null : sessionId -> journal.recover(sessionId, bot, ponderer));
 	}
 
 	public BlindChessSession createSession(GameMode mode, ChessGame.TeamColor playerColor) {
+		return createSession(mode, playerColor, null);
+	}
+
+	/**
+	 * @param botLimits search budget for each bot move in the session, or null for the bot's default
+	 */
+	public BlindChessSession createSession(GameMode mode, ChessGame.TeamColor playerColor, SearchLimits botLimits) {
+		return createSession(mode, playerColor, botLimits, null);
+	}
+
+	/**
+	 * @param startingFen position to start from in FEN, or null for the standard starting position
+	 *
+	 * @return the new session; when the bot moves first its move is scheduled, and may still be pending
+	 */
+	public BlindChessSession createSession(GameMode mode, ChessGame.TeamColor playerColor, SearchLimits botLimits, String startingFen) {
 		String sessionId = UUID.randomUUID().toString();
-		BlindChessSession session = new BlindChessSession(sessionId, mode, playerColor, bot);
-		sessions.put(sessionId, session);
+		// A first move by the bot is left for scheduleBotTurn below, so it is searched on the scheduler
+		SessionOptions options = SessionOptions.DEFAULTS.withBotLimits(botLimits).withStartingFen(startingFen)
+				.withPonderer(ponderer).withLeaveOpeningBotMovePending(true);
+		BlindChessSession session = new BlindChessSession(sessionId, mode, playerColor, bot, options);
+		if (journal != null) {
+			journal.start(session);
+		}
+		sessions.add(session);
+		try {
+			scheduleBotTurn(session);
+		} catch (RejectedExecutionException e) {
+			// The first move stays pending until the scheduler has room; see scheduleBotTurn
+		}
 		return session;
 	}
 
+	/**
+	 * Gets the session's pending bot move searched, unless it already is being searched.
+	 *
+	 * @return the bot's move in SAN once played, or null if there was none to play
+	 *
+	 * @throws RejectedExecutionException if the scheduler's queue is full; the move stays pending and can be
+	 *                                    scheduled again later
+	 */
+	public CompletableFuture<String> scheduleBotTurn(BlindChessSession session) {
+		if (!session.isBotPending()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		if (scheduler == null) {
+			return CompletableFuture.completedFuture(session.playPendingBotTurn());
+		}
+		return scheduler.schedule(session.getSessionId(), session::playPendingBotTurn);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if there is no such session, in memory, spilled or journaled
+	 */
 	public BlindChessSession getSession(String sessionId) {
-		BlindChessSession session = sessions.get(sessionId);
-		if (session == null) {
-			throw new IllegalArgumentException("Session not found: " + sessionId);
+		return sessions.get(sessionId);
+	}
+
+	/**
+	 * Plays the player's move and leaves the bot's reply pending; see {@link BlindChessSession#acceptPlayerMove}.
+	 * A session that leaves memory between being fetched and the move is fetched again and the move played on that.
+	 *
+	 * @throws IllegalArgumentException if there is no such session, or the move is not legal
+	 */
+	public PlayedMove acceptPlayerMove(String sessionId, String notation) {
+		while (true) {
+			BlindChessSession session = sessions.get(sessionId);
+			try {
+				return new PlayedMove(session, session.acceptPlayerMove(notation));
+			} catch (SessionClosedException e) {
+				// Left memory after the lookup; the next lookup reads it back
+			}
 		}
-		return session;
+	}
+
+	/**
+	 * Resigns the game for the player, fetching the session again if it leaves memory first.
+	 *
+	 * @return the session the player resigned
+	 *
+	 * @throws IllegalArgumentException if there is no such session
+	 */
+	public BlindChessSession resignPlayer(String sessionId) {
+		while (true) {
+			BlindChessSession session = sessions.get(sessionId);
+			try {
+				session.resignPlayer();
+				return session;
+			} catch (SessionClosedException e) {
+				// Left memory after the lookup; the next lookup reads it back
+			}
+		}
+	}
+
+	public SessionStore.Metrics getSessionMetrics() {
+		return sessions.metrics();
+	}
+
+	/**
+	 * @param session the session the move was played on, which stays in memory at least until the bot replies
+	 * @param san     the player's move in SAN
+	 */
+	public record PlayedMove(BlindChessSession session, String san) {
 	}
 }
@@ -0,0 +1,404 @@
+package blindchess.model;
+
+
+import blindchess.bot.ChessBot;
+import chess.gameplay.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Keeps every session on disk, so games survive a restart of the server.
+ * <p>
+ * Each session has a snapshot file, holding its position as FEN and its history, and an append-only journal of
+ * the moves played since. A new snapshot is written every so many moves and empties the journal, so bringing a
+ * session back reads one snapshot and at most that many moves, however long the game. Sessions are only brought
+ * back when they are first requested, which keeps startup independent of how many games are on disk.
+ * <p>
+ * Sessions hand their moves to a single writer thread and carry on; they only wait for the disk when the writer
+ * falls a whole queue behind. The writer takes everything queued since its last pass, appends it, and forces each
+ * journal it touched to disk once, so a burst of moves across many sessions costs one sync per session rather
+ * than one per move. A crash can lose the moves still queued, which are at most the last few milliseconds' worth.
+ * Write failures are reported through {@link #sync()}.
+ * <p>
+ * Journal lines are {@code M <move count> <SAN>} for a move and {@code R} for a resignation. The move count
+ * lets moves already in the snapshot be skipped, should the server stop between writing a snapshot and emptying
+ * the journal.
+ */
+public class MoveJournal implements SessionListener, AutoCloseable
+{
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 32;
+	private static final Gson GSON = new Gson();
+	private static final String SNAPSHOT_SUFFIX = ".snapshot";
+	private static final String JOURNAL_SUFFIX = ".journal";
+	// Journals kept open between passes; more sessions than this reopen their journal when they next move
+	private static final int MAX_OPEN_JOURNALS = 256;
+	// Records waiting for the writer before sessions have to wait for it too
+	private static final int QUEUE_CAPACITY = 4096;
+	private static final long ENQUEUE_RETRY_MILLIS = 100;
+
+	private final Path directory;
+	private final int snapshotInterval;
+	private final BlockingQueue<Record> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	// Only touched by the writer thread
+	private final Map<String, FileChannel> openJournals = new LinkedHashMap<>(16, 0.75f, true);
+	// Journals written in the writer's current pass, to be forced at its end
+	private final Set<FileChannel> dirty = new HashSet<>();
+	private final Thread writer;
+	private volatile boolean stopped;
+
+	/**
+	 * @param directory        where the snapshots and journals are kept
+	 * @param snapshotInterval moves between snapshots, which is also the most moves replayed to bring a session back
+	 */
+	public MoveJournal(Path directory, int snapshotInterval) {
+		if (snapshotInterval < 1) {
+			throw new IllegalArgumentException("Snapshots must be at least one move apart.");
+		}
+		this.directory = directory;
+		this.snapshotInterval = snapshotInterval;
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot create the move journal directory " + directory, e);
+		}
+		writer = new Thread(this::write, "move-journal");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Records a new session's starting position, and from then on every move it plays.
+	 */
+	public void start(BlindChessSession session) {
+		enqueue(new Record.Snapshot(session.capture()));
+		session.addListener(this);
+	}
+
+	/**
+	 * Records every move from now on of a session that is already on disk.
+	 */
+	public void attach(BlindChessSession session) {
+		session.addListener(this);
+	}
+
+	/**
+	 * Brings back a session from its latest snapshot and the moves journaled since.
+	 *
+	 * @return the session with later moves recorded again, or null if it is not on disk
+	 *
+	 * @throws IllegalStateException if what is on disk cannot be read, or the journal could not write it
+	 */
+	public BlindChessSession recover(String sessionId, ChessBot bot, Ponderer ponderer) {
+		// Anything still queued for the session has to be on disk before it is read back
+		try {
+			await(sync());
+		} catch (UncheckedIOException e) {
+			throw new IllegalStateException("Cannot recover session " + sessionId, e);
+		}
+		Path snapshotFile = SessionStore.sessionFile(directory, sessionId, SNAPSHOT_SUFFIX);
+		BlindChessSession session;
+		try {
+			BlindChessSession.Snapshot snapshot = GSON.fromJson(Files.readString(snapshotFile), BlindChessSession.Snapshot.class);
+			session = new BlindChessSession(snapshot, bot, ponderer);
+			replay(session, snapshot.moveHistory().size(), SessionStore.sessionFile(directory, sessionId, JOURNAL_SUFFIX));
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | JsonParseException | IllegalArgumentException e) {
+			throw new IllegalStateException("Cannot recover session " + sessionId, e);
+		}
+		attach(session);
+		return session;
+	}
+
+	/**
+	 * @return completes once everything queued so far is on disk, or exceptionally with an
+	 *         {@link UncheckedIOException} if the writer's pass failed to write some of it
+	 */
+	public CompletableFuture<Void> sync() {
+		Record.Sync sync = new Record.Sync(new CompletableFuture<>());
+		if (!enqueue(sync)) {
+			sync.done().complete(null);
+		}
+		return sync.done();
+	}
+
+	@Override
+	public void movePlayed(BlindChessSession session, int moveCount, ChessGame.TeamColor color, String san) {
+		String sessionId = session.getSessionId();
+		enqueue(new Record.Line(sessionId, "M " + moveCount + " " + san + "\n"));
+		// A finished game is forgotten when it leaves memory, so it is not worth a snapshot
+		if (moveCount % snapshotInterval == 0 && session.getStatus() == SessionStatus.ACTIVE) {
+			enqueue(new Record.Snapshot(session.capture()));
+		}
+	}
+
+	@Override
+	public void resigned(BlindChessSession session) {
+		enqueue(new Record.Line(session.getSessionId(), "R\n"));
+	}
+
+	/**
+	 * A finished game is deleted when it leaves memory; a game in progress stays on disk to be recovered.
+	 */
+	@Override
+	public void closed(BlindChessSession session) {
+		session.removeListener(this);
+		enqueue(new Record.Close(session.getSessionId(), session.getStatus() != SessionStatus.ACTIVE));
+	}
+
+	/**
+	 * Writes everything queued, closes the journals and stops the writer. Records arriving from now on are dropped.
+	 *
+	 * @throws UncheckedIOException if the last of the queue could not be written
+	 */
+	@Override
+	public void close() {
+		if (stopped) {
+			return;
+		}
+		stopped = true;
+		Record.Stop stop = new Record.Stop(new CompletableFuture<>());
+		// The writer is still draining the queue, so room for the stop always comes
+		boolean interrupted = false;
+		while (true) {
+			try {
+				queue.put(stop);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		await(stop.done());
+	}
+
+	/**
+	 * Waits while the queue is full, so a writer that has fallen behind slows sessions down rather than losing
+	 * their moves.
+	 *
+	 * @return whether the record was queued; once the journal is closed it is not
+	 */
+	private boolean enqueue(Record record) {
+		boolean interrupted = false;
+		try {
+			while (!stopped) {
+				try {
+					if (queue.offer(record, ENQUEUE_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+						return true;
+					}
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			return false;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static void await(CompletableFuture<Void> done) {
+		try {
+			done.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException failure) {
+				throw failure;
+			}
+			throw e;
+		}
+	}
+
+	private void replay(BlindChessSession session, int snapshotMoves, Path journalFile) throws IOException {
+		if (!Files.exists(journalFile)) {
+			return;
+		}
+		String journal = Files.readString(journalFile, StandardCharsets.UTF_8);
+		int moveCount = snapshotMoves;
+		// A line cut off by a crash has no newline yet and is ignored
+		int end = journal.lastIndexOf('\n') + 1;
+		for (String line : journal.substring(0, end).split("\n")) {
+			if (line.equals("R")) {
+				session.resignPlayer();
+			} else if (line.startsWith("M ")) {
+				String[] fields = line.split(" ", 3);
+				int count = Integer.parseInt(fields[1]);
+				if (count > moveCount) {
+					session.replayMove(fields[2]);
+					moveCount = count;
+				}
+			}
+		}
+	}
+
+	private void write() {
+		List<Record> batch = new ArrayList<>();
+		// One session's failure to write must not stop the journal for the others; it goes to the next syncs instead
+		List<Exception> failures = new ArrayList<>();
+		boolean stopping = false;
+		while (!stopping) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				// Only a stop record ends the writer, so nothing queued is left behind
+				continue;
+			}
+			queue.drainTo(batch);
+			List<CompletableFuture<Void>> synced = new ArrayList<>();
+			for (Record record : batch) {
+				try {
+					switch (record) {
+						case Record.Line line -> {
+							FileChannel journal = journal(line.sessionId());
+							ByteBuffer bytes = StandardCharsets.UTF_8.encode(line.text());
+							while (bytes.hasRemaining()) {
+								journal.write(bytes);
+							}
+							dirty.add(journal);
+						}
+						case Record.Snapshot snapshot -> {
+							writeSnapshot(snapshot.snapshot());
+							// Everything journaled so far is in the snapshot now
+							FileChannel journal = journal(snapshot.snapshot().sessionId());
+							journal.truncate(0);
+							dirty.add(journal);
+						}
+						case Record.Close close -> {
+							FileChannel journal = openJournals.remove(close.sessionId());
+							if (journal != null) {
+								journal.force(false);
+								dirty.remove(journal);
+								journal.close();
+							}
+							if (close.delete()) {
+								Files.deleteIfExists(SessionStore.sessionFile(directory, close.sessionId(), JOURNAL_SUFFIX));
+								Files.deleteIfExists(SessionStore.sessionFile(directory, close.sessionId(), SNAPSHOT_SUFFIX));
+							}
+						}
+						case Record.Sync sync -> synced.add(sync.done());
+						case Record.Stop stop -> {
+							synced.add(stop.done());
+							stopping = true;
+						}
+					}
+				} catch (IOException | RuntimeException e) {
+					failures.add(e);
+				}
+			}
+			for (FileChannel journal : dirty) {
+				try {
+					journal.force(false);
+				} catch (IOException e) {
+					failures.add(e);
+				}
+			}
+			if (stopping) {
+				for (FileChannel journal : openJournals.values()) {
+					try {
+						journal.close();
+					} catch (IOException e) {
+						// Already forced; nothing left to lose
+					}
+				}
+			}
+			if (failures.isEmpty()) {
+				synced.forEach(done -> done.complete(null));
+			} else {
+				UncheckedIOException failure = new UncheckedIOException("The move journal could not write everything",
+						failures.getFirst() instanceof IOException first ? first : new IOException(failures.getFirst()));
+				failures.subList(1, failures.size()).forEach(failure::addSuppressed);
+				synced.forEach(done -> done.completeExceptionally(failure));
+				if (!synced.isEmpty()) {
+					failures.clear();
+				}
+			}
+			batch.clear();
+			dirty.clear();
+		}
+	}
+
+	private FileChannel journal(String sessionId) throws IOException {
+		FileChannel journal = openJournals.get(sessionId);
+		if (journal == null) {
+			journal = FileChannel.open(SessionStore.sessionFile(directory, sessionId, JOURNAL_SUFFIX),
+					StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			openJournals.put(sessionId, journal);
+			if (openJournals.size() > MAX_OPEN_JOURNALS) {
+				Map.Entry<String, FileChannel> eldest = openJournals.entrySet().iterator().next();
+				// Forced before closing, since the pass that wrote it may still be under way
+				eldest.getValue().force(false);
+				dirty.remove(eldest.getValue());
+				eldest.getValue().close();
+				openJournals.remove(eldest.getKey());
+			}
+		}
+		return journal;
+	}
+
+	// Written to a temporary file, forced and renamed, so a crash leaves either the old snapshot or the new one
+	private void writeSnapshot(BlindChessSession.Snapshot snapshot) throws IOException {
+		Path file = SessionStore.sessionFile(directory, snapshot.sessionId(), SNAPSHOT_SUFFIX);
+		Path temporary = Files.createTempFile(directory, snapshot.sessionId(), ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+			ByteBuffer bytes = StandardCharsets.UTF_8.encode(GSON.toJson(snapshot));
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			channel.force(true);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private sealed interface Record
+	{
+		record Line(String sessionId, String text) implements Record
+		{
+		}
+
+		record Snapshot(BlindChessSession.Snapshot snapshot) implements Record
+		{
+		}
+
+		// Closes the session's journal, deleting its files if the game is over
+		record Close(String sessionId, boolean delete) implements Record
+		{
+		}
+
+		record Sync(CompletableFuture<Void> done) implements Record
+		{
+		}
+
+		// The last record the writer takes
+		record Stop(CompletableFuture<Void> done) implements Record
+		{
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package blindchess.model;
+
+
+import blindchess.bot.ChessBot;
+import blindchess.bot.Evaluator;
+import blindchess.bot.SearchLimits;
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameCopier;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import chess.gameplay.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Thinks on the player's time. Once the bot has moved, a background task guesses the player's likeliest
+ * replies and searches the bot's answer to each, so a reply it guessed is answered at once. Searches it does not
+ * finish still leave their work in the bot's transposition table for the real search.
+ * <p>
+ * One ponderer is shared by every session and caps how many of them ponder at once. A session that finds the
+ * cap reached simply does not ponder, so idle sessions never hold up the searches players are waiting for.
+ */
+public class Ponderer
+{
+	// The first guess is the bot's own choice for the player, searched only this deep
+	private static final int PREDICTION_DEPTH = 4;
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+	private final int maxSearches;
+	private final Semaphore permits;
+	private final int replies;
+	private final Evaluator evaluator = new Evaluator();
+	private final ExecutorService pool;
+
+	/**
+	 * @param maxSearches how many sessions may ponder at the same time, each on one thread
+	 * @param replies     how many of the player's replies to prepare an answer for
+	 */
+	public Ponderer(int maxSearches, int replies) {
+		if (maxSearches < 1 || replies < 1) {
+			throw new IllegalArgumentException("Pondering needs at least one search and one reply.");
+		}
+		this.maxSearches = maxSearches;
+		this.permits = new Semaphore(maxSearches);
+		this.replies = replies;
+		this.pool = Executors.newFixedThreadPool(maxSearches, runnable -> {
+			Thread thread = new Thread(runnable, "bot-ponder-" + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	/**
+	 * Starts pondering a position where the player is to move.
+	 *
+	 * @param botLimits budget for each answer, or null for the bot's default
+	 *
+	 * @return the running ponder, or null if every pondering thread is busy
+	 */
+	Ponder start(ChessBot bot, ChessGame game, ChessGame.TeamColor playerColor, SearchLimits botLimits) {
+		if (!permits.tryAcquire()) {
+			return null;
+		}
+		Ponder ponder = new Ponder();
+		ChessGameImpl position = ChessGameCopier.copy(game);
+		position.setTeamTurn(playerColor);
+		pool.execute(() -> {
+			try {
+				ponder.run(bot, position, playerColor, botLimits);
+			} finally {
+				permits.release();
+			}
+		});
+		return ponder;
+	}
+
+	/**
+	 * @return how many sessions are pondering right now
+	 */
+	public int activeSearches() {
+		return maxSearches - permits.availablePermits();
+	}
+
+	/**
+	 * The player's likeliest replies, best guess first: the bot's own choice for the player, then the replies
+	 * that leave the best static score for the player.
+	 */
+	private List<ChessMove> expectedReplies(ChessBot bot, ChessGameImpl position, ChessGame.TeamColor playerColor,
+	                                        SearchLimits botLimits, AtomicBoolean cancelled) {
+		List<ChessMove> legalMoves = new ArrayList<>();
+		MoveGenerator.generate(position.getBoard(), playerColor, -1L, legalMoves);
+		if (legalMoves.isEmpty()) {
+			return List.of();
+		}
+		SearchLimits predictionLimits = (botLimits == null ? SearchLimits.depth(PREDICTION_DEPTH) : botLimits)
+				.withMaxDepth(PREDICTION_DEPTH);
+		ChessMove predicted = bot.ponder(position, playerColor, predictionLimits, cancelled);
+		// The player may have replied during the prediction; scoring every reply would then be wasted
+		if (cancelled.get()) {
+			return List.of();
+		}
+
+		Map<ChessMove, Integer> scores = new HashMap<>();
+		for (ChessMove move : legalMoves) {
+			position.makeMoveUnchecked(move);
+			scores.put(move, evaluator.evaluate(position, playerColor));
+			position.unmakeMove();
+		}
+		legalMoves.sort(Comparator.comparing((ChessMove move) -> !move.equals(predicted))
+				.thenComparing(scores::get, Comparator.reverseOrder()));
+		return legalMoves.subList(0, Math.min(replies, legalMoves.size()));
+	}
+
+	/**
+	 * One session's pondering between a bot move and the player's reply.
+	 */
+	final class Ponder
+	{
+		private final AtomicBoolean cancelled = new AtomicBoolean();
+		// Player reply to the bot's answer, filled in as each search finishes
+		private final Map<ChessMove, ChessMove> answers = new ConcurrentHashMap<>();
+
+		private void run(ChessBot bot, ChessGameImpl position, ChessGame.TeamColor playerColor, SearchLimits botLimits) {
+			ChessGame.TeamColor botColor = Bitboards.opposite(playerColor);
+			int[] buffer = new int[MoveGenerator.MAX_MOVES];
+			for (ChessMove reply : expectedReplies(bot, position, playerColor, botLimits, cancelled)) {
+				if (cancelled.get()) {
+					return;
+				}
+				position.makeMoveUnchecked(reply);
+				// Positions that are already over have no answer to prepare
+				if (MoveGenerator.generate(position.getBoard(), botColor, buffer, 0) > 0) {
+					ChessMove answer = bot.ponder(position, botColor, botLimits, cancelled);
+					// A search cut short is only a guess and is not kept
+					if (!cancelled.get()) {
+						answers.put(reply, answer);
+					}
+				}
+				position.unmakeMove();
+			}
+		}
+
+		/**
+		 * Stops pondering now that the player has replied.
+		 *
+		 * @return the bot's answer to the reply if it was guessed and searched in time, or null
+		 */
+		ChessMove finish(ChessMove reply) {
+			cancelled.set(true);
+			return answers.get(reply);
+		}
+
+		void cancel() {
+			cancelled.set(true);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package blindchess.model;
+
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+/**
+ * Runs bot turns off the threads that serve requests, on a fixed pool of workers.
+ * <p>
+ * Turns wait in a bounded first-come, first-served queue, and each session has at most one turn queued or
+ * running: scheduling a session that already has one returns the turn in flight. A session therefore never
+ * holds more than one place in the queue, however often it is polled, and a full queue refuses new turns
+ * instead of piling up work no one will wait for.
+ */
+public class SearchScheduler
+{
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+	private final ThreadPoolExecutor pool;
+	// Turn queued or running per session
+	private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+	/**
+	 * @param workers       how many turns may search at the same time
+	 * @param queueCapacity how many more turns may wait for a worker
+	 */
+	public SearchScheduler(int workers, int queueCapacity) {
+		if (workers < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("A scheduler needs at least one worker and one queue slot.");
+		}
+		pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity, true),
+				runnable -> {
+					Thread thread = new Thread(runnable, "bot-turn-" + THREAD_COUNTER.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Queues a session's turn, unless one is already queued or running for it.
+	 *
+	 * @param sessionId the session the turn belongs to
+	 * @param turn      plays the turn and returns its result, such as the bot's move
+	 *
+	 * @return the turn's result once it has run, the new turn's or the one already in flight
+	 *
+	 * @throws RejectedExecutionException if the queue is full
+	 */
+	public CompletableFuture<String> schedule(String sessionId, Supplier<String> turn) {
+		CompletableFuture<String> created = new CompletableFuture<>();
+		CompletableFuture<String> existing = inFlight.putIfAbsent(sessionId, created);
+		if (existing != null) {
+			return existing;
+		}
+		try {
+			pool.execute(() -> {
+				String result = null;
+				Throwable failure = null;
+				try {
+					result = turn.get();
+				} catch (Throwable e) {
+					// Errors too, such as running out of stack in a deep search, or the session waits on this turn forever
+					failure = e;
+				} finally {
+					// Leave the map first, so a caller woken by the result can schedule the session's next turn
+					inFlight.remove(sessionId, created);
+				}
+				if (failure != null) {
+					created.completeExceptionally(failure);
+				} else {
+					created.complete(result);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inFlight.remove(sessionId, created);
+			throw e;
+		}
+		return created;
+	}
+
+	/**
+	 * @return how many turns are waiting for a worker
+	 */
+	public int queuedTurns() {
+		return pool.getQueue().size();
+	}
+}
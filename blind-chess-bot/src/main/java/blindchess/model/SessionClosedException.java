@@ -0,0 +1,14 @@
+package blindchess.model;
+
+
+/**
+ * Indicates a session was used after it left memory. The session can be fetched again, read back as it was when
+ * it left, and the call repeated on that.
+ */
+public class SessionClosedException extends IllegalStateException
+{
+	
+	public SessionClosedException(String sessionId) {
+		super("Session has left memory: " + sessionId);
+	}
+}
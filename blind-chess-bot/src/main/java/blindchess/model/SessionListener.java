@@ -0,0 +1,35 @@
+package blindchess.model;
+
+
+import chess.gameplay.ChessGame;
+
+
+/**
+ * Told about changes to a session as they happen. Calls are made on the thread that changed the session while it
+ * still holds the session's lock, so the session can be read consistently from the call, but anything slow
+ * belongs on another thread.
+ */
+public interface SessionListener
+{
+	/**
+	 * @param moveCount how many moves the session's history holds, this one included
+	 * @param color     the team that moved, the player's or the bot's
+	 * @param san       the move just played, in SAN
+	 */
+	void movePlayed(BlindChessSession session, int moveCount, ChessGame.TeamColor color, String san);
+
+	/**
+	 * The bot has started on its move, searching or playing a pondered answer.
+	 */
+	default void botThinking(BlindChessSession session) {
+	}
+
+	default void resigned(BlindChessSession session) {
+	}
+
+	/**
+	 * The session is leaving memory; it may be read back later if the game was still in progress.
+	 */
+	default void closed(BlindChessSession session) {
+	}
+}
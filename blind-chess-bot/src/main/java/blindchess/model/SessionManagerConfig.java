@@ -0,0 +1,51 @@
+package blindchess.model;
+
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+
+/**
+ * Everything a {@link BlindChessSessionManager} is built with besides its bot. Start from {@link #DEFAULTS}, which
+ * keeps every session in memory and searches on the calling thread, and change what differs.
+ *
+ * @param ponderer       shared by every session to think on the players' time, or null to not ponder
+ * @param scheduler      runs the bot's turns, or null to run each on the thread that schedules it
+ * @param idleTimeout    how long a session may go unused before it leaves memory, or null for no limit; see
+ *                       {@link SessionStore}
+ * @param maxSessions    how many sessions may be in memory at once
+ * @param spillDirectory where games in progress are written when they leave memory, to be read back when next
+ *                       requested, or null to forget them
+ * @param journal        records every session's moves, and brings back sessions found neither in memory nor
+ *                       spilled, such as those from before a restart; or null to keep sessions only in memory
+ */
+public record SessionManagerConfig(Ponderer ponderer, SearchScheduler scheduler, Duration idleTimeout, int maxSessions,
+                                   Path spillDirectory, MoveJournal journal)
+{
+	public static final SessionManagerConfig DEFAULTS = new SessionManagerConfig(null, null, null, Integer.MAX_VALUE,
+			null, null);
+
+	public SessionManagerConfig withPonderer(Ponderer ponderer) {
+		return new SessionManagerConfig(ponderer, scheduler, idleTimeout, maxSessions, spillDirectory, journal);
+	}
+
+	public SessionManagerConfig withScheduler(SearchScheduler scheduler) {
+		return new SessionManagerConfig(ponderer, scheduler, idleTimeout, maxSessions, spillDirectory, journal);
+	}
+
+	public SessionManagerConfig withIdleTimeout(Duration idleTimeout) {
+		return new SessionManagerConfig(ponderer, scheduler, idleTimeout, maxSessions, spillDirectory, journal);
+	}
+
+	public SessionManagerConfig withMaxSessions(int maxSessions) {
+		return new SessionManagerConfig(ponderer, scheduler, idleTimeout, maxSessions, spillDirectory, journal);
+	}
+
+	public SessionManagerConfig withSpillDirectory(Path spillDirectory) {
+		return new SessionManagerConfig(ponderer, scheduler, idleTimeout, maxSessions, spillDirectory, journal);
+	}
+
+	public SessionManagerConfig withJournal(MoveJournal journal) {
+		return new SessionManagerConfig(ponderer, scheduler, idleTimeout, maxSessions, spillDirectory, journal);
+	}
+}
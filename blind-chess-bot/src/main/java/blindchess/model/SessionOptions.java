@@ -0,0 +1,39 @@
+package blindchess.model;
+
+
+import blindchess.bot.SearchLimits;
+
+
+/**
+ * How a {@link BlindChessSession} is set up beyond who plays it. Start from {@link #DEFAULTS} and change what
+ * differs.
+ *
+ * @param botLimits                  search budget for each bot move, or null to use the bot's own default
+ * @param startingFen                position to start from in FEN, or null for the standard starting position
+ * @param ponderer                   thinks about the bot's answers while the player is to move, or null to only
+ *                                   search once the player has moved
+ * @param leaveOpeningBotMovePending whether a first move by the bot is left pending for
+ *                                   {@link BlindChessSession#playPendingBotTurn()}, so the caller decides which
+ *                                   thread searches it, instead of being played before the session is returned
+ */
+public record SessionOptions(SearchLimits botLimits, String startingFen, Ponderer ponderer,
+                             boolean leaveOpeningBotMovePending)
+{
+	public static final SessionOptions DEFAULTS = new SessionOptions(null, null, null, false);
+
+	public SessionOptions withBotLimits(SearchLimits botLimits) {
+		return new SessionOptions(botLimits, startingFen, ponderer, leaveOpeningBotMovePending);
+	}
+
+	public SessionOptions withStartingFen(String startingFen) {
+		return new SessionOptions(botLimits, startingFen, ponderer, leaveOpeningBotMovePending);
+	}
+
+	public SessionOptions withPonderer(Ponderer ponderer) {
+		return new SessionOptions(botLimits, startingFen, ponderer, leaveOpeningBotMovePending);
+	}
+
+	public SessionOptions withLeaveOpeningBotMovePending(boolean leaveOpeningBotMovePending) {
+		return new SessionOptions(botLimits, startingFen, ponderer, leaveOpeningBotMovePending);
+	}
+}
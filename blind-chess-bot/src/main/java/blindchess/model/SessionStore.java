@@ -0,0 +1,375 @@
+package blindchess.model;
+
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Keeps the sessions in memory within bounds.
+ * <p>
+ * A session idle for longer than the idle timeout leaves memory, and when there are more sessions than the cap,
+ * the least recently used leave until there are not. Finished games go first, and are simply forgotten. A game
+ * still in progress is written to the spill directory, if there is one, and read back the next time it is asked
+ * for; without a spill directory it is forgotten too. A session whose bot move is pending never leaves, since
+ * its turn is still running. A background reaper enforces both limits; the cap is also enforced whenever a
+ * session is added.
+ */
+public final class SessionStore implements AutoCloseable
+{
+	private static final Gson GSON = new Gson();
+	private static final String SPILL_SUFFIX = ".json";
+	// The reaper runs this many times per idle timeout, and at least this often
+	private static final int REAPS_PER_TIMEOUT = 4;
+	private static final Duration MAX_REAP_INTERVAL = Duration.ofMinutes(1);
+	private static final Duration MIN_REAP_INTERVAL = Duration.ofSeconds(1);
+
+	private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+	// Held while a session is read back, so other sessions are read back alongside it
+	private final Map<String, Object> reloadLocks = new ConcurrentHashMap<>();
+	private final long idleTimeoutMillis;
+	private final int maxSessions;
+	private final Path spillDirectory;
+	private final Function<BlindChessSession.Snapshot, BlindChessSession> restorer;
+	private final Function<String, BlindChessSession> recoverer;
+	private final LongSupplier clock;
+	private final ScheduledExecutorService reaper;
+	private final AtomicLong finishedEvicted = new AtomicLong();
+	private final AtomicLong spilled = new AtomicLong();
+	private final AtomicLong reloaded = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * A store without limits, which keeps every session in memory.
+	 */
+	public SessionStore() {
+		this(null, Integer.MAX_VALUE, null, null);
+	}
+
+	/**
+	 * @param idleTimeout    how long a session may go unused before it leaves memory, or null for no limit
+	 * @param maxSessions    how many sessions may be in memory at once
+	 * @param spillDirectory where games in progress are written when they leave memory, or null to forget them
+	 * @param restorer       rebuilds a session from what was written to the spill directory; only needed with one
+	 */
+	public SessionStore(Duration idleTimeout, int maxSessions, Path spillDirectory,
+	                    Function<BlindChessSession.Snapshot, BlindChessSession> restorer) {
+		this(idleTimeout, maxSessions, spillDirectory, restorer, null);
+	}
+
+	/**
+	 * @param recoverer brings back sessions in neither memory nor the spill directory, such as from the
+	 *                  {@link MoveJournal}, returning null for sessions it does not know; or null
+	 */
+	public SessionStore(Duration idleTimeout, int maxSessions, Path spillDirectory,
+	                    Function<BlindChessSession.Snapshot, BlindChessSession> restorer,
+	                    Function<String, BlindChessSession> recoverer) {
+		this(idleTimeout, maxSessions, spillDirectory, restorer, recoverer, System::currentTimeMillis, true);
+	}
+
+	/**
+	 * @param clock  current time in milliseconds
+	 * @param reaped whether to start the background reaper; without it only {@link #reap()} enforces the timeout
+	 */
+	SessionStore(Duration idleTimeout, int maxSessions, Path spillDirectory,
+	             Function<BlindChessSession.Snapshot, BlindChessSession> restorer,
+	             Function<String, BlindChessSession> recoverer, LongSupplier clock, boolean reaped) {
+		if (maxSessions < 1) {
+			throw new IllegalArgumentException("A session store must hold at least one session.");
+		}
+		if (spillDirectory != null && restorer == null) {
+			throw new IllegalArgumentException("Spilled sessions need a way to be restored.");
+		}
+		this.idleTimeoutMillis = idleTimeout == null ? 0 : idleTimeout.toMillis();
+		this.maxSessions = maxSessions;
+		this.spillDirectory = spillDirectory;
+		this.restorer = restorer;
+		this.recoverer = recoverer;
+		this.clock = clock;
+		if (spillDirectory != null) {
+			try {
+				Files.createDirectories(spillDirectory);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot create the session spill directory " + spillDirectory, e);
+			}
+		}
+
+		if (reaped && idleTimeout != null) {
+			Duration interval = idleTimeout.dividedBy(REAPS_PER_TIMEOUT);
+			interval = interval.compareTo(MAX_REAP_INTERVAL) > 0 ? MAX_REAP_INTERVAL
+					: interval.compareTo(MIN_REAP_INTERVAL) < 0 ? MIN_REAP_INTERVAL : interval;
+			reaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "session-reaper");
+				thread.setDaemon(true);
+				return thread;
+			});
+			reaper.scheduleWithFixedDelay(this::reap, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+		} else {
+			reaper = null;
+		}
+	}
+
+	public void add(BlindChessSession session) {
+		Entry entry = new Entry(session, clock.getAsLong());
+		sessions.put(session.getSessionId(), entry);
+		if (sessions.size() > maxSessions) {
+			evictOverCap(entry);
+		}
+	}
+
+	/**
+	 * Gets a session and marks it as just used, reading it back from the spill directory if it was moved there,
+	 * or else from the recoverer.
+	 *
+	 * @throws IllegalArgumentException if there is no such session
+	 */
+	public BlindChessSession get(String sessionId) {
+		while (true) {
+			Entry entry = sessions.get(sessionId);
+			if (entry == null) {
+				entry = reload(sessionId);
+			}
+			// An entry evicted since it was looked up is no longer in the map, so the next pass reloads it
+			synchronized (entry) {
+				if (!entry.evicted) {
+					entry.lastUsedMillis = clock.getAsLong();
+					return entry.session;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Moves idle sessions out of memory, then least recently used ones while over the cap. Run by the reaper.
+	 */
+	public void reap() {
+		try {
+			if (idleTimeoutMillis > 0) {
+				long idleBefore = clock.getAsLong() - idleTimeoutMillis;
+				for (Entry entry : List.copyOf(sessions.values())) {
+					long lastUsedMillis = entry.lastUsedMillis;
+					if (lastUsedMillis < idleBefore) {
+						evict(entry, lastUsedMillis);
+					}
+				}
+			}
+			evictOverCap(null);
+		} catch (RuntimeException e) {
+			// An exception would cancel the reaper for good; whatever failed to leave is tried again next time
+		}
+	}
+
+	public Metrics metrics() {
+		return new Metrics(sessions.size(), finishedEvicted.get(), spilled.get(), reloaded.get(), dropped.get());
+	}
+
+	/**
+	 * Stops the reaper. Sessions still in memory are not written out.
+	 */
+	@Override
+	public void close() {
+		if (reaper != null) {
+			reaper.shutdownNow();
+		}
+	}
+
+	/**
+	 * Finished games leave first, each group least recently used first.
+	 *
+	 * @param arriving the session whose arrival put the store over the cap, or null; it stays, even when it ties
+	 *                 with others on the clock, or whoever is asking for it would only read it back again
+	 */
+	private void evictOverCap(Entry arriving) {
+		int excess = sessions.size() - maxSessions;
+		if (excess <= 0) {
+			return;
+		}
+		// Sorted on values read once up front: sessions keep moving and being used during the sort
+		List<Candidate> candidates = new ArrayList<>();
+		for (Entry entry : sessions.values()) {
+			if (entry == arriving) {
+				continue;
+			}
+			candidates.add(new Candidate(entry, entry.session.getStatus() != SessionStatus.ACTIVE, entry.lastUsedMillis));
+		}
+		candidates.sort(Comparator.comparing(Candidate::finished).reversed()
+				.thenComparingLong(Candidate::lastUsedMillis));
+		for (Candidate candidate : candidates) {
+			if (excess <= 0) {
+				return;
+			}
+			if (evict(candidate.entry(), candidate.lastUsedMillis())) {
+				excess--;
+			}
+		}
+	}
+
+	/**
+	 * Holds the entry's lock throughout, so a concurrent {@link #get} either uses the session first, which keeps
+	 * it, or waits and then reloads it. A request that got the session before that still holds it, so the
+	 * session's own lock is held too from the snapshot to closing it: a move either makes it into the spilled
+	 * copy or is refused by the closed session, for the caller to repeat on the reloaded one.
+	 *
+	 * @param lastUsedMillis when the session was last used as the caller saw it; a session used since stays
+	 *
+	 * @return whether the session left memory; one whose bot move is pending stays
+	 */
+	private boolean evict(Entry entry, long lastUsedMillis) {
+		BlindChessSession session = entry.session;
+		synchronized (entry) {
+			if (entry.evicted || entry.lastUsedMillis != lastUsedMillis) {
+				return false;
+			}
+			synchronized (session) {
+				if (session.isBotPending()) {
+					return false;
+				}
+				boolean finished = session.getStatus() != SessionStatus.ACTIVE;
+				if (!finished && spillDirectory != null) {
+					try {
+						spill(session.snapshot());
+					} catch (IOException | IllegalStateException e) {
+						// Could not be written; it stays until the next attempt
+						return false;
+					}
+				}
+				if (!sessions.remove(session.getSessionId(), entry)) {
+					return false;
+				}
+				entry.evicted = true;
+				session.close();
+				(finished ? finishedEvicted : spillDirectory != null ? spilled : dropped).incrementAndGet();
+				return true;
+			}
+		}
+	}
+
+	// Written to a temporary file and renamed, so a reload never sees half a session
+	private void spill(BlindChessSession.Snapshot snapshot) throws IOException {
+		Path file = spillFile(snapshot.sessionId());
+		Path temporary = Files.createTempFile(spillDirectory, snapshot.sessionId(), ".tmp");
+		try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(temporary, StandardCharsets.UTF_8))) {
+			GSON.toJson(snapshot, BlindChessSession.Snapshot.class, writer);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private Entry reload(String sessionId) {
+		Path file = spillDirectory == null ? null : spillFile(sessionId);
+		if (recoverer == null && (file == null || !Files.isRegularFile(file))) {
+			throw new IllegalArgumentException("Session not found: " + sessionId);
+		}
+		Entry entry;
+		// Two requests for the same session restore it once
+		Object lock = reloadLocks.computeIfAbsent(sessionId, id -> new Object());
+		try {
+			synchronized (lock) {
+				entry = sessions.get(sessionId);
+				if (entry != null) {
+					return entry;
+				}
+				BlindChessSession session = file != null && Files.isRegularFile(file) ? readSpilled(sessionId, file) : null;
+				if (session == null && recoverer != null) {
+					session = recoverer.apply(sessionId);
+				}
+				if (session == null) {
+					throw new IllegalArgumentException("Session not found: " + sessionId);
+				}
+				entry = new Entry(session, clock.getAsLong());
+				sessions.put(sessionId, entry);
+				reloaded.incrementAndGet();
+			}
+		} finally {
+			// A request arriving after this finds the session in the map, or reads it back under a new lock
+			reloadLocks.remove(sessionId, lock);
+		}
+		if (sessions.size() > maxSessions) {
+			evictOverCap(entry);
+		}
+		return entry;
+	}
+
+	private BlindChessSession readSpilled(String sessionId, Path file) {
+		BlindChessSession.Snapshot snapshot;
+		try (JsonReader reader = new JsonReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+			snapshot = GSON.fromJson(reader, BlindChessSession.Snapshot.class);
+		} catch (IOException | JsonParseException e) {
+			throw new IllegalStateException("Cannot restore session " + sessionId, e);
+		}
+		BlindChessSession session = restorer.apply(snapshot);
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// A stale copy is harmless: the session in memory wins and overwrites it when spilled again
+		}
+		return session;
+	}
+
+	/**
+	 * Session ids are UUIDs from the session manager, but they arrive in request paths, so anything else is
+	 * refused before it can name a file.
+	 */
+	private Path spillFile(String sessionId) {
+		return sessionFile(spillDirectory, sessionId, SPILL_SUFFIX);
+	}
+
+	static Path sessionFile(Path directory, String sessionId, String suffix) {
+		if (!sessionId.matches("[0-9A-Za-z-]+")) {
+			throw new IllegalArgumentException("Session not found: " + sessionId);
+		}
+		return directory.resolve(sessionId + suffix);
+	}
+
+	/**
+	 * @param sessions        sessions in memory now
+	 * @param finishedEvicted finished games forgotten to stay within the limits
+	 * @param spilled         games in progress written to the spill directory
+	 * @param reloaded        games read back from the spill directory or the move journal
+	 * @param dropped         games in progress that left memory without a spill directory; only the move journal,
+	 *                        if there is one, can bring them back
+	 */
+	public record Metrics(int sessions, long finishedEvicted, long spilled, long reloaded, long dropped)
+	{
+	}
+
+	private record Candidate(Entry entry, boolean finished, long lastUsedMillis)
+	{
+	}
+
+	private static final class Entry
+	{
+		private final BlindChessSession session;
+		private volatile long lastUsedMillis;
+		// Set under the entry's lock once the session has left memory
+		private boolean evicted;
+
+		private Entry(BlindChessSession session, long lastUsedMillis) {
+			this.session = session;
+			this.lastUsedMillis = lastUsedMillis;
+		}
+	}
+}
@@ -5,7 +5,6 @@ import chess.gameplay.ChessGame;
 import chess.gameplay.ChessGameCopier;
 import chess.gameplay.ChessGameImpl;
 import chess.gameplay.ChessMove;
-import chess.gameplay.InvalidMoveException;
 import chess.pieces.ChessPiece;
 
 import java.util.List;
@@ -28,7 +27,7 @@ public final class ChessNotation
 
 		List<ChessMove> legalMoves = ChessRules.legalMoves(game, game.getTeamTurn());
 		for (ChessMove move : legalMoves) {
-			if (normalizeNotation(toSan(game, move)).equals(normalizedInput)) {
+			if (normalizeNotation(toSan(game, move, legalMoves)).equals(normalizedInput)) {
 				return move;
 			}
 		}
@@ -48,6 +47,11 @@ public final class ChessNotation
 		if (movingPiece == null) {
 			throw new IllegalArgumentException("No piece found at the starting position.");
 		}
+		return toSan(game, move, ChessRules.legalMoves(game, movingPiece.teamColor()));
+	}
+
+	private static String toSan(ChessGame game, ChessMove move, List<ChessMove> legalMoves) {
+		ChessPiece movingPiece = game.getBoard().getPiece(move.getStartPosition());
 
 		if (movingPiece.getPieceType() == ChessPiece.PieceType.KING) {
 			int fileDelta = move.getEndPosition().getCol() - move.getStartPosition().getCol();
@@ -62,7 +66,7 @@ public final class ChessNotation
 
 		if (movingPiece.getPieceType() != ChessPiece.PieceType.PAWN) {
 			san.append(pieceLetter(movingPiece.getPieceType()));
-			san.append(disambiguation(game, move, movingPiece));
+			san.append(disambiguation(game, move, movingPiece, legalMoves));
 		} else if (capture) {
 			san.append(fileChar(move.getStartPosition().getCol()));
 		}
@@ -100,8 +104,7 @@ public final class ChessNotation
 				.toUpperCase();
 	}
 
-	private static String disambiguation(ChessGame game, ChessMove move, ChessPiece movingPiece) {
-		List<ChessMove> legalMoves = ChessRules.legalMoves(game, movingPiece.teamColor());
+	private static String disambiguation(ChessGame game, ChessMove move, ChessPiece movingPiece, List<ChessMove> legalMoves) {
 		List<ChessMove> conflicts = legalMoves.stream()
 				.filter(candidate -> !candidate.getStartPosition().equals(move.getStartPosition()))
 				.filter(candidate -> candidate.getEndPosition().equals(move.getEndPosition()))
@@ -133,25 +136,20 @@ public final class ChessNotation
 	}
 
 	private static String checkSuffix(ChessGame game, ChessMove move, ChessGame.TeamColor movingTeam) {
-		ChessGameImpl simulation = ChessGameCopier.copy(game);
-		simulation.setTeamTurn(movingTeam);
-		try {
-			simulation.makeMove(ChessGameCopier.copyMove(move));
-		} catch (InvalidMoveException e) {
-			throw new IllegalStateException("Unable to render SAN for move.", e);
-		}
-
+		ChessGameImpl simulation = (game instanceof ChessGameImpl impl) ? impl : ChessGameCopier.copy(game);
 		ChessGame.TeamColor opposingTeam = (movingTeam == ChessGame.TeamColor.WHITE)
 				? ChessGame.TeamColor.BLACK
 				: ChessGame.TeamColor.WHITE;
 
-		if (simulation.isInCheckmate(opposingTeam)) {
-			return "#";
-		}
-		if (simulation.isInCheck(opposingTeam)) {
-			return "+";
+		simulation.makeMoveUnchecked(move);
+		try {
+			if (!simulation.isInCheck(opposingTeam)) {
+				return "";
+			}
+			return ChessRules.legalMoves(simulation, opposingTeam).isEmpty() ? "#" : "+";
+		} finally {
+			simulation.unmakeMove();
 		}
-		return "";
 	}
 
 	private static char pieceLetter(ChessPiece.PieceType pieceType) {
@@ -5,11 +5,8 @@ import chess.gameplay.ChessGame;
 import chess.gameplay.ChessGameCopier;
 import chess.gameplay.ChessGameImpl;
 import chess.gameplay.ChessMove;
-import chess.gameplay.ChessPosition;
-import chess.gameplay.ChessPositionImpl;
 import chess.pieces.ChessPiece;
 
-import java.util.ArrayList;
 import java.util.List;
 
 
@@ -19,17 +16,10 @@ public final class ChessRules
 	}
 
 	public static List<ChessMove> legalMoves(ChessGame game, ChessGame.TeamColor teamColor) {
-		ChessGameImpl simulation = ChessGameCopier.copy(game);
-		simulation.setTeamTurn(teamColor);
-
-		List<ChessMove> legalMoves = new ArrayList<>();
-		for (ChessPosition position : ChessPositionImpl.getAllPositions()) {
-			ChessPiece piece = simulation.getBoard().getPiece(position);
-			if (piece != null && piece.teamColor() == teamColor) {
-				legalMoves.addAll(simulation.validMoves(position));
-			}
+		if (game instanceof ChessGameImpl impl) {
+			return impl.allValidMoves(teamColor);
 		}
-		return legalMoves;
+		return ChessGameCopier.copy(game).allValidMoves(teamColor);
 	}
 
 	public static boolean isCapture(ChessGame game, ChessMove move) {
@@ -0,0 +1,212 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+
+
+/**
+ * Attack sets as 64-bit masks, using the square numbering from {@link Bitboards}.
+ * <p>
+ * Every mask is read from tables filled once when the class loads. Leaper attacks are a single lookup per
+ * square. Sliding attacks use the classical ray approach: each of the eight directions has a precomputed ray
+ * per square, and the first blocker on a ray is found with one bit scan (lowest set bit for rays towards higher
+ * squares, highest for the others), so the squares behind it can be cut off with a second lookup. This needs
+ * neither magic multipliers nor PEXT.
+ */
+public final class Attacks
+{
+	private static final int[][] KNIGHT_STEPS = {
+			{2, 1}, {1, 2}, {-2, 1}, {-1, 2},
+			{2, -1}, {1, -2}, {-2, -1}, {-1, -2}
+	};
+	private static final int[][] KING_STEPS = {
+			{1, 0}, {1, 1}, {0, 1}, {-1, 1},
+			{-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+	};
+
+	// Ray directions as row and column steps; the first four run towards higher squares
+	private static final int NORTH = 0;
+	private static final int NORTH_EAST = 1;
+	private static final int EAST = 2;
+	private static final int NORTH_WEST = 3;
+	private static final int SOUTH = 4;
+	private static final int SOUTH_WEST = 5;
+	private static final int WEST = 6;
+	private static final int SOUTH_EAST = 7;
+	private static final int[][] DIRECTIONS = {
+			{1, 0}, {1, 1}, {0, 1}, {1, -1},
+			{-1, 0}, {-1, -1}, {0, -1}, {-1, 1}
+	};
+
+	private static final long[] KNIGHT = new long[Bitboards.SQUARE_COUNT];
+	private static final long[] KING = new long[Bitboards.SQUARE_COUNT];
+	// Indexed by Bitboards.colorIndex, then square
+	private static final long[][] PAWN = new long[2][Bitboards.SQUARE_COUNT];
+	// Indexed by direction, then square; the square itself is not on its rays
+	private static final long[][] RAYS = new long[DIRECTIONS.length][Bitboards.SQUARE_COUNT];
+	// Indexed by both squares
+	private static final long[][] BETWEEN = new long[Bitboards.SQUARE_COUNT][Bitboards.SQUARE_COUNT];
+	private static final long[][] LINE = new long[Bitboards.SQUARE_COUNT][Bitboards.SQUARE_COUNT];
+
+	static {
+		for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+			KNIGHT[square] = steps(square, KNIGHT_STEPS);
+			KING[square] = steps(square, KING_STEPS);
+			PAWN[0][square] = step(square, 1, -1) | step(square, 1, 1);
+			PAWN[1][square] = step(square, -1, -1) | step(square, -1, 1);
+			for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+				RAYS[direction][square] = walk(square, DIRECTIONS[direction][0], DIRECTIONS[direction][1]);
+			}
+		}
+		for (int from = 0; from < Bitboards.SQUARE_COUNT; from++) {
+			for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+				long ray = RAYS[direction][from];
+				long opposite = RAYS[(direction + 4) % DIRECTIONS.length][from];
+				for (long targets = ray; targets != 0; targets &= targets - 1) {
+					int to = Long.numberOfTrailingZeros(targets);
+					BETWEEN[from][to] = ray & ~RAYS[direction][to] & ~Bitboards.bit(to);
+					LINE[from][to] = ray | opposite | Bitboards.bit(from);
+				}
+			}
+		}
+	}
+
+	private Attacks() {
+	}
+
+	public static long knight(int square) {
+		return KNIGHT[square];
+	}
+
+	public static long king(int square) {
+		return KING[square];
+	}
+
+	/**
+	 * @return the squares a pawn of the given team on the given square attacks diagonally
+	 */
+	public static long pawn(ChessGame.TeamColor color, int square) {
+		return PAWN[Bitboards.colorIndex(color)][square];
+	}
+
+	public static long rook(int square, long occupancy) {
+		return positiveRay(NORTH, square, occupancy) | positiveRay(EAST, square, occupancy)
+				| negativeRay(SOUTH, square, occupancy) | negativeRay(WEST, square, occupancy);
+	}
+
+	public static long bishop(int square, long occupancy) {
+		return positiveRay(NORTH_EAST, square, occupancy) | positiveRay(NORTH_WEST, square, occupancy)
+				| negativeRay(SOUTH_WEST, square, occupancy) | negativeRay(SOUTH_EAST, square, occupancy);
+	}
+
+	public static long queen(int square, long occupancy) {
+		return rook(square, occupancy) | bishop(square, occupancy);
+	}
+
+	/**
+	 * @return the squares strictly between two squares on a shared rank, file or diagonal, or 0 if they are not aligned
+	 */
+	public static long between(int from, int to) {
+		return BETWEEN[from][to];
+	}
+
+	/**
+	 * @return the full rank, file or diagonal through two squares, including both, or 0 if they are not aligned
+	 */
+	public static long line(int a, int b) {
+		return LINE[a][b];
+	}
+
+	/**
+	 * Finds every piece of a team that attacks a square.
+	 *
+	 * @param board     the board holding the attacking pieces
+	 * @param square    the attacked square
+	 * @param byColor   the attacking team
+	 * @param occupancy the blockers to use for sliding pieces
+	 *
+	 * @return mask of the attacking pieces
+	 */
+	public static long attackersTo(ChessBoardImpl board, int square, ChessGame.TeamColor byColor, long occupancy) {
+		ChessGame.TeamColor defender = Bitboards.opposite(byColor);
+		long queens = board.pieces(byColor, ChessPiece.PieceType.QUEEN);
+		return (pawn(defender, square) & board.pieces(byColor, ChessPiece.PieceType.PAWN))
+				| (knight(square) & board.pieces(byColor, ChessPiece.PieceType.KNIGHT))
+				| (king(square) & board.pieces(byColor, ChessPiece.PieceType.KING))
+				| (rook(square, occupancy) & (board.pieces(byColor, ChessPiece.PieceType.ROOK) | queens))
+				| (bishop(square, occupancy) & (board.pieces(byColor, ChessPiece.PieceType.BISHOP) | queens));
+	}
+
+	/**
+	 * Checks whether any piece of a team attacks a square, with the board's own occupancy blocking sliders.
+	 */
+	public static boolean isSquareAttacked(ChessBoardImpl board, int square, ChessGame.TeamColor byColor) {
+		return isSquareAttacked(board, square, byColor, board.occupancy());
+	}
+
+	/**
+	 * Checks whether any piece of a team attacks a square. Cheaper than {@link #attackersTo} when only the answer
+	 * matters: leapers are tried first, and a slider's rays are only traced when one stands on an empty-board line
+	 * through the square.
+	 *
+	 * @param occupancy the blockers to use for sliding pieces
+	 */
+	public static boolean isSquareAttacked(ChessBoardImpl board, int square, ChessGame.TeamColor byColor, long occupancy) {
+		if ((PAWN[Bitboards.colorIndex(Bitboards.opposite(byColor))][square] & board.pieces(byColor, ChessPiece.PieceType.PAWN)) != 0
+				|| (KNIGHT[square] & board.pieces(byColor, ChessPiece.PieceType.KNIGHT)) != 0
+				|| (KING[square] & board.pieces(byColor, ChessPiece.PieceType.KING)) != 0) {
+			return true;
+		}
+		long queens = board.pieces(byColor, ChessPiece.PieceType.QUEEN);
+		long rooks = board.pieces(byColor, ChessPiece.PieceType.ROOK) | queens;
+		long bishops = board.pieces(byColor, ChessPiece.PieceType.BISHOP) | queens;
+		long orthogonal = RAYS[NORTH][square] | RAYS[EAST][square] | RAYS[SOUTH][square] | RAYS[WEST][square];
+		long diagonal = RAYS[NORTH_EAST][square] | RAYS[NORTH_WEST][square] | RAYS[SOUTH_WEST][square] | RAYS[SOUTH_EAST][square];
+		return ((orthogonal & rooks) != 0 && (rook(square, occupancy) & rooks) != 0)
+				|| ((diagonal & bishops) != 0 && (bishop(square, occupancy) & bishops) != 0);
+	}
+
+	// Ray towards higher squares, cut off behind its lowest blocker
+	private static long positiveRay(int direction, int square, long occupancy) {
+		long ray = RAYS[direction][square];
+		long blockers = ray & occupancy;
+		return blockers == 0 ? ray : ray ^ RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+	}
+
+	// Ray towards lower squares, cut off behind its highest blocker
+	private static long negativeRay(int direction, int square, long occupancy) {
+		long ray = RAYS[direction][square];
+		long blockers = ray & occupancy;
+		return blockers == 0 ? ray : ray ^ RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+	}
+
+	private static long steps(int square, int[][] offsets) {
+		long mask = 0;
+		for (int[] offset : offsets) {
+			mask |= step(square, offset[0], offset[1]);
+		}
+		return mask;
+	}
+
+	private static long step(int square, int rowDelta, int colDelta) {
+		int row = Bitboards.row(square) + rowDelta;
+		int col = Bitboards.col(square) + colDelta;
+		if (row < 1 || row > 8 || col < 1 || col > 8) {
+			return 0;
+		}
+		return Bitboards.bit(Bitboards.square(row, col));
+	}
+
+	// Every square from a square to the edge of the board in one direction, for filling the ray table
+	private static long walk(int square, int rowDelta, int colDelta) {
+		long mask = 0;
+		int row = Bitboards.row(square) + rowDelta;
+		int col = Bitboards.col(square) + colDelta;
+		while (row >= 1 && row <= 8 && col >= 1 && col <= 8) {
+			mask |= Bitboards.bit(Bitboards.square(row, col));
+			row += rowDelta;
+			col += colDelta;
+		}
+		return mask;
+	}
+}
@@ -0,0 +1,68 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+
+
+/**
+ * Square and mask helpers shared by the bitboard-backed board and the rules code.
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so square = (row - 1) * 8 + (col - 1).
+ */
+public final class Bitboards
+{
+	public static final int SQUARE_COUNT = 64;
+	public static final int PIECE_TYPE_COUNT = ChessPiece.PieceType.values().length;
+
+	private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+	private Bitboards() {
+	}
+
+	public static int square(int row, int col) {
+		return ((row - 1) << 3) | (col - 1);
+	}
+
+	public static int square(ChessPosition position) {
+		return square(position.getRow(), position.getCol());
+	}
+
+	public static int row(int square) {
+		return (square >>> 3) + 1;
+	}
+
+	public static int col(int square) {
+		return (square & 7) + 1;
+	}
+
+	public static ChessPosition position(int square) {
+		return ChessPositionImpl.of(row(square), col(square));
+	}
+
+	public static long bit(int square) {
+		return 1L << square;
+	}
+
+	public static int colorIndex(ChessGame.TeamColor color) {
+		return color == ChessGame.TeamColor.WHITE ? 0 : 1;
+	}
+
+	public static ChessGame.TeamColor color(int colorIndex) {
+		return colorIndex == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+	}
+
+	public static ChessGame.TeamColor opposite(ChessGame.TeamColor color) {
+		return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+	}
+
+	/**
+	 * @return the index of the mask holding pieces of the given team and type
+	 */
+	public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+		return colorIndex(color) * PIECE_TYPE_COUNT + type.ordinal();
+	}
+
+	public static ChessPiece.PieceType pieceType(int typeIndex) {
+		return PIECE_TYPES[typeIndex];
+	}
+}
@@ -3,104 +3,207 @@ package chess.gameplay;
 
 import chess.pieces.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
 
+/**
+ * Bitboard-backed chessboard.
+ * <p>
+ * Piece objects are kept in a 64-entry array indexed by square so {@link #getPiece} is a plain array read,
+ * and one 64-bit mask per team and piece type lets the rules code iterate pieces without scanning every square.
+ */
 public class ChessBoardImpl implements ChessBoard
 {
-	
-	// Using a HashMap to store the position and corresponding piece
-	private final Map<ChessPosition, ChessPiece> board;
-	
-	// To keep track of the last move
+	// Castling rights bits, as returned by castlingRights()
+	public static final int WHITE_KING_SIDE = 1;
+	public static final int WHITE_QUEEN_SIDE = 2;
+	public static final int BLACK_KING_SIDE = 4;
+	public static final int BLACK_QUEEN_SIDE = 8;
+
+	// Piece objects indexed by square (see Bitboards.square)
+	private final ChessPiece[] squares;
+
+	// One mask per team and piece type, indexed by Bitboards.pieceIndex
+	private final long[] pieceMasks;
+
+	// Occupancy per team, indexed by Bitboards.colorIndex
+	private final long[] teamMasks;
+
+	// Zobrist hash of the piece placement, updated as pieces are added and removed
+	private long pieceKey;
+
+	// Running PieceSquareTables sums and game phase, updated alongside the piece key
+	private int middlegameScore;
+	private int endgameScore;
+	private int phase;
+
+	// To keep track of the last move, as a PackedMove; the ChessMove form is only built when asked for
+	private int lastMovePacked = PackedMove.NONE;
 	private ChessMove lastMove;
-	
+
 	// For manual/full board setup and testing. Set to true unless full-board setup with resetBoard()
 	private boolean testingMode;
-	
+
 	public ChessBoardImpl() {
-		board = new HashMap<>();
+		squares = new ChessPiece[Bitboards.SQUARE_COUNT];
+		pieceMasks = new long[2 * Bitboards.PIECE_TYPE_COUNT];
+		teamMasks = new long[2];
 		testingMode = true;
 	}
-	
+
+	/**
+	 * Builds a bitboard copy of any board implementation. Piece objects are shared, not cloned.
+	 *
+	 * @param source the board to convert
+	 *
+	 * @return a board holding the same pieces, last move and testing mode
+	 */
+	public static ChessBoardImpl copyOf(ChessBoard source) {
+		ChessBoardImpl copy = new ChessBoardImpl();
+		for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+			ChessPiece piece = source.getPiece(Bitboards.position(square));
+			if (piece != null) {
+				copy.putPiece(square, piece);
+			}
+		}
+		if (source instanceof ChessBoardImpl bitboard) {
+			copy.setLastMove(bitboard.lastMovePacked);
+		} else {
+			copy.setLastMove(source.getLastMove());
+		}
+		copy.testingMode = source.getTestingMode();
+		return copy;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		for (int row = 1; row <= 8; row++) {
-			for (int col = 1; col <= 8; col++) {
-				ChessPiece piece = getPiece(new ChessPositionImpl(row, col));
-				sb.append((piece == null) ? "." : piece.getPieceType().toString().charAt(0));
-				sb.append(" ");
+		for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+			ChessPiece piece = squares[square];
+			sb.append((piece == null) ? "." : piece.getPieceType().toString().charAt(0));
+			sb.append(" ");
+			if ((square & 7) == 7) {
+				sb.append("\n");
 			}
-			sb.append("\n");
 		}
 		return sb.toString();
 	}
-	
+
 	@Override
 	public void resetBoard() {
-		board.clear();
+		clear();
 		testingMode = false;
-		
+
 		// Setting up the pawns
 		for (int col = 1; col <= 8; col++) {
-			board.put(new ChessPositionImpl(2, col), new PawnPiece(ChessGame.TeamColor.WHITE));
-			board.put(new ChessPositionImpl(7, col), new PawnPiece(ChessGame.TeamColor.BLACK));
+			putPiece(Bitboards.square(2, col), new PawnPiece(ChessGame.TeamColor.WHITE));
+			putPiece(Bitboards.square(7, col), new PawnPiece(ChessGame.TeamColor.BLACK));
 		}
-		
+
 		// Setting up the rooks
-		board.put(new ChessPositionImpl(1, 1), new RookPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(1, 8), new RookPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 1), new RookPiece(ChessGame.TeamColor.BLACK));
-		board.put(new ChessPositionImpl(8, 8), new RookPiece(ChessGame.TeamColor.BLACK));
-		
+		putPiece(Bitboards.square(1, 1), new RookPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(1, 8), new RookPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(8, 1), new RookPiece(ChessGame.TeamColor.BLACK));
+		putPiece(Bitboards.square(8, 8), new RookPiece(ChessGame.TeamColor.BLACK));
+
 		// Setting up the knights
-		board.put(new ChessPositionImpl(1, 2), new KnightPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(1, 7), new KnightPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 2), new KnightPiece(ChessGame.TeamColor.BLACK));
-		board.put(new ChessPositionImpl(8, 7), new KnightPiece(ChessGame.TeamColor.BLACK));
-		
+		putPiece(Bitboards.square(1, 2), new KnightPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(1, 7), new KnightPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(8, 2), new KnightPiece(ChessGame.TeamColor.BLACK));
+		putPiece(Bitboards.square(8, 7), new KnightPiece(ChessGame.TeamColor.BLACK));
+
 		// Setting up the bishops
-		board.put(new ChessPositionImpl(1, 3), new BishopPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(1, 6), new BishopPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 3), new BishopPiece(ChessGame.TeamColor.BLACK));
-		board.put(new ChessPositionImpl(8, 6), new BishopPiece(ChessGame.TeamColor.BLACK));
-		
+		putPiece(Bitboards.square(1, 3), new BishopPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(1, 6), new BishopPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(8, 3), new BishopPiece(ChessGame.TeamColor.BLACK));
+		putPiece(Bitboards.square(8, 6), new BishopPiece(ChessGame.TeamColor.BLACK));
+
 		// Setting up the queens
-		board.put(new ChessPositionImpl(1, 4), new QueenPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 4), new QueenPiece(ChessGame.TeamColor.BLACK));
-		
+		putPiece(Bitboards.square(1, 4), new QueenPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(8, 4), new QueenPiece(ChessGame.TeamColor.BLACK));
+
 		// Setting up the kings
-		board.put(new ChessPositionImpl(1, 5), new KingPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 5), new KingPiece(ChessGame.TeamColor.BLACK));
+		putPiece(Bitboards.square(1, 5), new KingPiece(ChessGame.TeamColor.WHITE));
+		putPiece(Bitboards.square(8, 5), new KingPiece(ChessGame.TeamColor.BLACK));
 	}
-	
+
 	@Override
 	public void addPiece(ChessPosition position, ChessPiece piece) {
-		board.put(position, piece);
+		addPiece(Bitboards.square(position), piece);
 	}
-	
+
 	@Override
 	public void removePiece(ChessPosition position) {
-		board.remove(position);
+		int square = Bitboards.square(position);
+		if (squares[square] != null) {
+			takePiece(square);
+		}
 	}
-	
+
 	@Override
 	public ChessPiece getPiece(ChessPosition position) {
-		return board.get(position);
+		return squares[Bitboards.square(position)];
+	}
+
+	/**
+	 * @return the piece on the given square index, or null if it is empty
+	 */
+	public ChessPiece getPiece(int square) {
+		return squares[square];
 	}
-	
+
+	/**
+	 * Puts a piece on the given square index, replacing whatever was there; a null piece empties the square.
+	 */
+	public void addPiece(int square, ChessPiece piece) {
+		if (squares[square] != null) {
+			takePiece(square);
+		}
+		if (piece != null) {
+			putPiece(square, piece);
+		}
+	}
+
+	/**
+	 * Empties the given square index.
+	 */
+	public void removePiece(int square) {
+		if (squares[square] != null) {
+			takePiece(square);
+		}
+	}
+
 	@Override
 	public ChessMove getLastMove() {
+		if (lastMove == null && lastMovePacked != PackedMove.NONE) {
+			lastMove = PackedMove.toChessMove(lastMovePacked);
+		}
 		return lastMove;
 	}
-	
+
 	@Override
 	public void setLastMove(ChessMove lastMove) {
 		this.lastMove = lastMove;
+		this.lastMovePacked = lastMove == null ? PackedMove.NONE : PackedMove.key(PackedMove.of(lastMove));
 	}
-	
+
+	/**
+	 * @return the last move as a {@link PackedMove} without flags, or {@link PackedMove#NONE}
+	 */
+	public int getLastMovePacked() {
+		return lastMovePacked;
+	}
+
+	/**
+	 * Sets the last move without building a {@link ChessMove} for it.
+	 *
+	 * @param lastMove a {@link PackedMove}, or {@link PackedMove#NONE}
+	 */
+	public void setLastMove(int lastMove) {
+		this.lastMove = null;
+		this.lastMovePacked = PackedMove.key(lastMove);
+	}
+
 	@Override
 	public boolean getTestingMode() {
 		return testingMode;
@@ -110,8 +213,140 @@ public class ChessBoardImpl implements ChessBoard
 	public void setTestingMode(boolean testingMode) {
 		this.testingMode = testingMode;
 	}
-	
-	public Map<ChessPosition, ChessPiece> getBoard() {
-		return board;
+
+	/**
+	 * @return mask of squares holding pieces of the given team and type
+	 */
+	public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+		return pieceMasks[Bitboards.pieceIndex(color, type)];
+	}
+
+	/**
+	 * @return mask of squares holding pieces of the given team
+	 */
+	public long occupancy(ChessGame.TeamColor color) {
+		return teamMasks[Bitboards.colorIndex(color)];
+	}
+
+	/**
+	 * @return mask of all occupied squares
+	 */
+	public long occupancy() {
+		return teamMasks[0] | teamMasks[1];
+	}
+
+	/**
+	 * @return the Zobrist hash of the piece placement alone, without turn, castling or en passant
+	 */
+	public long pieceKey() {
+		return pieceKey;
+	}
+
+	/**
+	 * @return the middlegame material and placement score, positive when White is ahead
+	 */
+	public int middlegameScore() {
+		return middlegameScore;
+	}
+
+	/**
+	 * @return the endgame material and placement score, positive when White is ahead
+	 */
+	public int endgameScore() {
+		return endgameScore;
+	}
+
+	/**
+	 * @return the game phase, from 0 with no pieces besides kings and pawns up to
+	 * {@link PieceSquareTables#MAX_PHASE} and beyond
+	 */
+	public int phase() {
+		return phase;
+	}
+
+	/**
+	 * Castling rights as implied by unmoved kings and rooks on their starting squares.
+	 *
+	 * @return a mask of the WHITE_KING_SIDE, WHITE_QUEEN_SIDE, BLACK_KING_SIDE and BLACK_QUEEN_SIDE bits
+	 */
+	public int castlingRights() {
+		int rights = 0;
+		if (isUnmoved(Bitboards.square(1, 5), ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+			if (isUnmoved(Bitboards.square(1, 8), ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+				rights |= WHITE_KING_SIDE;
+			}
+			if (isUnmoved(Bitboards.square(1, 1), ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+				rights |= WHITE_QUEEN_SIDE;
+			}
+		}
+		if (isUnmoved(Bitboards.square(8, 5), ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+			if (isUnmoved(Bitboards.square(8, 8), ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+				rights |= BLACK_KING_SIDE;
+			}
+			if (isUnmoved(Bitboards.square(8, 1), ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+				rights |= BLACK_QUEEN_SIDE;
+			}
+		}
+		return rights;
+	}
+
+	/**
+	 * Checks whether any piece of a team attacks a square, without generating anyone's moves.
+	 *
+	 * @param square  the square index to check
+	 * @param byColor the attacking team
+	 *
+	 * @return true if the square is attacked
+	 */
+	public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+		return Attacks.isSquareAttacked(this, square, byColor);
+	}
+
+	/**
+	 * @return the square index of the given team's king, or -1 if it has none
+	 */
+	public int kingSquare(ChessGame.TeamColor color) {
+		long kings = pieces(color, ChessPiece.PieceType.KING);
+		return kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+	}
+
+	private void clear() {
+		Arrays.fill(squares, null);
+		Arrays.fill(pieceMasks, 0L);
+		Arrays.fill(teamMasks, 0L);
+		pieceKey = 0;
+		middlegameScore = 0;
+		endgameScore = 0;
+		phase = 0;
+	}
+
+	private boolean isUnmoved(int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+		ChessPiece piece = squares[square];
+		return piece != null && piece.teamColor() == color && piece.getPieceType() == type && !piece.hasMoved();
+	}
+
+	private void putPiece(int square, ChessPiece piece) {
+		long bit = Bitboards.bit(square);
+		int pieceIndex = Bitboards.pieceIndex(piece.teamColor(), piece.getPieceType());
+		squares[square] = piece;
+		pieceMasks[pieceIndex] |= bit;
+		teamMasks[Bitboards.colorIndex(piece.teamColor())] |= bit;
+		pieceKey ^= Zobrist.piece(pieceIndex, square);
+		middlegameScore += PieceSquareTables.middlegame(pieceIndex, square);
+		endgameScore += PieceSquareTables.endgame(pieceIndex, square);
+		phase += PieceSquareTables.phaseWeight(pieceIndex);
+	}
+
+	private void takePiece(int square) {
+		ChessPiece piece = squares[square];
+		long bit = Bitboards.bit(square);
+		int pieceIndex = Bitboards.pieceIndex(piece.teamColor(), piece.getPieceType());
+		squares[square] = null;
+		pieceMasks[pieceIndex] &= ~bit;
+		teamMasks[Bitboards.colorIndex(piece.teamColor())] &= ~bit;
+		pieceKey ^= Zobrist.piece(pieceIndex, square);
+		middlegameScore -= PieceSquareTables.middlegame(pieceIndex, square);
+		endgameScore -= PieceSquareTables.endgame(pieceIndex, square);
+		phase -= PieceSquareTables.phaseWeight(pieceIndex);
 	}
 }
@@ -17,32 +17,33 @@ public final class ChessGameCopier
 		ChessBoardImpl copiedBoard = new ChessBoardImpl();
 		copiedBoard.setTestingMode(source.getBoard().getTestingMode());
 
-		for (ChessPosition position : ChessPositionImpl.getAllPositions()) {
-			ChessPiece piece = source.getBoard().getPiece(position);
-			if (piece == null) {
-				continue;
-			}
+		ChessBoard sourceBoard = source.getBoard();
+		ChessBoardImpl bitboard = (sourceBoard instanceof ChessBoardImpl impl) ? impl : ChessBoardImpl.copyOf(sourceBoard);
+		for (long occupied = bitboard.occupancy(); occupied != 0; occupied &= occupied - 1) {
+			int square = Long.numberOfTrailingZeros(occupied);
+			ChessPiece piece = bitboard.getPiece(square);
 
 			ChessPiece copiedPiece = new ChessPieceImpl(piece.teamColor(), piece.getPieceType());
 			if (piece.hasMoved()) {
 				copiedPiece.markAsMoved();
 			}
-			copiedBoard.addPiece(new ChessPositionImpl(position.getRow(), position.getCol()), copiedPiece);
+			copiedBoard.addPiece(Bitboards.position(square), copiedPiece);
 		}
 
-		ChessMove lastMove = source.getBoard().getLastMove();
-		if (lastMove != null) {
-			copiedBoard.setLastMove(copyMove(lastMove));
-		}
+		// The packed form is a plain int, so nothing is shared with the source and nothing needs copying
+		copiedBoard.setLastMove(bitboard.getLastMovePacked());
 
 		copy.setBoard(copiedBoard);
+		if (source instanceof ChessGameImpl impl) {
+			copy.setClocks(impl.getHalfmoveClock(), impl.getFullmoveNumber());
+		}
 		return copy;
 	}
 
 	public static ChessMove copyMove(ChessMove move) {
 		return new ChessMoveImpl(
-				new ChessPositionImpl(move.getStartPosition().getRow(), move.getStartPosition().getCol()),
-				new ChessPositionImpl(move.getEndPosition().getRow(), move.getEndPosition().getCol()),
+				ChessPositionImpl.of(move.getStartPosition().getRow(), move.getStartPosition().getCol()),
+				ChessPositionImpl.of(move.getEndPosition().getRow(), move.getEndPosition().getCol()),
 				move.getPromotionPiece()
 		);
 	}
@@ -4,16 +4,41 @@ package chess.gameplay;
 import chess.pieces.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
 
 public class ChessGameImpl implements ChessGame
 {
 	
-	private ChessBoard board;
+	private static final int INITIAL_UNDO_CAPACITY = 64;
+	private static final int UNDO_PIECE_HAD_MOVED = 1;
+	private static final int UNDO_ROOK_HAD_MOVED = 2;
+	private static final int UNDO_WHITE_TURN = 4;
+	private static final int UNDO_BLACK_TURN = 8;
+	
+	private ChessBoardImpl board;
 	private TeamColor currentTeamTurn;
 	
+	// Plies since the last capture or pawn move, and the move number starting at 1, as in FEN
+	private int halfmoveClock;
+	private int fullmoveNumber = 1;
+	
+	// Undo records for moves played through makeMoveUnchecked, one slot per ply in parallel arrays so playing
+	// and taking back moves allocates nothing once the stack has grown to the search depth
+	private int undoCount;
+	private int[] undoMoves = new int[INITIAL_UNDO_CAPACITY];
+	private int[] undoLastMoves = new int[INITIAL_UNDO_CAPACITY];
+	private int[] undoCapturedSquares = new int[INITIAL_UNDO_CAPACITY];
+	private int[] undoHalfmoveClocks = new int[INITIAL_UNDO_CAPACITY];
+	private int[] undoFullmoveNumbers = new int[INITIAL_UNDO_CAPACITY];
+	// UNDO_* bits: moved flags of the piece and castled rook, and whose turn it was
+	private int[] undoFlags = new int[INITIAL_UNDO_CAPACITY];
+	private ChessPiece[] undoMovedPieces = new ChessPiece[INITIAL_UNDO_CAPACITY];
+	private ChessPiece[] undoCapturedPieces = new ChessPiece[INITIAL_UNDO_CAPACITY];
+	private ChessPiece[] undoCastledRooks = new ChessPiece[INITIAL_UNDO_CAPACITY];
+	
 	public ChessGameImpl() {
 		board = new ChessBoardImpl();
 		currentTeamTurn = TeamColor.WHITE;
@@ -29,77 +54,6 @@ public class ChessGameImpl implements ChessGame
 		currentTeamTurn = team;
 	}
 	
-	/**
-	 * Checks if a given square is under attack by the enemy team.
-	 *
-	 * @param position  The position to check.
-	 * @param teamColor The current team color.
-	 *
-	 * @return true if the square is under attack, false otherwise.
-	 */
-	private boolean isSquareUnderAttack(ChessPosition position, TeamColor teamColor) {
-		// Determine enemy color
-		TeamColor enemyColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-		
-		// Iterate through all positions on the board
-		for (ChessPosition pos : ChessPositionImpl.getAllPositions()) {
-			ChessPiece piece = board.getPiece(pos);
-			
-			// Check if piece exists, belongs to the enemy and can attack the position
-			if (piece != null && piece.teamColor() == enemyColor) {
-				Collection<ChessMove> moves = piece.pieceMoves(board, pos);
-				
-				// If the piece is a king, limit its movement to 1 square
-				if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-					moves.removeIf(move -> Math.abs(move.getEndPosition().getCol() - move.getStartPosition().getCol()) > 1);
-				}
-				
-				// Check if any of the moves can attack the given position
-				if (moves.stream().anyMatch(move -> move.getEndPosition().equals(position))) {
-					return true;
-				}
-			}
-		}
-		return false;
-	}
-	
-	/**
-	 * Checks if a given team can castle.
-	 *
-	 * @param board    The current chess board.
-	 * @param position The king's position.
-	 * @param color    The king's color.
-	 * @param kingSide true if checking king-side castling, false if queen-side.
-	 *
-	 * @return true if castling is possible, false otherwise.
-	 */
-	private boolean canCastle(ChessBoard board, ChessPosition position, TeamColor color, boolean kingSide) {
-		// Fetch the king piece and validate its conditions for castling
-		ChessPiece king = board.getPiece(findCurrentKingsPosition(color));
-		if (king == null || king.getPieceType() != ChessPiece.PieceType.KING || king.hasMoved()) {
-			return false;
-		}
-		if (isSquareUnderAttack(position, color)) {
-			return false;
-		}
-		
-		// Fetch the rook piece and validate its conditions for castling
-		ChessPiece rook = board.getPiece(new ChessPositionImpl(position.getRow(), kingSide ? 8 : 1));
-		if (rook == null || rook.getPieceType() != ChessPiece.PieceType.ROOK || rook.hasMoved()) {
-			return false;
-		}
-		
-		// Ensure there are no pieces in between the king and rook and the path isn't under attack
-		int[] range = kingSide ? new int[] {1, 2} : new int[] {1, 2, 3};
-		for (int i : range) {
-			ChessPosition checkPos = new ChessPositionImpl(position.getRow(), position.getCol() + (kingSide ? i : -i));
-			if (board.getPiece(checkPos) != null || isSquareUnderAttack(checkPos, color)) {
-				return false;
-			}
-		}
-		return true;
-	}
-	
 	@Override
 	public Collection<ChessMove> validMoves(ChessPosition startPosition) {
 		ChessPiece piece = board.getPiece(startPosition);
@@ -109,157 +63,221 @@ public class ChessGameImpl implements ChessGame
 			return new ArrayList<>();
 		}
 		
-		Collection<ChessMove> moves = piece.pieceMoves(board, startPosition);
-		Collection<ChessMove> validMoves = moves.stream()
-		                                        .filter(move -> !doesMoveResultInCheck(move, piece))
-		                                        .collect(Collectors.toList());
-		
-		// Handle the En Passant logic for pawns
-		if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-			validMoves.addAll(checkEnPassantCaptures(startPosition).stream()
-			                                               .filter(move -> !doesMoveResultInCheck(move, piece))
-			                                               .toList());
-		}
-		
-		// Handle castling logic for the king
-		if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-			if (canCastle(board, startPosition, piece.teamColor(), true)) {
-				validMoves.add(new ChessMoveImpl(startPosition, new ChessPositionImpl(startPosition.getRow(), startPosition.getCol() + 2), null));
-			}
-			if (canCastle(board, startPosition, piece.teamColor(), false)) {
-				validMoves.add(new ChessMoveImpl(startPosition, new ChessPositionImpl(startPosition.getRow(), startPosition.getCol() - 2), null));
-			}
-		}
-		
-		return validMoves;
+		List<ChessMove> moves = new ArrayList<>();
+		MoveGenerator.generate(board, piece.teamColor(), Bitboards.bit(Bitboards.square(startPosition)), moves);
+		return moves;
 	}
 	
 	/**
-	 * Checks for valid En Passant captures from a given pawn position.
+	 * Gets the valid moves for every piece of a team, regardless of whose turn it is.
 	 *
-	 * @param startPosition The position of the pawn.
+	 * @param teamColor The team to generate moves for.
 	 *
-	 * @return A collection of valid En Passant captures.
+	 * @return All valid moves for the team.
 	 */
-	private Collection<ChessMove> checkEnPassantCaptures(ChessPosition startPosition) {
-		Collection<ChessMove> moves = new ArrayList<>();
-		ChessPiece currentPiece = board.getPiece(startPosition);
-		int direction = (currentPiece.teamColor() == TeamColor.WHITE) ? 1 : -1;
-		
-		// Ensure the pawn is in the right rank for En Passant
-		if ((currentPiece.teamColor() == TeamColor.WHITE && startPosition.getRow() == 5) ||
-				(currentPiece.teamColor() == TeamColor.BLACK && startPosition.getRow() == 4)) {
-			
-			// Check adjacent squares for enemy pawns that moved two squares in the last move
-			for (int colDirection : new int[] {-1, 1}) {
-				int column = startPosition.getCol() + colDirection;
-				if (column < 1 || column > 8) continue;
-				ChessPosition adjPos = new ChessPositionImpl(startPosition.getRow(), column);
-				ChessPiece adjPiece = board.getPiece(adjPos);
-				
-				// Validate if the adjacent piece is an enemy pawn that moved two squares
-				if (adjPiece != null && adjPiece.getPieceType() == ChessPiece.PieceType.PAWN && adjPiece.teamColor() != currentPiece.teamColor()) {
-					ChessMove lastMove = board.getLastMove();
-					if (lastMove != null && lastMove.getEndPosition().equals(adjPos) &&
-							Math.abs(lastMove.getStartPosition().getRow() - lastMove.getEndPosition().getRow()) == 2) {
-						ChessPosition endPosition = new ChessPositionImpl(startPosition.getRow() + direction, startPosition.getCol() + colDirection);
-						moves.add(new ChessMoveImpl(startPosition, endPosition, null));
-					}
-				}
-			}
-		}
-		
+	public List<ChessMove> allValidMoves(TeamColor teamColor) {
+		List<ChessMove> moves = new ArrayList<>();
+		MoveGenerator.generate(board, teamColor, ~0L, moves);
 		return moves;
 	}
 	
 	/**
-	 * Checks if executing a given move would result in a check for the current team.
-	 *
-	 * @param move  The move to check.
-	 * @param piece The piece being moved.
+	 * Plays a move without validating it and records how to take it back with {@link #unmakeMove()}.
+	 * The turn passes to the opponent of the moving piece, even in testing mode.
 	 *
-	 * @return true if the move results in check, false otherwise.
+	 * @param move A pseudo-legal move for the piece on its start position.
 	 */
-	private boolean doesMoveResultInCheck(ChessMove move, ChessPiece piece) {
-		ChessGameImpl simulation = ChessGameCopier.copy(this);
-		simulation.applyMoveUnchecked(ChessGameCopier.copyMove(move));
-		return simulation.isInCheck(piece.teamColor());
-	}
-
-	private void applyMoveUnchecked(ChessMove move) {
+	public void makeMoveUnchecked(ChessMove move) {
+		makeMoveUnchecked(PackedMove.of(move));
 		board.setLastMove(move);
+	}
+	
+	/**
+	 * Plays a {@link PackedMove} without validating it, as {@link #makeMoveUnchecked(ChessMove)} does, without
+	 * building any move or position objects.
+	 *
+	 * @param move A pseudo-legal move for the piece on its start square.
+	 */
+	public void makeMoveUnchecked(int move) {
 		executeMove(move);
+		undoCount++;
+		currentTeamTurn = Bitboards.opposite(undoMovedPieces[undoCount - 1].teamColor());
 	}
 	
 	/**
-	 * Finds the position of the current team's king on the board.
+	 * Passes the turn without moving, as null-move pruning in search does. Any en passant capture is lost, as it
+	 * would be after a real move. Taken back with {@link #unmakeMove()} like any other move.
 	 *
-	 * @param teamColor The color of the king to find.
+	 * @throws IllegalStateException if no team is to move.
+	 */
+	public void makeNullMove() {
+		if (currentTeamTurn == null) {
+			throw new IllegalStateException("No team to pass the move.");
+		}
+		if (undoCount == undoMoves.length) {
+			growUndoStack();
+		}
+		int slot = undoCount++;
+		undoMoves[slot] = PackedMove.NONE;
+		undoLastMoves[slot] = board.getLastMovePacked();
+		undoHalfmoveClocks[slot] = halfmoveClock;
+		undoFullmoveNumbers[slot] = fullmoveNumber;
+		undoFlags[slot] = currentTeamTurn == TeamColor.WHITE ? UNDO_WHITE_TURN : UNDO_BLACK_TURN;
+		
+		board.setLastMove(PackedMove.NONE);
+		halfmoveClock++;
+		if (currentTeamTurn == TeamColor.BLACK) {
+			fullmoveNumber++;
+		}
+		currentTeamTurn = Bitboards.opposite(currentTeamTurn);
+	}
+	
+	/**
+	 * Takes back the most recent move played through {@link #makeMoveUnchecked(ChessMove)} or
+	 * {@link #makeNullMove()}, restoring captured pieces, castled rooks, moved flags, the last move and the turn.
 	 *
-	 * @return The position of the king or null if not found.
+	 * @throws IllegalStateException if there is no move to take back.
 	 */
-	private ChessPosition findCurrentKingsPosition(TeamColor teamColor) {
-		// Iterate through all positions to find the king
-		for (ChessPosition position : ChessPositionImpl.getAllPositions()) {
-			ChessPiece piece = board.getPiece(position);
-			if (piece != null && piece.teamColor() == teamColor && piece.getPieceType() == ChessPiece.PieceType.KING) {
-				return position;
-			}
+	public void unmakeMove() {
+		if (undoCount == 0) {
+			throw new IllegalStateException("No move to unmake.");
+		}
+		int slot = --undoCount;
+		int move = undoMoves[slot];
+		int flags = undoFlags[slot];
+		if (move == PackedMove.NONE) {
+			restoreState(slot, flags);
+			return;
 		}
-		return null;
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		ChessPiece movedPiece = undoMovedPieces[slot];
+		
+		// Put the castled rook back in its corner
+		ChessPiece castledRook = undoCastledRooks[slot];
+		if (castledRook != null) {
+			boolean kingSide = to > from;
+			board.removePiece(kingSide ? from + 1 : from - 1);
+			board.addPiece(kingSide ? from + 3 : from - 4, castledRook);
+			castledRook.setHasMoved((flags & UNDO_ROOK_HAD_MOVED) != 0);
+		}
+		
+		// Move the original piece back, replacing any promoted piece
+		board.removePiece(to);
+		board.addPiece(from, movedPiece);
+		movedPiece.setHasMoved((flags & UNDO_PIECE_HAD_MOVED) != 0);
+		
+		ChessPiece capturedPiece = undoCapturedPieces[slot];
+		if (capturedPiece != null) {
+			board.addPiece(undoCapturedSquares[slot], capturedPiece);
+		}
+		
+		restoreState(slot, flags);
+		
+		// Drop the piece references so taken-back positions do not keep pieces alive
+		clearUndoSlot(slot);
+	}
+	
+	// Restores what every undo slot records besides pieces: the last move, the turn and the move counters
+	private void restoreState(int slot, int flags) {
+		board.setLastMove(undoLastMoves[slot]);
+		currentTeamTurn = (flags & UNDO_WHITE_TURN) != 0 ? TeamColor.WHITE : (flags & UNDO_BLACK_TURN) != 0 ? TeamColor.BLACK : null;
+		halfmoveClock = undoHalfmoveClocks[slot];
+		fullmoveNumber = undoFullmoveNumbers[slot];
 	}
 	
 	/**
-	 * Executes a given move on the board.
+	 * Executes a given move on the board and writes what is needed to take it back into the undo slot just
+	 * above the top of the stack, which {@link #makeMoveUnchecked(int)} then claims. The last move becomes
+	 * this one.
 	 *
-	 * @param move The move to execute.
+	 * @param move The move to execute, as a {@link PackedMove}.
 	 */
-	private void executeMove(ChessMove move) {
-		ChessPiece piece = board.getPiece(move.getStartPosition());
+	private void executeMove(int move) {
+		if (undoCount == undoMoves.length) {
+			growUndoStack();
+		}
+		int slot = undoCount;
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		
+		ChessPiece piece = board.getPiece(from);
+		ChessPiece movedPiece = piece;
+		int flags = piece.hasMoved() ? UNDO_PIECE_HAD_MOVED : 0;
+		if (currentTeamTurn != null) {
+			flags |= currentTeamTurn == TeamColor.WHITE ? UNDO_WHITE_TURN : UNDO_BLACK_TURN;
+		}
 		piece.markAsMoved();
 		
+		int capturedSquare = to;
+		ChessPiece capturedPiece = board.getPiece(to);
+		
 		// Handle En Passant logic for pawns
-		if (piece.getPieceType() == ChessPiece.PieceType.PAWN && move.getEndPosition() != null &&
-				Math.abs(move.getEndPosition().getCol() - move.getStartPosition().getCol()) == 1 &&
-				board.getPiece(move.getEndPosition()) == null) {
+		if (piece.getPieceType() == ChessPiece.PieceType.PAWN && Math.abs(Bitboards.col(to) - Bitboards.col(from)) == 1
+				&& capturedPiece == null) {
 			// Remove the captured piece
-			ChessPosition capturedPawnPos = new ChessPositionImpl(move.getStartPosition().getRow(), move.getEndPosition().getCol());
-			board.removePiece(capturedPawnPos);
+			capturedSquare = Bitboards.square(Bitboards.row(from), Bitboards.col(to));
+			capturedPiece = board.getPiece(capturedSquare);
+			board.removePiece(capturedSquare);
 		}
 		
 		// Handle castling logic for the king
-		if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-			int colDiff = move.getEndPosition().getCol() - move.getStartPosition().getCol();
-			if (Math.abs(colDiff) == 2) {
-				ChessPosition rookOriginalPosition = (colDiff == 2) ?
-						new ChessPositionImpl(move.getStartPosition().getRow(), 8) :
-						new ChessPositionImpl(move.getStartPosition().getRow(), 1);
-				
-				ChessPosition rookNewPosition = (colDiff == 2) ?
-						new ChessPositionImpl(move.getStartPosition().getRow(), 6) :
-						new ChessPositionImpl(move.getStartPosition().getRow(), 4);
-				
-				ChessPiece rook = board.getPiece(rookOriginalPosition);
-				board.removePiece(rookOriginalPosition);
-				board.addPiece(rookNewPosition, rook);
-				rook.markAsMoved();
+		ChessPiece castledRook = null;
+		if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+			boolean kingSide = to > from;
+			int rookFrom = kingSide ? from + 3 : from - 4;
+			castledRook = board.getPiece(rookFrom);
+			board.removePiece(rookFrom);
+			board.addPiece(kingSide ? from + 1 : from - 1, castledRook);
+			if (castledRook.hasMoved()) {
+				flags |= UNDO_ROOK_HAD_MOVED;
 			}
+			castledRook.markAsMoved();
 		}
 		
 		// Handle pawn promotion logic
-		if (piece.getPieceType() == ChessPiece.PieceType.PAWN && move.getPromotionPiece() != null) {
-			piece = switch (move.getPromotionPiece()) {
-				case QUEEN -> new QueenPiece(currentTeamTurn);
-				case ROOK -> new RookPiece(currentTeamTurn);
-				case BISHOP -> new BishopPiece(currentTeamTurn);
-				case KNIGHT -> new KnightPiece(currentTeamTurn);
+		ChessPiece.PieceType promotion = PackedMove.promotion(move);
+		if (piece.getPieceType() == ChessPiece.PieceType.PAWN && promotion != null) {
+			piece = switch (promotion) {
+				case QUEEN -> new QueenPiece(piece.teamColor());
+				case ROOK -> new RookPiece(piece.teamColor());
+				case BISHOP -> new BishopPiece(piece.teamColor());
+				case KNIGHT -> new KnightPiece(piece.teamColor());
 				default -> piece;
 			};
 		}
 		
+		board.addPiece(to, piece);
+		board.removePiece(from);
+		
+		undoMoves[slot] = move;
+		undoLastMoves[slot] = board.getLastMovePacked();
+		undoCapturedSquares[slot] = capturedSquare;
+		undoHalfmoveClocks[slot] = halfmoveClock;
+		undoFullmoveNumbers[slot] = fullmoveNumber;
+		undoFlags[slot] = flags;
+		undoMovedPieces[slot] = movedPiece;
+		undoCapturedPieces[slot] = capturedPiece;
+		undoCastledRooks[slot] = castledRook;
 		
-		board.addPiece(move.getEndPosition(), piece);
-		board.removePiece(move.getStartPosition());
+		board.setLastMove(move);
+		halfmoveClock = (capturedPiece != null || movedPiece.getPieceType() == ChessPiece.PieceType.PAWN) ? 0 : halfmoveClock + 1;
+		if (movedPiece.teamColor() == TeamColor.BLACK) {
+			fullmoveNumber++;
+		}
+	}
+	
+	private void growUndoStack() {
+		int capacity = undoMoves.length * 2;
+		undoMoves = Arrays.copyOf(undoMoves, capacity);
+		undoLastMoves = Arrays.copyOf(undoLastMoves, capacity);
+		undoCapturedSquares = Arrays.copyOf(undoCapturedSquares, capacity);
+		undoHalfmoveClocks = Arrays.copyOf(undoHalfmoveClocks, capacity);
+		undoFullmoveNumbers = Arrays.copyOf(undoFullmoveNumbers, capacity);
+		undoFlags = Arrays.copyOf(undoFlags, capacity);
+		undoMovedPieces = Arrays.copyOf(undoMovedPieces, capacity);
+		undoCapturedPieces = Arrays.copyOf(undoCapturedPieces, capacity);
+		undoCastledRooks = Arrays.copyOf(undoCastledRooks, capacity);
 	}
 	
 	@Override
@@ -271,8 +289,9 @@ public class ChessGameImpl implements ChessGame
 		
 		// Ensure the move is valid
 		if (validMoves(move.getStartPosition()).contains(move)) {
+			executeMove(PackedMove.of(move));
 			board.setLastMove(move);
-			executeMove(move);
+			clearUndoSlot(undoCount);
 			
 			if (!board.getTestingMode())
 			// Switches the turn to the other team.
@@ -286,7 +305,8 @@ public class ChessGameImpl implements ChessGame
 	
 	@Override
 	public boolean isInCheck(TeamColor teamColor) {
-		return isSquareUnderAttack(findCurrentKingsPosition(teamColor), teamColor);
+		int king = board.kingSquare(teamColor);
+		return king >= 0 && board.isSquareAttacked(king, Bitboards.opposite(teamColor));
 	}
 	
 	@Override
@@ -296,28 +316,115 @@ public class ChessGameImpl implements ChessGame
 		if (isInCheck(teamColor)) return false;
 		
 		// Check if no valid moves are available for any piece
-		return ChessPositionImpl.getAllPositions().stream().noneMatch(pos -> {
-			ChessPiece piece = board.getPiece(pos);
-			return piece != null && piece.teamColor() == teamColor && !validMoves(pos).isEmpty();
-		});
+		return !hasAnyValidMove(teamColor);
 	}
 	
 	@Override
 	public boolean isInCheckmate(TeamColor teamColor) {
 		// Ensure the king is in check and no valid moves are available for any piece
-		return isInCheck(teamColor) && ChessPositionImpl.getAllPositions().stream().noneMatch(pos -> {
-			ChessPiece piece = board.getPiece(pos);
-			return piece != null && piece.teamColor() == teamColor && !validMoves(pos).isEmpty();
-		});
+		return isInCheck(teamColor) && !hasAnyValidMove(teamColor);
+	}
+	
+	/**
+	 * Checks whether any piece of the given team has at least one valid move.
+	 *
+	 * @param teamColor The team to check.
+	 *
+	 * @return true if a valid move exists, false otherwise.
+	 */
+	private boolean hasAnyValidMove(TeamColor teamColor) {
+		return !allValidMoves(teamColor).isEmpty();
+	}
+	
+	/**
+	 * Gets the Zobrist hash of this position: piece placement, side to move, castling rights and an en passant
+	 * square, the latter only when the side to move has a pawn that can capture on it. The placement part is
+	 * updated incrementally by the board as moves are made and unmade.
+	 *
+	 * @return the position key
+	 */
+	public long getZobristKey() {
+		long key = board.pieceKey() ^ Zobrist.castling(board.castlingRights());
+		if (currentTeamTurn == TeamColor.BLACK) {
+			key ^= Zobrist.blackToMove();
+		}
+		int enPassantSquare = getEnPassantSquare();
+		if (enPassantSquare >= 0 && currentTeamTurn != null
+				&& (Attacks.pawn(Bitboards.opposite(currentTeamTurn), enPassantSquare) & board.pieces(currentTeamTurn, ChessPiece.PieceType.PAWN)) != 0) {
+			key ^= Zobrist.enPassant(Bitboards.col(enPassantSquare));
+		}
+		return key;
+	}
+	
+	/**
+	 * Gets the square a pawn skipped over with a two-square advance on the last move.
+	 *
+	 * @return the square index behind the advanced pawn, or -1 if the last move was not a two-square pawn advance
+	 */
+	public int getEnPassantSquare() {
+		int lastMove = board.getLastMovePacked();
+		int from = PackedMove.from(lastMove);
+		int to = PackedMove.to(lastMove);
+		if (lastMove == PackedMove.NONE || Math.abs(to - from) != 16) {
+			return -1;
+		}
+		ChessPiece pawn = board.getPiece(to);
+		if (pawn == null || pawn.getPieceType() != ChessPiece.PieceType.PAWN) {
+			return -1;
+		}
+		return (from + to) / 2;
+	}
+	
+	/**
+	 * @return the number of plies since the last capture or pawn move, for the fifty-move rule
+	 */
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+	
+	/**
+	 * @return the current move number, starting at 1 and increasing after each Black move
+	 */
+	public int getFullmoveNumber() {
+		return fullmoveNumber;
+	}
+	
+	/**
+	 * Sets the move counters, as when a game is set up from a FEN rather than played from the start.
+	 *
+	 * @param halfmoveClock  plies since the last capture or pawn move
+	 * @param fullmoveNumber the current move number, at least 1
+	 */
+	public void setClocks(int halfmoveClock, int fullmoveNumber) {
+		if (halfmoveClock < 0 || fullmoveNumber < 1) {
+			throw new IllegalArgumentException("Invalid move counters: " + halfmoveClock + " " + fullmoveNumber);
+		}
+		this.halfmoveClock = halfmoveClock;
+		this.fullmoveNumber = fullmoveNumber;
 	}
 	
 	@Override
-	public ChessBoard getBoard() {
+	public ChessBoardImpl getBoard() {
 		return board;
 	}
 	
+	/**
+	 * Sets this game's chessboard. Boards that are not bitboard-backed are copied into a
+	 * {@link ChessBoardImpl}, so later changes to such a board are not seen by this game.
+	 *
+	 * @param board the new board to use
+	 */
 	@Override
 	public void setBoard(ChessBoard board) {
-		this.board = board;
+		this.board = (board instanceof ChessBoardImpl bitboard) ? bitboard : ChessBoardImpl.copyOf(board);
+		while (undoCount > 0) {
+			clearUndoSlot(--undoCount);
+		}
+	}
+	
+	private void clearUndoSlot(int slot) {
+		undoMovedPieces[slot] = null;
+		undoCapturedPieces[slot] = null;
+		undoCastledRooks[slot] = null;
 	}
 }
@@ -1,28 +1,48 @@
 package chess.gameplay;
 
 
-import java.util.ArrayList;
 import java.util.List;
 
 
 public record ChessPositionImpl(int getRow, int getCol) implements ChessPosition
 {
 	
+	// One shared instance per square, row by row from a1; positions are immutable, so every caller can hold them
+	private static final ChessPositionImpl[] POSITIONS = new ChessPositionImpl[64];
+	private static final List<ChessPosition> ALL_POSITIONS;
+	
+	static {
+		for (int row = 1; row <= 8; row++) {
+			for (int col = 1; col <= 8; col++) {
+				POSITIONS[(row - 1) * 8 + (col - 1)] = new ChessPositionImpl(row, col);
+			}
+		}
+		ALL_POSITIONS = List.of(POSITIONS);
+	}
+	
 	public ChessPositionImpl {
 		if (getRow < 1 || getRow > 8 || getCol < 1 || getCol > 8) {
 			throw new IllegalArgumentException("Row and column values must be between 1 and 8.");
 		}
 	}
 	
-	// Helper function to generate all possible positions on a chessboard.
-	public static List<ChessPosition> getAllPositions() {
-		List<ChessPosition> allPositions = new ArrayList<>();
-		for (int row = 1; row <= 8; row++) {
-			for (int col = 1; col <= 8; col++) {
-				allPositions.add(new ChessPositionImpl(row, col));
-			}
+	/**
+	 * Gets the shared position for a square instead of allocating a new one.
+	 *
+	 * @param row The row, from 1 to 8.
+	 * @param col The column, from 1 to 8.
+	 *
+	 * @return The position for the square.
+	 */
+	public static ChessPositionImpl of(int row, int col) {
+		if (row < 1 || row > 8 || col < 1 || col > 8) {
+			throw new IllegalArgumentException("Row and column values must be between 1 and 8.");
 		}
-		
-		return allPositions;
+		return POSITIONS[(row - 1) * 8 + (col - 1)];
+	}
+	
+	// All 64 positions on a chessboard, row by row; the list is shared and cannot be modified.
+	public static List<ChessPosition> getAllPositions() {
+		return ALL_POSITIONS;
 	}
 }
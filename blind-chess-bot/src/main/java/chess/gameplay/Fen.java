@@ -0,0 +1,256 @@
+package chess.gameplay;
+
+
+import chess.pieces.*;
+
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation.
+ * <p>
+ * This game has no separate castling or en passant state: castling rights are carried by kings and rooks that
+ * have not moved, and an en passant target by the last move being a double pawn push. Loading a FEN therefore
+ * marks every king and rook as moved unless a castling right keeps it fresh, and records the double push that
+ * would have created the en passant square as the board's last move.
+ */
+public final class Fen
+{
+	public static final String STARTING_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	private Fen() {
+	}
+
+	/**
+	 * @param fen a position in FEN; the move counters may be omitted and then default to 0 and 1
+	 *
+	 * @return a new game set up in the position, with the side to move and move counters from the FEN
+	 *
+	 * @throws IllegalArgumentException if the FEN is malformed or describes a position this game cannot hold
+	 */
+	public static ChessGameImpl load(String fen) {
+		String[] fields = fen.trim().split("\\s+");
+		if (fields.length < 4 || fields.length > 6) {
+			throw new IllegalArgumentException("FEN needs 4 to 6 fields: " + fen);
+		}
+
+		ChessBoardImpl board = new ChessBoardImpl();
+		board.setTestingMode(false);
+		readPlacement(board, fields[0]);
+		readCastling(board, fields[2]);
+		readEnPassant(board, fields[3], fields[1]);
+
+		ChessGame.TeamColor sideToMove = readSideToMove(fields[1]);
+		requirePlayable(board, sideToMove);
+
+		ChessGameImpl game = new ChessGameImpl();
+		game.setBoard(board);
+		game.setTeamTurn(sideToMove);
+		game.setClocks(fields.length > 4 ? readCounter(fields[4]) : 0, fields.length > 5 ? readCounter(fields[5]) : 1);
+		return game;
+	}
+
+	/**
+	 * @return the game's position in FEN, including the move counters
+	 */
+	public static String toFen(ChessGameImpl game) {
+		return positionKey(game) + ' ' + game.getHalfmoveClock() + ' ' + game.getFullmoveNumber();
+	}
+
+	/**
+	 * The first four FEN fields: placement, side to move, castling rights and en passant square. Positions that
+	 * differ only in their move counters share a key, which makes it a compact, readable cache key.
+	 */
+	public static String positionKey(ChessGameImpl game) {
+		ChessBoardImpl board = game.getBoard();
+		StringBuilder fen = new StringBuilder(90);
+		for (int row = 8; row >= 1; row--) {
+			int empty = 0;
+			for (int col = 1; col <= 8; col++) {
+				ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+				if (piece == null) {
+					empty++;
+					continue;
+				}
+				if (empty > 0) {
+					fen.append(empty);
+					empty = 0;
+				}
+				fen.append(symbol(piece));
+			}
+			if (empty > 0) {
+				fen.append(empty);
+			}
+			if (row > 1) {
+				fen.append('/');
+			}
+		}
+
+		fen.append(' ').append(sideToMove(game) == ChessGame.TeamColor.WHITE ? 'w' : 'b').append(' ');
+		int rights = board.castlingRights();
+		if (rights == 0) {
+			fen.append('-');
+		} else {
+			appendIf(fen, rights, ChessBoardImpl.WHITE_KING_SIDE, 'K');
+			appendIf(fen, rights, ChessBoardImpl.WHITE_QUEEN_SIDE, 'Q');
+			appendIf(fen, rights, ChessBoardImpl.BLACK_KING_SIDE, 'k');
+			appendIf(fen, rights, ChessBoardImpl.BLACK_QUEEN_SIDE, 'q');
+		}
+
+		int enPassantSquare = game.getEnPassantSquare();
+		fen.append(' ');
+		if (enPassantSquare < 0) {
+			fen.append('-');
+		} else {
+			fen.append((char) ('a' + Bitboards.col(enPassantSquare) - 1)).append(Bitboards.row(enPassantSquare));
+		}
+		return fen.toString();
+	}
+
+	// A finished game has no turn; FEN still needs one, so it goes to the side that did not move last
+	private static ChessGame.TeamColor sideToMove(ChessGameImpl game) {
+		if (game.getTeamTurn() != null) {
+			return game.getTeamTurn();
+		}
+		ChessMove lastMove = game.getBoard().getLastMove();
+		ChessPiece lastMoved = lastMove == null ? null : game.getBoard().getPiece(lastMove.getEndPosition());
+		return lastMoved == null ? ChessGame.TeamColor.WHITE : Bitboards.opposite(lastMoved.teamColor());
+	}
+
+	private static char symbol(ChessPiece piece) {
+		char symbol = switch (piece.getPieceType()) {
+			case KING -> 'k';
+			case QUEEN -> 'q';
+			case ROOK -> 'r';
+			case BISHOP -> 'b';
+			case KNIGHT -> 'n';
+			case PAWN -> 'p';
+		};
+		return piece.teamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(symbol) : symbol;
+	}
+
+	private static void appendIf(StringBuilder fen, int rights, int right, char symbol) {
+		if ((rights & right) != 0) {
+			fen.append(symbol);
+		}
+	}
+
+	private static int readCounter(String counter) {
+		try {
+			return Integer.parseInt(counter);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("FEN move counter is not a number: " + counter, e);
+		}
+	}
+
+	// One king each, no pawns on the back ranks, and the side that just moved cannot have left its king in check
+	private static void requirePlayable(ChessBoardImpl board, ChessGame.TeamColor sideToMove) {
+		for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+			if (Long.bitCount(board.pieces(color, ChessPiece.PieceType.KING)) != 1) {
+				throw new IllegalArgumentException("FEN position needs exactly one " + color.name().toLowerCase() + " king.");
+			}
+			long backRanks = 0xFF000000000000FFL;
+			if ((board.pieces(color, ChessPiece.PieceType.PAWN) & backRanks) != 0) {
+				throw new IllegalArgumentException("FEN position has a pawn on the first or last rank.");
+			}
+		}
+		ChessGame.TeamColor waiting = Bitboards.opposite(sideToMove);
+		if (board.isSquareAttacked(board.kingSquare(waiting), sideToMove)) {
+			throw new IllegalArgumentException("FEN position leaves the side not to move in check.");
+		}
+	}
+
+	private static void readPlacement(ChessBoardImpl board, String placement) {
+		String[] ranks = placement.split("/");
+		if (ranks.length != 8) {
+			throw new IllegalArgumentException("FEN placement needs 8 ranks: " + placement);
+		}
+		for (int i = 0; i < 8; i++) {
+			int row = 8 - i;
+			int col = 1;
+			for (char symbol : ranks[i].toCharArray()) {
+				if (symbol >= '1' && symbol <= '8') {
+					col += symbol - '0';
+				} else {
+					if (col > 8) {
+						throw new IllegalArgumentException("FEN rank " + row + " is longer than 8 squares.");
+					}
+					ChessPiece piece = piece(symbol);
+					// Castling rights are restored below; every other king or rook counts as moved
+					if (piece.getPieceType() == ChessPiece.PieceType.KING || piece.getPieceType() == ChessPiece.PieceType.ROOK) {
+						piece.setHasMoved(true);
+					}
+					board.addPiece(ChessPositionImpl.of(row, col), piece);
+					col++;
+				}
+			}
+			if (col != 9) {
+				throw new IllegalArgumentException("FEN rank " + row + " does not cover 8 squares.");
+			}
+		}
+	}
+
+	private static ChessPiece piece(char symbol) {
+		ChessGame.TeamColor color = Character.isUpperCase(symbol) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+		return switch (Character.toLowerCase(symbol)) {
+			case 'k' -> new KingPiece(color);
+			case 'q' -> new QueenPiece(color);
+			case 'r' -> new RookPiece(color);
+			case 'b' -> new BishopPiece(color);
+			case 'n' -> new KnightPiece(color);
+			case 'p' -> new PawnPiece(color);
+			default -> throw new IllegalArgumentException("Unknown FEN piece: " + symbol);
+		};
+	}
+
+	private static ChessGame.TeamColor readSideToMove(String side) {
+		return switch (side) {
+			case "w" -> ChessGame.TeamColor.WHITE;
+			case "b" -> ChessGame.TeamColor.BLACK;
+			default -> throw new IllegalArgumentException("FEN side to move must be w or b: " + side);
+		};
+	}
+
+	private static void readCastling(ChessBoardImpl board, String castling) {
+		if (castling.equals("-")) {
+			return;
+		}
+		for (char right : castling.toCharArray()) {
+			int row = Character.isUpperCase(right) ? 1 : 8;
+			int rookCol = switch (Character.toLowerCase(right)) {
+				case 'k' -> 8;
+				case 'q' -> 1;
+				default -> throw new IllegalArgumentException("Unknown FEN castling right: " + right);
+			};
+			ChessGame.TeamColor color = row == 1 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+			ChessPiece king = board.getPiece(ChessPositionImpl.of(row, 5));
+			ChessPiece rook = board.getPiece(ChessPositionImpl.of(row, rookCol));
+			if (!isPiece(king, color, ChessPiece.PieceType.KING) || !isPiece(rook, color, ChessPiece.PieceType.ROOK)) {
+				throw new IllegalArgumentException("FEN castling right " + right + " has no king and rook on their home squares.");
+			}
+			king.setHasMoved(false);
+			rook.setHasMoved(false);
+		}
+	}
+
+	private static void readEnPassant(ChessBoardImpl board, String square, String side) {
+		if (square.equals("-")) {
+			return;
+		}
+		if (square.length() != 2 || square.charAt(0) < 'a' || square.charAt(0) > 'h') {
+			throw new IllegalArgumentException("Malformed FEN en passant square: " + square);
+		}
+		int col = square.charAt(0) - 'a' + 1;
+		int row = square.charAt(1) - '0';
+		// The pawn that just moved belongs to the side not to move
+		boolean whitePawn = side.equals("b");
+		if (row != (whitePawn ? 3 : 6)) {
+			throw new IllegalArgumentException("FEN en passant square " + square + " is on the wrong rank.");
+		}
+		int fromRow = whitePawn ? 2 : 7;
+		int toRow = whitePawn ? 4 : 5;
+		board.setLastMove(new ChessMoveImpl(ChessPositionImpl.of(fromRow, col), ChessPositionImpl.of(toRow, col), null));
+	}
+
+	private static boolean isPiece(ChessPiece piece, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+		return piece != null && piece.teamColor() == color && piece.getPieceType() == type;
+	}
+}
@@ -0,0 +1,339 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+
+import java.util.Collection;
+
+
+/**
+ * Generates legal moves directly from a position.
+ * <p>
+ * Checking pieces and absolutely pinned pieces are found once per call. Pinned pieces may only move along
+ * the line through their king, and in check every non-king move must capture the checker or block its ray,
+ * so no move has to be played out to see whether it leaves the king attacked. En passant is the one
+ * exception and is verified against the occupancy after the capture.
+ * <p>
+ * Moves are written as {@link PackedMove} ints, flagged as captures, en passant, castling or double pushes, into
+ * an array the caller owns, so search can keep one array per ply and generate without allocating. The
+ * {@link Collection} overloads build {@link ChessMove} objects from those for the rest of the code.
+ */
+public final class MoveGenerator
+{
+	/**
+	 * More than the most legal moves any position has (218), so a move array this long never overflows.
+	 */
+	public static final int MAX_MOVES = 256;
+
+	// Promotion codes as in PackedMove, queen first
+	private static final int[] PROMOTION_CODES = {4, 2, 3, 1};
+
+	private static final int[] KING_SIDE_EMPTY = {6, 7};
+	private static final int[] KING_SIDE_SAFE = {6, 7};
+	private static final int[] QUEEN_SIDE_EMPTY = {2, 3, 4};
+	private static final int[] QUEEN_SIDE_SAFE = {4, 3};
+
+	private MoveGenerator() {
+	}
+
+	/**
+	 * Adds the legal moves of a team to a collection.
+	 *
+	 * @param board    the board to generate moves on
+	 * @param us       the team to move
+	 * @param fromMask only pieces standing on these squares are moved
+	 * @param moves    receives the legal moves
+	 */
+	public static void generate(ChessBoardImpl board, ChessGame.TeamColor us, long fromMask, Collection<ChessMove> moves) {
+		int[] packed = new int[MAX_MOVES];
+		addAll(packed, generate(board, us, fromMask, true, true, packed, 0), moves);
+	}
+
+	/**
+	 * Writes the legal moves of a team into an array.
+	 *
+	 * @param board the board to generate moves on
+	 * @param us    the team to move
+	 * @param moves receives the legal moves as {@link PackedMove} ints, from index {@code start}
+	 * @param start where the first move goes; at least {@link #MAX_MOVES} entries must follow it
+	 *
+	 * @return the index just past the last move written
+	 */
+	public static int generate(ChessBoardImpl board, ChessGame.TeamColor us, int[] moves, int start) {
+		return generate(board, us, ~0L, true, true, moves, start);
+	}
+
+	/**
+	 * Adds only the legal captures, en passant captures and promotions of a team to a collection, as used
+	 * by quiescence search. Castling and other quiet moves are left out, even when in check.
+	 *
+	 * @param board the board to generate moves on
+	 * @param us    the team to move
+	 * @param moves receives the legal captures and promotions
+	 */
+	public static void generateNoisy(ChessBoardImpl board, ChessGame.TeamColor us, Collection<ChessMove> moves) {
+		int[] packed = new int[MAX_MOVES];
+		addAll(packed, generateNoisy(board, us, packed, 0), moves);
+	}
+
+	/**
+	 * Writes the moves of {@link #generateNoisy(ChessBoardImpl, ChessGame.TeamColor, Collection)} into an array.
+	 *
+	 * @return the index just past the last move written
+	 */
+	public static int generateNoisy(ChessBoardImpl board, ChessGame.TeamColor us, int[] moves, int start) {
+		return generate(board, us, ~0L, true, false, moves, start);
+	}
+
+	/**
+	 * Adds the legal moves of a team that {@link #generateNoisy} leaves out: non-capturing moves that do not
+	 * promote, including castling. Together the two calls produce exactly the moves of {@link #generate}.
+	 *
+	 * @param board the board to generate moves on
+	 * @param us    the team to move
+	 * @param moves receives the legal quiet moves
+	 */
+	public static void generateQuiet(ChessBoardImpl board, ChessGame.TeamColor us, Collection<ChessMove> moves) {
+		int[] packed = new int[MAX_MOVES];
+		addAll(packed, generateQuiet(board, us, packed, 0), moves);
+	}
+
+	/**
+	 * Writes the moves of {@link #generateQuiet(ChessBoardImpl, ChessGame.TeamColor, Collection)} into an array.
+	 *
+	 * @return the index just past the last move written
+	 */
+	public static int generateQuiet(ChessBoardImpl board, ChessGame.TeamColor us, int[] moves, int start) {
+		return generate(board, us, ~0L, false, true, moves, start);
+	}
+
+	/**
+	 * Writes the legal moves of the pieces on the given squares into an array.
+	 *
+	 * @param fromMask only pieces standing on these squares are moved
+	 *
+	 * @return the index just past the last move written
+	 */
+	public static int generate(ChessBoardImpl board, ChessGame.TeamColor us, long fromMask, int[] moves, int start) {
+		return generate(board, us, fromMask, true, true, moves, start);
+	}
+
+	private static void addAll(int[] packed, int end, Collection<ChessMove> moves) {
+		for (int i = 0; i < end; i++) {
+			moves.add(PackedMove.toChessMove(packed[i]));
+		}
+	}
+
+	private static int generate(ChessBoardImpl board, ChessGame.TeamColor us, long fromMask, boolean noisy, boolean quiet,
+	                            int[] moves, int count) {
+		ChessGame.TeamColor them = Bitboards.opposite(us);
+		long ours = board.occupancy(us);
+		long theirs = board.occupancy(them);
+		long occupancy = ours | theirs;
+		int king = board.kingSquare(us);
+		long targetMask = (noisy ? theirs : 0) | (quiet ? ~theirs : 0);
+
+		long pinned = 0;
+		long evasionMask = ~0L;
+		if (king >= 0) {
+			long checkers = Attacks.attackersTo(board, king, them, occupancy);
+			pinned = pinnedPieces(board, king, us, occupancy);
+			if (checkers != 0) {
+				evasionMask = Long.bitCount(checkers) > 1
+						? 0
+						: checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+			}
+			if ((fromMask & Bitboards.bit(king)) != 0) {
+				count = addKingMoves(board, king, us, ~ours & targetMask, theirs, occupancy, checkers == 0 && quiet, moves, count);
+			}
+		}
+
+		// Only the king may move out of a double check
+		if (evasionMask == 0) {
+			return count;
+		}
+
+		for (long knights = board.pieces(us, ChessPiece.PieceType.KNIGHT) & fromMask & ~pinned; knights != 0; knights &= knights - 1) {
+			int from = Long.numberOfTrailingZeros(knights);
+			count = addMoves(from, Attacks.knight(from) & ~ours & evasionMask & targetMask, theirs, moves, count);
+		}
+
+		long queens = board.pieces(us, ChessPiece.PieceType.QUEEN);
+		for (long sliders = (board.pieces(us, ChessPiece.PieceType.BISHOP) | queens) & fromMask; sliders != 0; sliders &= sliders - 1) {
+			int from = Long.numberOfTrailingZeros(sliders);
+			long targets = Attacks.bishop(from, occupancy) & ~ours & evasionMask & targetMask & pinRay(king, from, pinned);
+			count = addMoves(from, targets, theirs, moves, count);
+		}
+		for (long sliders = (board.pieces(us, ChessPiece.PieceType.ROOK) | queens) & fromMask; sliders != 0; sliders &= sliders - 1) {
+			int from = Long.numberOfTrailingZeros(sliders);
+			long targets = Attacks.rook(from, occupancy) & ~ours & evasionMask & targetMask & pinRay(king, from, pinned);
+			count = addMoves(from, targets, theirs, moves, count);
+		}
+
+		return addPawnMoves(board, us, king, pinned, evasionMask, occupancy, fromMask, noisy, quiet, moves, count);
+	}
+	/**
+	 * @return mask of our pieces that are the only blocker between our king and an enemy slider
+	 */
+	private static long pinnedPieces(ChessBoardImpl board, int king, ChessGame.TeamColor us, long occupancy) {
+		ChessGame.TeamColor them = Bitboards.opposite(us);
+		long queens = board.pieces(them, ChessPiece.PieceType.QUEEN);
+		long snipers = (Attacks.rook(king, 0) & (board.pieces(them, ChessPiece.PieceType.ROOK) | queens))
+				| (Attacks.bishop(king, 0) & (board.pieces(them, ChessPiece.PieceType.BISHOP) | queens));
+
+		long pinned = 0;
+		for (; snipers != 0; snipers &= snipers - 1) {
+			long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & occupancy;
+			if (Long.bitCount(blockers) == 1 && (blockers & board.occupancy(us)) != 0) {
+				pinned |= blockers;
+			}
+		}
+		return pinned;
+	}
+
+	private static long pinRay(int king, int from, long pinned) {
+		return (pinned & Bitboards.bit(from)) == 0 ? ~0L : Attacks.line(king, from);
+	}
+
+	private static int addKingMoves(ChessBoardImpl board, int king, ChessGame.TeamColor us, long targetMask, long theirs,
+	                                long occupancy, boolean mayCastle, int[] moves, int count) {
+		ChessGame.TeamColor them = Bitboards.opposite(us);
+
+		// Sliders must see through the king, or it could step back along a checking ray
+		long withoutKing = occupancy & ~Bitboards.bit(king);
+		for (long targets = Attacks.king(king) & targetMask; targets != 0; targets &= targets - 1) {
+			int to = Long.numberOfTrailingZeros(targets);
+			if (!Attacks.isSquareAttacked(board, to, them, withoutKing)) {
+				moves[count++] = PackedMove.of(king, to, 0, captureFlag(theirs, to));
+			}
+		}
+
+		if (mayCastle) {
+			int homeRow = us == ChessGame.TeamColor.WHITE ? 1 : 8;
+			ChessPiece kingPiece = board.getPiece(king);
+			if (king == Bitboards.square(homeRow, 5) && !kingPiece.hasMoved()) {
+				count = addCastle(board, king, us, homeRow, 8, KING_SIDE_EMPTY, KING_SIDE_SAFE, occupancy, moves, count);
+				count = addCastle(board, king, us, homeRow, 1, QUEEN_SIDE_EMPTY, QUEEN_SIDE_SAFE, occupancy, moves, count);
+			}
+		}
+		return count;
+	}
+
+	private static int addCastle(ChessBoardImpl board, int king, ChessGame.TeamColor us, int homeRow, int rookCol,
+	                             int[] emptyCols, int[] safeCols, long occupancy, int[] moves, int count) {
+		ChessPiece rook = board.getPiece(Bitboards.square(homeRow, rookCol));
+		if (rook == null || rook.teamColor() != us || rook.getPieceType() != ChessPiece.PieceType.ROOK || rook.hasMoved()) {
+			return count;
+		}
+		for (int col : emptyCols) {
+			if ((occupancy & Bitboards.bit(Bitboards.square(homeRow, col))) != 0) {
+				return count;
+			}
+		}
+		ChessGame.TeamColor them = Bitboards.opposite(us);
+		for (int col : safeCols) {
+			if (Attacks.isSquareAttacked(board, Bitboards.square(homeRow, col), them, occupancy)) {
+				return count;
+			}
+		}
+		int kingTo = Bitboards.square(homeRow, rookCol == 8 ? 7 : 3);
+		moves[count++] = PackedMove.of(king, kingTo, 0, PackedMove.CASTLE);
+		return count;
+	}
+
+	private static int addPawnMoves(ChessBoardImpl board, ChessGame.TeamColor us, int king, long pinned, long evasionMask,
+	                                long occupancy, long fromMask, boolean noisy, boolean quiet, int[] moves, int count) {
+		boolean white = us == ChessGame.TeamColor.WHITE;
+		int forward = white ? 8 : -8;
+		int startRow = white ? 2 : 7;
+		int lastRow = white ? 8 : 1;
+		long theirs = board.occupancy(Bitboards.opposite(us));
+		int enPassantVictim = enPassantVictim(board, us);
+
+		for (long pawns = board.pieces(us, ChessPiece.PieceType.PAWN) & fromMask; pawns != 0; pawns &= pawns - 1) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			if (Bitboards.row(from) == lastRow) {
+				continue;
+			}
+			long allowed = evasionMask & pinRay(king, from, pinned);
+
+			int one = from + forward;
+			// Pushes are only noisy when they promote
+			boolean pushes = Bitboards.row(one) == lastRow ? noisy : quiet;
+			if (pushes && (occupancy & Bitboards.bit(one)) == 0) {
+				if ((allowed & Bitboards.bit(one)) != 0) {
+					count = addPawnMove(from, one, lastRow, 0, moves, count);
+				}
+				int two = one + forward;
+				if (quiet && Bitboards.row(from) == startRow && (occupancy & Bitboards.bit(two)) == 0 && (allowed & Bitboards.bit(two)) != 0) {
+					moves[count++] = PackedMove.of(from, two, 0, PackedMove.DOUBLE_PUSH);
+				}
+			}
+
+			if (!noisy) {
+				continue;
+			}
+			for (long captures = Attacks.pawn(us, from) & theirs & allowed; captures != 0; captures &= captures - 1) {
+				count = addPawnMove(from, Long.numberOfTrailingZeros(captures), lastRow, PackedMove.CAPTURE, moves, count);
+			}
+
+			if (enPassantVictim >= 0 && Bitboards.row(from) == Bitboards.row(enPassantVictim)
+					&& Math.abs(Bitboards.col(from) - Bitboards.col(enPassantVictim)) == 1) {
+				int to = enPassantVictim + forward;
+				if (isEnPassantLegal(board, us, king, from, to, enPassantVictim, occupancy)) {
+					moves[count++] = PackedMove.of(from, to, 0, PackedMove.EN_PASSANT);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the square of an enemy pawn that just advanced two squares, or -1 if there is none
+	 */
+	private static int enPassantVictim(ChessBoardImpl board, ChessGame.TeamColor us) {
+		int lastMove = board.getLastMovePacked();
+		if (lastMove == PackedMove.NONE || Math.abs(Bitboards.row(PackedMove.from(lastMove)) - Bitboards.row(PackedMove.to(lastMove))) != 2) {
+			return -1;
+		}
+		int square = PackedMove.to(lastMove);
+		ChessPiece piece = board.getPiece(square);
+		if (piece == null || piece.getPieceType() != ChessPiece.PieceType.PAWN || piece.teamColor() == us) {
+			return -1;
+		}
+		return square;
+	}
+
+	// Removes both pawns from the occupancy and checks the king directly, which also covers the rank pin
+	private static boolean isEnPassantLegal(ChessBoardImpl board, ChessGame.TeamColor us, int king, int from, int to,
+	                                        int victim, long occupancy) {
+		if (king < 0) {
+			return true;
+		}
+		long after = (occupancy & ~Bitboards.bit(from) & ~Bitboards.bit(victim)) | Bitboards.bit(to);
+		return (Attacks.attackersTo(board, king, Bitboards.opposite(us), after) & ~Bitboards.bit(victim)) == 0;
+	}
+
+	private static int addPawnMove(int from, int to, int lastRow, int flags, int[] moves, int count) {
+		if (Bitboards.row(to) == lastRow) {
+			for (int code : PROMOTION_CODES) {
+				moves[count++] = PackedMove.of(from, to, code, flags);
+			}
+		} else {
+			moves[count++] = PackedMove.of(from, to, 0, flags);
+		}
+		return count;
+	}
+
+	private static int addMoves(int from, long targets, long theirs, int[] moves, int count) {
+		for (; targets != 0; targets &= targets - 1) {
+			int to = Long.numberOfTrailingZeros(targets);
+			moves[count++] = PackedMove.of(from, to, 0, captureFlag(theirs, to));
+		}
+		return count;
+	}
+
+	private static int captureFlag(long theirs, int to) {
+		return (theirs & Bitboards.bit(to)) != 0 ? PackedMove.CAPTURE : 0;
+	}
+}
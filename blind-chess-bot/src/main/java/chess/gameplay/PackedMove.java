@@ -0,0 +1,101 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+
+
+/**
+ * Packs a move into an int: from square (bits 0-5), to square (bits 6-11), promotion piece (bits 12-14, 0 for
+ * none) and, from the move generator, flags describing the move (bits 16-19). The low 16 bits identify the move
+ * on their own and are what tables and books store; see {@link #key}. {@link #NONE} is never a real move because
+ * a1a1 is not one.
+ */
+public final class PackedMove
+{
+	public static final int NONE = 0;
+
+	// Flags set by MoveGenerator; moves built from a ChessMove carry none
+	public static final int CAPTURE = 1 << 16;
+	public static final int EN_PASSANT = 1 << 17;
+	public static final int CASTLE = 1 << 18;
+	public static final int DOUBLE_PUSH = 1 << 19;
+
+	private static final ChessPiece.PieceType[] PROMOTIONS = {
+			null, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN
+	};
+
+	private PackedMove() {
+	}
+
+	public static int of(int from, int to, ChessPiece.PieceType promotion) {
+		return from | (to << 6) | (promotionCode(promotion) << 12);
+	}
+
+	/**
+	 * @param flags any of {@link #CAPTURE}, {@link #EN_PASSANT}, {@link #CASTLE} and {@link #DOUBLE_PUSH}
+	 */
+	public static int of(int from, int to, int promotionCode, int flags) {
+		return from | (to << 6) | (promotionCode << 12) | flags;
+	}
+
+	public static int of(ChessMove move) {
+		return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()), move.getPromotionPiece());
+	}
+
+	public static int from(int move) {
+		return move & 0x3F;
+	}
+
+	public static int to(int move) {
+		return (move >>> 6) & 0x3F;
+	}
+
+	public static ChessPiece.PieceType promotion(int move) {
+		return PROMOTIONS[(move >>> 12) & 0x7];
+	}
+
+	/**
+	 * @return the move without its flags, which is equal for the same move however it was produced
+	 */
+	public static int key(int move) {
+		return move & 0xFFFF;
+	}
+
+	public static boolean isPromotion(int move) {
+		return (move & 0x7000) != 0;
+	}
+
+	/**
+	 * @return true for captures, en passant included; only reliable for moves from the move generator
+	 */
+	public static boolean isCapture(int move) {
+		return (move & (CAPTURE | EN_PASSANT)) != 0;
+	}
+
+	/**
+	 * @return true for moves that neither capture nor promote; only reliable for moves from the move generator
+	 */
+	public static boolean isQuiet(int move) {
+		return !isCapture(move) && !isPromotion(move);
+	}
+
+	public static ChessMove toChessMove(int move) {
+		return new ChessMoveImpl(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+	}
+
+	/**
+	 * @return the promotion code of a piece type: 1 to 4 for knight, bishop, rook and queen, 0 for none
+	 */
+	public static int promotionCode(ChessPiece.PieceType promotion) {
+		if (promotion == null) {
+			return 0;
+		}
+		return switch (promotion) {
+			case KNIGHT -> 1;
+			case BISHOP -> 2;
+			case ROOK -> 3;
+			case QUEEN -> 4;
+			default -> throw new IllegalArgumentException("Cannot promote to " + promotion);
+		};
+	}
+}
@@ -0,0 +1,223 @@
+package chess.gameplay;
+
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"), the standard way to check a move
+ * generator against published node counts and to measure its speed.
+ * <p>
+ * Run from the command line as
+ * {@code Perft [--depth N] [--generator packed|move-generator|valid-moves] [--divide] [name or FEN ...]}; with no
+ * positions it runs every {@link #STANDARD_CASES standard case}, and with no depth each standard case runs to
+ * its deepest reference count.
+ */
+public final class Perft
+{
+	// Depth for a FEN given on the command line without --depth
+	private static final int DEFAULT_DEPTH = 4;
+
+	/**
+	 * Legal moves through {@link ChessGameImpl#allValidMoves}, the bitboard generator the engine uses.
+	 */
+	public static final Generator MOVE_GENERATOR = game -> game.allValidMoves(game.getTeamTurn());
+
+	/**
+	 * Legal moves through the public {@link ChessGame#validMoves} API, one piece at a time.
+	 */
+	public static final Generator VALID_MOVES = game -> {
+		List<ChessMove> moves = new ArrayList<>();
+		ChessBoardImpl board = game.getBoard();
+		for (long pieces = board.occupancy(game.getTeamTurn()); pieces != 0; pieces &= pieces - 1) {
+			moves.addAll(game.validMoves(Bitboards.position(Long.numberOfTrailingZeros(pieces))));
+		}
+		return moves;
+	};
+
+	/**
+	 * Well-known positions with their published node counts, from the Chess Programming Wiki perft results.
+	 * Together they cover castling through and out of check, en passant pins and underpromotion.
+	 */
+	public static final List<Case> STANDARD_CASES = List.of(
+			new Case("start", Fen.STARTING_POSITION, 20, 400, 8_902, 197_281, 4_865_609),
+			new Case("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+					48, 2_039, 97_862, 4_085_603),
+			new Case("position3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2_812, 43_238, 674_624),
+			new Case("position4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+					6, 264, 9_467, 422_333),
+			new Case("position5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 44, 1_486, 62_379, 2_103_487),
+			new Case("position6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+					46, 2_079, 89_890, 3_894_594)
+	);
+
+	private Perft() {
+	}
+
+	/**
+	 * @return the number of leaf nodes {@code depth} plies below the game's current position
+	 */
+	public static long perft(ChessGameImpl game, int depth, Generator generator) {
+		List<ChessMove> moves = generator.legalMoves(game);
+		if (depth <= 1) {
+			return depth <= 0 ? 1 : moves.size();
+		}
+		long nodes = 0;
+		for (ChessMove move : moves) {
+			game.makeMoveUnchecked(move);
+			nodes += perft(game, depth - 1, generator);
+			game.unmakeMove();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Perft through {@link MoveGenerator} and {@link ChessGameImpl#makeMoveUnchecked(int)} on packed moves, with
+	 * one slice of a single array per ply: the allocation-free path the search uses.
+	 *
+	 * @return the number of leaf nodes {@code depth} plies below the game's current position
+	 */
+	public static long perft(ChessGameImpl game, int depth) {
+		return perft(game, depth, new int[Math.max(depth, 1) * MoveGenerator.MAX_MOVES], 0);
+	}
+
+	private static long perft(ChessGameImpl game, int depth, int[] moves, int start) {
+		if (depth <= 0) {
+			return 1;
+		}
+		int end = MoveGenerator.generate(game.getBoard(), game.getTeamTurn(), moves, start);
+		if (depth == 1) {
+			return end - start;
+		}
+		long nodes = 0;
+		for (int i = start; i < end; i++) {
+			game.makeMoveUnchecked(moves[i]);
+			nodes += perft(game, depth - 1, moves, start + MoveGenerator.MAX_MOVES);
+			game.unmakeMove();
+		}
+		return nodes;
+	}
+
+	/**
+	 * Perft split by root move, for finding the move whose subtree disagrees with a reference engine.
+	 *
+	 * @return leaf counts keyed by root move in coordinate notation, in generation order
+	 */
+	public static Map<String, Long> divide(ChessGameImpl game, int depth, Generator generator) {
+		Map<String, Long> counts = new LinkedHashMap<>();
+		for (ChessMove move : generator.legalMoves(game)) {
+			game.makeMoveUnchecked(move);
+			counts.put(coordinate(move), perft(game, depth - 1, generator));
+			game.unmakeMove();
+		}
+		return counts;
+	}
+
+	public static void main(String[] args) {
+		int depth = 0;
+		boolean divide = false;
+		boolean packed = true;
+		Generator generator = MOVE_GENERATOR;
+		List<Case> cases = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--depth" -> depth = Integer.parseInt(args[++i]);
+				case "--divide" -> divide = true;
+				case "--generator" -> {
+					String name = args[++i];
+					packed = name.equals("packed");
+					generator = switch (name) {
+						case "packed", "move-generator" -> MOVE_GENERATOR;
+						case "valid-moves" -> VALID_MOVES;
+						default -> throw new IllegalArgumentException("Unknown generator: " + name);
+					};
+				}
+				default -> cases.add(findCase(args[i]));
+			}
+		}
+		if (cases.isEmpty()) {
+			cases.addAll(STANDARD_CASES);
+		}
+
+		boolean allPassed = true;
+		for (Case perftCase : cases) {
+			int caseDepth = depth > 0 ? depth : perftCase.expected().length > 0 ? perftCase.expected().length : DEFAULT_DEPTH;
+			ChessGameImpl game = Fen.load(perftCase.fen());
+			long start = System.nanoTime();
+			long nodes;
+			if (divide) {
+				Map<String, Long> counts = divide(game, caseDepth, generator);
+				counts.forEach((move, count) -> System.out.println(move + ": " + count));
+				nodes = counts.values().stream().mapToLong(Long::longValue).sum();
+			} else {
+				nodes = packed ? perft(game, caseDepth) : perft(game, caseDepth, generator);
+			}
+			long elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+			long expected = perftCase.expected(caseDepth);
+			String verdict = expected < 0 ? "no reference" : nodes == expected ? "ok" : "MISMATCH, expected " + expected;
+			allPassed &= expected < 0 || nodes == expected;
+			System.out.printf("%-10s depth %d: %,d nodes in %,d ms (%,d nodes/s) %s%n", perftCase.name(), caseDepth, nodes,
+					elapsedNanos / 1_000_000, nodes * 1_000_000_000L / elapsedNanos, verdict);
+		}
+		if (!allPassed) {
+			System.exit(1);
+		}
+	}
+
+	private static Case findCase(String nameOrFen) {
+		for (Case perftCase : STANDARD_CASES) {
+			if (perftCase.name().equals(nameOrFen)) {
+				return perftCase;
+			}
+		}
+		return new Case("fen", nameOrFen);
+	}
+
+	private static String coordinate(ChessMove move) {
+		StringBuilder text = new StringBuilder()
+				.append(square(move.getStartPosition()))
+				.append(square(move.getEndPosition()));
+		if (move.getPromotionPiece() != null) {
+			text.append(switch (move.getPromotionPiece()) {
+				case QUEEN -> 'q';
+				case ROOK -> 'r';
+				case BISHOP -> 'b';
+				case KNIGHT -> 'n';
+				default -> '?';
+			});
+		}
+		return text.toString();
+	}
+
+	private static String square(ChessPosition position) {
+		return "" + (char) ('a' + position.getCol() - 1) + position.getRow();
+	}
+
+	/**
+	 * Produces the legal moves of the side to move, so perft can compare move generators.
+	 */
+	@FunctionalInterface
+	public interface Generator
+	{
+		List<ChessMove> legalMoves(ChessGameImpl game);
+	}
+
+	/**
+	 * A perft position with its reference node counts.
+	 *
+	 * @param expected node counts for depths 1, 2, 3 and so on
+	 */
+	public record Case(String name, String fen, long... expected)
+	{
+		/**
+		 * @return the reference node count at the depth, or -1 if there is none
+		 */
+		public long expected(int depth) {
+			return depth >= 1 && depth <= expected.length ? expected[depth - 1] : -1;
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+
+
+/**
+ * Material plus piece-square values for a middlegame and an endgame phase.
+ * <p>
+ * Values are signed from White's point of view, so a board can keep a running sum of them as pieces move
+ * (see {@link ChessBoardImpl#middlegameScore()}). The tables below are written as seen from White, rank 8
+ * first; Black uses the same table mirrored vertically.
+ */
+public final class PieceSquareTables
+{
+	/**
+	 * Phase of a board with all minor and major pieces on it; a bare-kings-and-pawns board is phase 0.
+	 */
+	public static final int MAX_PHASE = 24;
+
+	// Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+	private static final int[] MATERIAL = {0, 900, 330, 320, 500, 100};
+	private static final int[] PHASE_WEIGHT = {0, 4, 1, 1, 2, 0};
+
+	private static final int[] KING_MIDDLEGAME = {
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-20, -30, -30, -40, -40, -30, -30, -20,
+			-10, -20, -20, -20, -20, -20, -20, -10,
+			20, 20, 0, 0, 0, 0, 20, 20,
+			20, 30, 10, 0, 0, 10, 30, 20
+	};
+	private static final int[] KING_ENDGAME = {
+			-50, -40, -30, -20, -20, -30, -40, -50,
+			-30, -20, -10, 0, 0, -10, -20, -30,
+			-30, -10, 20, 30, 30, 20, -10, -30,
+			-30, -10, 30, 40, 40, 30, -10, -30,
+			-30, -10, 30, 40, 40, 30, -10, -30,
+			-30, -10, 20, 30, 30, 20, -10, -30,
+			-30, -30, 0, 0, 0, 0, -30, -30,
+			-50, -30, -30, -30, -30, -30, -30, -50
+	};
+	private static final int[] QUEEN = {
+			-20, -10, -10, -5, -5, -10, -10, -20,
+			-10, 0, 0, 0, 0, 0, 0, -10,
+			-10, 0, 5, 5, 5, 5, 0, -10,
+			-5, 0, 5, 5, 5, 5, 0, -5,
+			0, 0, 5, 5, 5, 5, 0, -5,
+			-10, 5, 5, 5, 5, 5, 0, -10,
+			-10, 0, 5, 0, 0, 0, 0, -10,
+			-20, -10, -10, -5, -5, -10, -10, -20
+	};
+	private static final int[] BISHOP = {
+			-20, -10, -10, -10, -10, -10, -10, -20,
+			-10, 0, 0, 0, 0, 0, 0, -10,
+			-10, 0, 5, 10, 10, 5, 0, -10,
+			-10, 5, 5, 10, 10, 5, 5, -10,
+			-10, 0, 10, 10, 10, 10, 0, -10,
+			-10, 10, 10, 10, 10, 10, 10, -10,
+			-10, 5, 0, 0, 0, 0, 5, -10,
+			-20, -10, -10, -10, -10, -10, -10, -20
+	};
+	private static final int[] KNIGHT = {
+			-50, -40, -30, -30, -30, -30, -40, -50,
+			-40, -20, 0, 0, 0, 0, -20, -40,
+			-30, 0, 10, 15, 15, 10, 0, -30,
+			-30, 5, 15, 20, 20, 15, 5, -30,
+			-30, 0, 15, 20, 20, 15, 0, -30,
+			-30, 5, 10, 15, 15, 10, 5, -30,
+			-40, -20, 0, 5, 5, 0, -20, -40,
+			-50, -40, -30, -30, -30, -30, -40, -50
+	};
+	private static final int[] ROOK = {
+			0, 0, 0, 0, 0, 0, 0, 0,
+			5, 10, 10, 10, 10, 10, 10, 5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			0, 0, 0, 5, 5, 0, 0, 0
+	};
+	private static final int[] PAWN_MIDDLEGAME = {
+			0, 0, 0, 0, 0, 0, 0, 0,
+			50, 50, 50, 50, 50, 50, 50, 50,
+			10, 10, 20, 30, 30, 20, 10, 10,
+			5, 5, 10, 25, 25, 10, 5, 5,
+			0, 0, 0, 20, 20, 0, 0, 0,
+			5, -5, -10, 0, 0, -10, -5, 5,
+			5, 10, 10, -20, -20, 10, 10, 5,
+			0, 0, 0, 0, 0, 0, 0, 0
+	};
+	// Passed pawns matter more once pieces come off, whatever file they are on
+	private static final int[] PAWN_ENDGAME = {
+			0, 0, 0, 0, 0, 0, 0, 0,
+			80, 80, 80, 80, 80, 80, 80, 80,
+			50, 50, 50, 50, 50, 50, 50, 50,
+			30, 30, 30, 30, 30, 30, 30, 30,
+			20, 20, 20, 20, 20, 20, 20, 20,
+			10, 10, 10, 10, 10, 10, 10, 10,
+			0, 0, 0, 0, 0, 0, 0, 0,
+			0, 0, 0, 0, 0, 0, 0, 0
+	};
+
+	// Signed material plus placement, indexed by (Bitboards.pieceIndex << 6) | square
+	private static final int[] MIDDLEGAME = build(new int[][] {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME});
+	private static final int[] ENDGAME = build(new int[][] {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME});
+
+	private PieceSquareTables() {
+	}
+
+	/**
+	 * @param pieceIndex piece mask index from {@link Bitboards#pieceIndex}
+	 * @param square     square index from {@link Bitboards#square}
+	 *
+	 * @return the piece's middlegame value on the square, positive for White and negative for Black
+	 */
+	public static int middlegame(int pieceIndex, int square) {
+		return MIDDLEGAME[(pieceIndex << 6) | square];
+	}
+
+	/**
+	 * @return the piece's endgame value on the square, positive for White and negative for Black
+	 */
+	public static int endgame(int pieceIndex, int square) {
+		return ENDGAME[(pieceIndex << 6) | square];
+	}
+
+	/**
+	 * @return the bare material value of a piece type, 0 for the king
+	 */
+	public static int material(ChessPiece.PieceType type) {
+		return MATERIAL[type.ordinal()];
+	}
+
+	/**
+	 * @return how much the piece counts towards {@link #MAX_PHASE}
+	 */
+	public static int phaseWeight(int pieceIndex) {
+		return PHASE_WEIGHT[pieceIndex % Bitboards.PIECE_TYPE_COUNT];
+	}
+
+	/**
+	 * Blends a middlegame and an endgame score by phase. Promotions can push the phase past
+	 * {@link #MAX_PHASE}; such boards count as pure middlegame.
+	 */
+	public static int taper(int middlegame, int endgame, int phase) {
+		int clampedPhase = Math.min(phase, MAX_PHASE);
+		return (middlegame * clampedPhase + endgame * (MAX_PHASE - clampedPhase)) / MAX_PHASE;
+	}
+
+	private static int[] build(int[][] tables) {
+		int[] values = new int[2 * Bitboards.PIECE_TYPE_COUNT * Bitboards.SQUARE_COUNT];
+		for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+			int[] table = tables[type.ordinal()];
+			int material = MATERIAL[type.ordinal()];
+			int white = Bitboards.pieceIndex(ChessGame.TeamColor.WHITE, type);
+			int black = Bitboards.pieceIndex(ChessGame.TeamColor.BLACK, type);
+			for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+				// Tables list rank 8 first, so White reads them flipped and Black reads them as written
+				values[(white << 6) | square] = material + table[square ^ 56];
+				values[(black << 6) | square] = -(material + table[square]);
+			}
+		}
+		return values;
+	}
+}
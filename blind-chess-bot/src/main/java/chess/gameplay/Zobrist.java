@@ -0,0 +1,65 @@
+package chess.gameplay;
+
+
+import java.util.SplittableRandom;
+
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * <p>
+ * The keys come from a fixed seed so a position hashes to the same value in every run, which keeps
+ * anything persisted by hash (such as opening books) valid across restarts.
+ */
+public final class Zobrist
+{
+	private static final long SEED = 0x5EED_C4E5_B1D0_2024L;
+
+	private static final long[] PIECE_SQUARE = new long[2 * Bitboards.PIECE_TYPE_COUNT * Bitboards.SQUARE_COUNT];
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EN_PASSANT_FILE = new long[8];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int i = 0; i < PIECE_SQUARE.length; i++) {
+			PIECE_SQUARE[i] = random.nextLong();
+		}
+		// No castling rights hashes to zero so the key only changes when rights exist
+		for (int i = 1; i < CASTLING.length; i++) {
+			CASTLING[i] = random.nextLong();
+		}
+		for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+			EN_PASSANT_FILE[i] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * @param pieceIndex piece mask index from {@link Bitboards#pieceIndex}
+	 * @param square     square index from {@link Bitboards#square}
+	 */
+	public static long piece(int pieceIndex, int square) {
+		return PIECE_SQUARE[(pieceIndex << 6) | square];
+	}
+
+	/**
+	 * @param rights castling rights mask from {@link ChessBoardImpl#castlingRights()}
+	 */
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	/**
+	 * @param col the 1-based file of the square a pawn may capture en passant on
+	 */
+	public static long enPassant(int col) {
+		return EN_PASSANT_FILE[col - 1];
+	}
+
+	public static long blackToMove() {
+		return BLACK_TO_MOVE;
+	}
+}
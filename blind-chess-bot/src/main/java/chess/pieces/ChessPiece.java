@@ -47,6 +47,13 @@ public interface ChessPiece
 	 */
 	void markAsMoved();
 	
+	/**
+	 * Restores whether the piece has been moved yet, used when a move is taken back
+	 *
+	 * @param hasMoved the moved flag to restore
+	 */
+	void setHasMoved(boolean hasMoved);
+	
 	/**
 	 * The various different chess piece options
 	 */
@@ -42,6 +42,11 @@ public class ChessPieceImpl implements ChessPiece
 		this.hasMoved = true;
 	}
 	
+	@Override
+	public void setHasMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+	
 	@Override
 	public ChessGame.TeamColor teamColor() {
 		return teamColor;
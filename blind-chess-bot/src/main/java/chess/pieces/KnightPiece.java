@@ -3,7 +3,6 @@ package chess.pieces;
 
 import chess.gameplay.*;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 
@@ -31,6 +30,11 @@ public class KnightPiece implements ChessPiece
 		hasMoved = true;
 	}
 	
+	@Override
+	public void setHasMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+	
 	@Override
 	public PieceType getPieceType() {
 		return PieceType.KNIGHT;
@@ -38,31 +42,7 @@ public class KnightPiece implements ChessPiece
 	
 	@Override
 	public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-		Collection<ChessMove> moves = new ArrayList<>();
-		
-		// Potential moves for a knight, representing the "L" shape movement
-		int[][] directions = {
-				{2, 1}, {1, 2}, {-2, 1}, {-1, 2},
-				{2, -1}, {1, -2}, {-2, -1}, {-1, -2}
-		};
-		
-		for (int[] direction : directions) {
-			int newRow = myPosition.getRow() + direction[0];
-			int newCol = myPosition.getCol() + direction[1];
-			
-			if (newRow < 1 || newRow > 8 || newCol < 1 || newCol > 8) {
-				continue; // Move is outside the bounds of the board
-			}
-			
-			ChessPosition newPosition = new ChessPositionImpl(newRow, newCol);
-			ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-			
-			if (pieceAtNewPosition == null || pieceAtNewPosition.teamColor() != this.teamColor()) {
-				// Either the square is empty, or there's an opponent's piece that can be captured
-				moves.add(new ChessMoveImpl(myPosition, newPosition, null));
-			}
-		}
-		
-		return moves;
+		ChessBoardImpl bitboard = PieceMoves.bitboard(board);
+		return PieceMoves.toTargets(bitboard, myPosition, teamColor, Attacks.knight(Bitboards.square(myPosition)));
 	}
 }
@@ -9,6 +9,9 @@ import java.util.Collection;
 
 public class PawnPiece implements ChessPiece
 {
+	private static final int[] CAPTURE_DIRECTIONS = {-1, 1};
+	private static final PieceType[] PROMOTION_TYPES = {PieceType.QUEEN, PieceType.BISHOP, PieceType.ROOK, PieceType.KNIGHT};
+	
 	private final ChessGame.TeamColor teamColor;
 	private boolean hasMoved = false;
 	
@@ -35,6 +38,12 @@ public class PawnPiece implements ChessPiece
 		hasMoved = true;
 	}
 	
+	// Restore the pawn's moved flag when a move is taken back
+	@Override
+	public void setHasMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+	
 	// Return the pawn's piece type
 	@Override
 	public PieceType getPieceType() {
@@ -58,15 +67,15 @@ public class PawnPiece implements ChessPiece
 	
 	// Check and add valid forward moves for the pawn
 	private void checkForwardMoves(ChessBoard board, ChessPosition myPosition, int newRow, Collection<ChessMove> moves, int direction) {
-		ChessPosition forwardOne = new ChessPositionImpl(newRow, myPosition.getCol());
+		ChessPosition forwardOne = ChessPositionImpl.of(newRow, myPosition.getCol());
 		
 		// If the forward square is empty
 		if (board.getPiece(forwardOne) == null) {
 			addMoveWithPromotion(myPosition, forwardOne, moves);
 			
 			// Check for double move from starting position
-			if (isNewPawnPosition(myPosition) && board.getPiece(new ChessPositionImpl(myPosition.getRow() + (2 * direction), myPosition.getCol())) == null) {
-				moves.add(new ChessMoveImpl(myPosition, new ChessPositionImpl(myPosition.getRow() + (2 * direction), myPosition.getCol()), null));
+			if (isNewPawnPosition(myPosition) && board.getPiece(ChessPositionImpl.of(myPosition.getRow() + (2 * direction), myPosition.getCol())) == null) {
+				moves.add(new ChessMoveImpl(myPosition, ChessPositionImpl.of(myPosition.getRow() + (2 * direction), myPosition.getCol()), null));
 			}
 		}
 	}
@@ -78,7 +87,7 @@ public class PawnPiece implements ChessPiece
 	
 	// Check and add valid diagonal capture moves for the pawn
 	private void checkDiagonalCaptures(ChessBoard board, ChessPosition myPosition, int newRow, Collection<ChessMove> moves) {
-		for (int diagDirection : new int[] {-1, 1}) {
+		for (int diagDirection : CAPTURE_DIRECTIONS) {
 			int newCol = myPosition.getCol() + diagDirection;
 			
 			// Check if the new column is within valid bounds (1 to 8)
@@ -86,7 +95,7 @@ public class PawnPiece implements ChessPiece
 				continue;
 			}
 			
-			ChessPosition diagonal = new ChessPositionImpl(newRow, newCol);
+			ChessPosition diagonal = ChessPositionImpl.of(newRow, newCol);
 			
 			// If there's an opponent piece on the diagonal
 			ChessPiece pieceAtDiagonal = board.getPiece(diagonal);
@@ -101,7 +110,7 @@ public class PawnPiece implements ChessPiece
 		if (end.getRow() == 1 || end.getRow() == 8)
 		// Add promotion moves for the pawn
 		{
-			for (PieceType type : new PieceType[] {PieceType.QUEEN, PieceType.BISHOP, PieceType.ROOK, PieceType.KNIGHT}) {
+			for (PieceType type : PROMOTION_TYPES) {
 				moves.add(new ChessMoveImpl(start, end, type));
 			}
 		} else {
@@ -0,0 +1,45 @@
+package chess.pieces;
+
+
+import chess.gameplay.Bitboards;
+import chess.gameplay.ChessBoard;
+import chess.gameplay.ChessBoardImpl;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessMove;
+import chess.gameplay.ChessMoveImpl;
+import chess.gameplay.ChessPosition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+
+/**
+ * Builds the move lists of the piece classes from the attack tables in {@link chess.gameplay.Attacks}, so a
+ * piece's moves are one table lookup masked by its own team's pieces rather than a walk over the board.
+ */
+final class PieceMoves
+{
+	private PieceMoves() {
+	}
+
+	/**
+	 * @return the board as a bitboard, copying it only if it is some other implementation
+	 */
+	static ChessBoardImpl bitboard(ChessBoard board) {
+		return board instanceof ChessBoardImpl bitboard ? bitboard : ChessBoardImpl.copyOf(board);
+	}
+
+	/**
+	 * @param attacks squares the piece attacks; squares holding its own team's pieces are left out
+	 *
+	 * @return a move from the piece's square to each remaining square
+	 */
+	static Collection<ChessMove> toTargets(ChessBoardImpl board, ChessPosition from, ChessGame.TeamColor color, long attacks) {
+		long targets = attacks & ~board.occupancy(color);
+		Collection<ChessMove> moves = new ArrayList<>(Long.bitCount(targets));
+		for (; targets != 0; targets &= targets - 1) {
+			moves.add(new ChessMoveImpl(from, Bitboards.position(Long.numberOfTrailingZeros(targets)), null));
+		}
+		return moves;
+	}
+}
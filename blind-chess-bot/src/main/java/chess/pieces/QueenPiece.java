@@ -3,7 +3,6 @@ package chess.pieces;
 
 import chess.gameplay.*;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 
@@ -31,6 +30,11 @@ public class QueenPiece implements ChessPiece
 		hasMoved = true;
 	}
 	
+	@Override
+	public void setHasMoved(boolean hasMoved) {
+		this.hasMoved = hasMoved;
+	}
+	
 	@Override
 	public PieceType getPieceType() {
 		return PieceType.QUEEN;
@@ -38,40 +42,7 @@ public class QueenPiece implements ChessPiece
 	
 	@Override
 	public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-		Collection<ChessMove> moves = new ArrayList<>();
-		
-		// Directions: North, East, South, West, Northeast, Northwest, Southeast, Southwest
-		int[][] directions = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-		
-		for (int[] direction : directions) {
-			int row = myPosition.getRow();
-			int col = myPosition.getCol();
-			
-			while (true) {
-				row += direction[0];
-				col += direction[1];
-				
-				if (row < 1 || row > 8 || col < 1 || col > 8) {
-					break; // Out of board bounds
-				}
-				
-				ChessPosition newPosition = new ChessPositionImpl(row, col);
-				ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-				
-				if (pieceAtNewPosition == null) {
-					// Empty square, add as a possible move
-					moves.add(new ChessMoveImpl(myPosition, newPosition, null));
-				} else if (pieceAtNewPosition.teamColor() != this.teamColor()) {
-					// Opponent's piece, capture it and break
-					moves.add(new ChessMoveImpl(myPosition, newPosition, null));
-					break;
-				} else {
-					break; // Own piece, block the path
-				}
-				
-			}
-		}
-		
-		return moves;
+		ChessBoardImpl bitboard = PieceMoves.bitboard(board);
+		return PieceMoves.toTargets(bitboard, myPosition, teamColor, Attacks.queen(Bitboards.square(myPosition), bitboard.occupancy()));
 	}
 }
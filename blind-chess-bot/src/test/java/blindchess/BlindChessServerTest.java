@@ -0,0 +1,109 @@
+package blindchess;
+
+
+import blindchess.api.CreateSessionRequest;
+import blindchess.api.SessionResponse;
+import blindchess.model.SessionStore;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class BlindChessServerTest
+{
+	private static final Gson GSON = new Gson();
+	private static final int CLIENTS = 64;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private BlindChessServer server;
+
+	@BeforeEach
+	void startServer() throws Exception {
+		server = new BlindChessServer(0);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	void concurrentClientsEachGetTheirOwnSession() {
+		List<CompletableFuture<HttpResponse<String>>> created = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			created.add(send("POST", "/api/sessions", GSON.toJson(new CreateSessionRequest("HISTORY", "WHITE"))));
+		}
+		Set<String> sessionIds = new HashSet<>();
+		for (CompletableFuture<HttpResponse<String>> response : created) {
+			sessionIds.add(assertJson(response.join(), 200, SessionResponse.class).sessionId);
+		}
+		assertEquals(CLIENTS, sessionIds.size());
+
+		List<CompletableFuture<HttpResponse<String>>> moved = new ArrayList<>();
+		for (String sessionId : sessionIds) {
+			moved.add(send("POST", "/api/sessions/" + sessionId + "/moves", "{\"notation\":\"e4\"}"));
+		}
+		for (CompletableFuture<HttpResponse<String>> response : moved) {
+			SessionResponse session = assertSession(response.join());
+			assertTrue(sessionIds.contains(session.sessionId));
+			assertEquals("e4", session.playerMove);
+		}
+
+		List<CompletableFuture<HttpResponse<String>>> fetched = new ArrayList<>();
+		for (String sessionId : sessionIds) {
+			fetched.add(send("GET", "/api/sessions/" + sessionId, null));
+		}
+		for (CompletableFuture<HttpResponse<String>> response : fetched) {
+			SessionResponse session = assertSession(response.join());
+			assertTrue(session.visibleHistory.getFirst().contains("e4"), session.visibleHistory.toString());
+		}
+
+		SessionStore.Metrics metrics = assertJson(send("GET", "/api/metrics", null).join(), 200, SessionStore.Metrics.class);
+		assertEquals(CLIENTS, metrics.sessions());
+	}
+
+	@Test
+	void unknownRoutesAnswerWithJsonErrors() {
+		assertJson(send("GET", "/api/sessions/unknown", null).join(), 400, SessionResponse.class);
+		assertJson(send("DELETE", "/api/sessions", null).join(), 404, SessionResponse.class);
+	}
+
+	private CompletableFuture<HttpResponse<String>> send(String method, String path, String body) {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+				.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	// Answered once the bot has replied, or with 202 while it is still searching
+	private static SessionResponse assertSession(HttpResponse<String> response) {
+		int statusCode = response.statusCode();
+		assertTrue(statusCode == 200 || statusCode == 202, response.body());
+		return assertJson(response, statusCode, SessionResponse.class);
+	}
+
+	// Small bodies are sent whole, with their length
+	private static <T> T assertJson(HttpResponse<String> response, int statusCode, Class<T> type) {
+		assertEquals(statusCode, response.statusCode(), response.body());
+		assertEquals(String.valueOf(response.body().getBytes(StandardCharsets.UTF_8).length),
+				response.headers().firstValue("Content-Length").orElse(null));
+		assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+		return GSON.fromJson(response.body(), type);
+	}
+}
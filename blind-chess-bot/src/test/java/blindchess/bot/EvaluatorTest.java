@@ -0,0 +1,55 @@
+package blindchess.bot;
+
+
+import chess.gameplay.ChessBoardImpl;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMoveImpl;
+import chess.gameplay.ChessPositionImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class EvaluatorTest
+{
+	@Test
+	void startingPositionIsBalanced() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		Evaluator evaluator = new Evaluator();
+
+		assertEquals(0, evaluator.evaluate(game, ChessGame.TeamColor.WHITE));
+		assertEquals(0, evaluator.evaluate(game, ChessGame.TeamColor.BLACK));
+	}
+
+	@Test
+	void incrementalScoresMatchAFreshBoardAndUnwind() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		ChessBoardImpl board = game.getBoard();
+		int middlegame = board.middlegameScore();
+		int endgame = board.endgameScore();
+		int phase = board.phase();
+
+		game.makeMoveUnchecked(move(2, 5, 4, 5));
+		game.makeMoveUnchecked(move(7, 4, 5, 4));
+		game.makeMoveUnchecked(move(4, 5, 5, 4));
+		ChessBoardImpl rebuilt = ChessBoardImpl.copyOf(board);
+		assertEquals(rebuilt.middlegameScore(), board.middlegameScore());
+		assertEquals(rebuilt.endgameScore(), board.endgameScore());
+		assertTrue(new Evaluator(false).evaluate(game, ChessGame.TeamColor.WHITE) > 0);
+
+		game.unmakeMove();
+		game.unmakeMove();
+		game.unmakeMove();
+		assertEquals(middlegame, board.middlegameScore());
+		assertEquals(endgame, board.endgameScore());
+		assertEquals(phase, board.phase());
+	}
+
+	private ChessMoveImpl move(int fromRow, int fromCol, int toRow, int toCol) {
+		return new ChessMoveImpl(new ChessPositionImpl(fromRow, fromCol), new ChessPositionImpl(toRow, toCol), null);
+	}
+}
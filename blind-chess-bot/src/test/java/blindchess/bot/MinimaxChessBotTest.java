@@ -0,0 +1,133 @@
+package blindchess.bot;
+
+
+import blindchess.notation.ChessRules;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import chess.gameplay.ChessMoveImpl;
+import chess.gameplay.ChessPositionImpl;
+import chess.gameplay.Fen;
+import chess.pieces.KingPiece;
+import chess.pieces.PawnPiece;
+import chess.pieces.QueenPiece;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class MinimaxChessBotTest
+{
+	@Test
+	void timeBudgetReturnsLegalMoveWithinBudget() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		MinimaxChessBot bot = new MinimaxChessBot(BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.moveTime(200)));
+
+		long start = System.nanoTime();
+		ChessMove move = bot.chooseMove(game, ChessGame.TeamColor.WHITE);
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		assertTrue(ChessRules.legalMoves(game, ChessGame.TeamColor.WHITE).contains(move));
+		assertTrue(elapsedMillis < 2_000, "Search took " + elapsedMillis + " ms");
+	}
+
+	@Test
+	void nodeBudgetStillCompletesFirstIteration() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		MinimaxChessBot bot = new MinimaxChessBot(2);
+
+		ChessMove move = bot.chooseMove(game, ChessGame.TeamColor.WHITE, SearchLimits.nodes(1));
+
+		assertTrue(ChessRules.legalMoves(game, ChessGame.TeamColor.WHITE).contains(move));
+	}
+
+	@Test
+	void parallelSearchReturnsLegalMove() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		MinimaxChessBot bot = new MinimaxChessBot(BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.depth(4)).withThreads(4));
+
+		ChessMove move = bot.chooseMove(game, ChessGame.TeamColor.WHITE);
+
+		assertTrue(ChessRules.legalMoves(game, ChessGame.TeamColor.WHITE).contains(move));
+	}
+
+	@Test
+	void singleThreadSearchIsDeterministic() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+
+		ChessMove first = new MinimaxChessBot(3)
+				.chooseMove(game, ChessGame.TeamColor.WHITE);
+		ChessMove second = new MinimaxChessBot(3)
+				.chooseMove(game, ChessGame.TeamColor.WHITE);
+
+		assertEquals(first, second);
+	}
+
+	@Test
+	void quiescenceSeesTheRecapture() {
+		// Qxd5 wins a pawn at depth 1 unless the search looks past exd5
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().addPiece(new ChessPositionImpl(1, 1), new KingPiece(ChessGame.TeamColor.WHITE));
+		game.getBoard().addPiece(new ChessPositionImpl(1, 4), new QueenPiece(ChessGame.TeamColor.WHITE));
+		game.getBoard().addPiece(new ChessPositionImpl(8, 8), new KingPiece(ChessGame.TeamColor.BLACK));
+		game.getBoard().addPiece(new ChessPositionImpl(5, 4), new PawnPiece(ChessGame.TeamColor.BLACK));
+		game.getBoard().addPiece(new ChessPositionImpl(6, 5), new PawnPiece(ChessGame.TeamColor.BLACK));
+		game.setTeamTurn(ChessGame.TeamColor.WHITE);
+		ChessMove queenTakesPawn = new ChessMoveImpl(new ChessPositionImpl(1, 4), new ChessPositionImpl(5, 4), null);
+
+		ChessMove horizonBlind = new MinimaxChessBot(BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.depth(1))
+				.withOptions(SearchOptions.DEFAULTS.withQuiescence(false))).chooseMove(game, ChessGame.TeamColor.WHITE);
+		ChessMove quiescent = new MinimaxChessBot(1).chooseMove(game, ChessGame.TeamColor.WHITE);
+
+		assertEquals(queenTakesPawn, horizonBlind);
+		assertNotEquals(queenTakesPawn, quiescent);
+	}
+
+	@Test
+	void everySearchSwitchStillFindsMate() {
+		// Ra8 mates behind the pawns; each technique on its own and all of them off must still see it
+		ChessGameImpl game = Fen.load("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1");
+		ChessMove mate = new ChessMoveImpl(new ChessPositionImpl(1, 1), new ChessPositionImpl(8, 1), null);
+		SearchOptions plain = SearchOptions.DEFAULTS.withPrincipalVariation(false).withNullMove(false)
+				.withLateMoveReductions(false).withCheckExtensions(false);
+		SearchOptions[] variants = {
+				SearchOptions.DEFAULTS, plain,
+				plain.withPrincipalVariation(true), plain.withNullMove(true),
+				plain.withLateMoveReductions(true), plain.withCheckExtensions(true)
+		};
+
+		for (SearchOptions options : variants) {
+			ChessMove move = new MinimaxChessBot(BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.depth(4)).withOptions(options))
+					.chooseMove(game, ChessGame.TeamColor.WHITE);
+			assertEquals(mate, move, options.toString());
+		}
+	}
+
+	@Test
+	void listenerHearsEveryIterationAndWindowsAgreeWithFullSearch() {
+		ChessGameImpl game = Fen.load("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		List<SearchListener.Iteration> iterations = new ArrayList<>();
+
+		BotConfig config = BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.depth(5));
+		ChessMove windowed = new MinimaxChessBot(config.withOptions(SearchOptions.DEFAULTS.withAspirationWindow(10))
+				.withListener(iterations::add)).chooseMove(game, ChessGame.TeamColor.WHITE);
+		ChessMove unbounded = new MinimaxChessBot(config.withOptions(SearchOptions.DEFAULTS.withAspirationWindow(0)))
+				.chooseMove(game, ChessGame.TeamColor.WHITE);
+
+		assertEquals(List.of(1, 2, 3, 4, 5), iterations.stream().map(SearchListener.Iteration::depth).toList());
+		assertEquals(windowed, iterations.get(4).bestMove());
+		assertEquals(unbounded, windowed);
+		for (int i = 1; i < iterations.size(); i++) {
+			assertTrue(iterations.get(i).nodes() > iterations.get(i - 1).nodes());
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package blindchess.bot;
+
+
+import blindchess.notation.ChessRules;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import chess.gameplay.ChessMoveImpl;
+import chess.gameplay.ChessPositionImpl;
+import chess.gameplay.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class MovePickerTest
+{
+	@Test
+	void returnsEveryLegalMoveOnceInStageOrder() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		game.makeMoveUnchecked(move(2, 5, 4, 5));
+		game.makeMoveUnchecked(move(7, 4, 5, 4));
+		ChessMove hashMove = move(1, 7, 3, 6);
+		ChessMove killer = move(2, 1, 3, 1);
+		ChessMove capture = move(4, 5, 5, 4);
+
+		int[] killers = {PackedMove.of(killer), PackedMove.NONE};
+		MovePicker picker = new MovePicker(game, PackedMove.of(hashMove), killers, new int[64 * 64], true);
+		List<ChessMove> picked = new ArrayList<>();
+		for (int move = picker.next(); move != PackedMove.NONE; move = picker.next()) {
+			picked.add(PackedMove.toChessMove(move));
+		}
+
+		List<ChessMove> legalMoves = ChessRules.legalMoves(game, ChessGame.TeamColor.WHITE);
+		assertEquals(legalMoves.size(), picked.size());
+		assertEquals(new HashSet<>(legalMoves), new HashSet<>(picked));
+		assertEquals(hashMove, picked.get(0));
+		assertEquals(capture, picked.get(1));
+		assertEquals(killer, picked.get(2));
+	}
+
+	@Test
+	void capturesOnlyPickerSkipsQuietMoves() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		game.makeMoveUnchecked(move(2, 5, 4, 5));
+		game.makeMoveUnchecked(move(7, 4, 5, 4));
+
+		MovePicker picker = new MovePicker(game, PackedMove.of(move(1, 7, 3, 6)), new int[2], new int[64 * 64], false);
+
+		int capture = picker.next();
+		assertEquals(move(4, 5, 5, 4), PackedMove.toChessMove(capture));
+		assertTrue(PackedMove.isCapture(capture));
+		assertEquals(PackedMove.NONE, picker.next());
+	}
+
+	@Test
+	void resetPickerStartsOverOnTheNewNode() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		MovePicker picker = new MovePicker(game, PackedMove.NONE, new int[2], new int[64 * 64], true);
+		picker.next();
+
+		game.makeMoveUnchecked(move(2, 5, 4, 5));
+		game.makeMoveUnchecked(move(7, 4, 5, 4));
+		picker.reset(game, PackedMove.NONE, new int[2], new int[64 * 64], false);
+
+		assertEquals(move(4, 5, 5, 4), PackedMove.toChessMove(picker.next()));
+		assertEquals(PackedMove.NONE, picker.next());
+	}
+
+	private ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+		return new ChessMoveImpl(new ChessPositionImpl(fromRow, fromCol), new ChessPositionImpl(toRow, toCol), null);
+	}
+}
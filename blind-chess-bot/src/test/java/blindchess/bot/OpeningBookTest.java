@@ -0,0 +1,117 @@
+package blindchess.bot;
+
+
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import chess.gameplay.ChessMoveImpl;
+import chess.gameplay.ChessPositionImpl;
+import chess.gameplay.Fen;
+import chess.gameplay.PackedMove;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class OpeningBookTest
+{
+	private static final String PGN = """
+			[Event "First"]
+			[Result "1-0"]
+
+			1. e4 e5 {a comment} 2. Nf3 (2. f4 exf4) Nc6 $1 3. Bb5 1-0
+
+			[Event "Second"]
+			[Result "1/2-1/2"]
+
+			1. e4 c5 2. Nf3 d6 1/2-1/2
+
+			[Event "Third"]
+			[Result "0-1"]
+
+			1.d4 d5 2.c4 0-1
+
+			[Event "Fourth"]
+
+			1. e4 e5 0-1
+			""";
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void weightsMovesByResultForTheSideThatPlayedThem() throws IOException {
+		OpeningBook book = build(PGN);
+		ChessGameImpl game = Fen.load(Fen.STARTING_POSITION);
+
+		// e4 won once (2), drew once (1) and lost once (0); d4 only lost and is left out
+		List<OpeningBook.Entry> entries = book.entries(game.getZobristKey());
+		assertEquals(1, entries.size());
+		assertEquals(PackedMove.of(move(2, 5, 4, 5)), entries.get(0).move());
+		assertEquals(3, entries.get(0).weight());
+
+		game.makeMoveUnchecked(move(2, 5, 4, 5));
+		entries = book.entries(game.getZobristKey());
+		assertEquals(2, entries.size());
+		// Black's e5 lost once (0) and won once (2), c5 drew once (1); heaviest comes first
+		assertEquals(PackedMove.of(move(7, 5, 5, 5)), entries.get(0).move());
+		assertEquals(2, entries.get(0).weight());
+		assertEquals(PackedMove.of(move(7, 3, 5, 3)), entries.get(1).move());
+	}
+
+	@Test
+	void variationsAndPositionsOutsideTheBookAreNotIncluded() throws IOException {
+		OpeningBook book = build(PGN);
+		ChessGameImpl game = Fen.load("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w KQkq e6 0 2");
+
+		assertEquals(1, book.entries(game.getZobristKey()).size());
+		assertTrue(book.entries(Fen.load("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getZobristKey()).isEmpty());
+		assertNull(book.choose(Fen.load("4k3/8/8/8/8/8/8/4K3 w - - 0 1"), new Random(1)));
+	}
+
+	@Test
+	void choosesEveryBookMoveInProportionToItsWeight() throws IOException {
+		OpeningBook book = build(PGN);
+		ChessGameImpl game = Fen.load("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+
+		Set<Integer> chosen = new HashSet<>();
+		Random random = new Random(7);
+		for (int i = 0; i < 50; i++) {
+			chosen.add(PackedMove.of(book.choose(game, random)));
+		}
+		assertEquals(Set.of(PackedMove.of(move(7, 3, 5, 3)), PackedMove.of(move(7, 5, 5, 5))), chosen);
+	}
+
+	@Test
+	void botPlaysFromTheBookThenSearches() throws IOException {
+		BookChessBot bot = new BookChessBot(build(PGN), new MinimaxChessBot(1), new Random(3));
+		ChessGameImpl game = Fen.load(Fen.STARTING_POSITION);
+
+		assertEquals(move(2, 5, 4, 5), bot.chooseMove(game, ChessGame.TeamColor.WHITE));
+		assertNotNull(bot.chooseMove(Fen.load("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"), ChessGame.TeamColor.WHITE));
+	}
+
+	private OpeningBook build(String pgn) throws IOException {
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		builder.addPgn(pgn);
+		assertEquals(4, builder.games());
+		Path file = directory.resolve("book.bin");
+		builder.write(file);
+		return OpeningBook.open(file);
+	}
+
+	private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+		return new ChessMoveImpl(new ChessPositionImpl(fromRow, fromCol), new ChessPositionImpl(toRow, toCol), null);
+	}
+}
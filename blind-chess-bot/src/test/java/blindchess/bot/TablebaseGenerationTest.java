@@ -0,0 +1,61 @@
+package blindchess.bot;
+
+
+import chess.gameplay.Fen;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Builds every three-piece table, which takes long enough to be left to {@code mvn test -Pslow}.
+ */
+@Tag("slow")
+class TablebaseGenerationTest
+{
+	@TempDir
+	static Path directory;
+
+	private static Tablebase tablebase;
+	private static List<TablebaseGenerator.Generated> generated;
+
+	@BeforeAll
+	static void generateTables() throws IOException {
+		// KPvK depends on every other three-piece table through its promotions
+		generated = new TablebaseGenerator(directory).generate("KPvK");
+		tablebase = new Tablebase(directory);
+	}
+
+	@Test
+	void buildsEveryThreePieceTable() {
+		assertEquals(List.of("KQvK", "KRvK", "KBvK", "KNvK", "KPvK"), TablebaseGenerator.tableNames(3));
+		assertEquals(TablebaseGenerator.tableNames(3), generated.stream().map(TablebaseGenerator.Generated::name).toList());
+		for (String name : TablebaseGenerator.tableNames(3)) {
+			assertTrue(Files.isRegularFile(directory.resolve(name + Tablebase.FILE_SUFFIX)), name);
+		}
+	}
+
+	@Test
+	void knowsTheOppositionInKingAndPawnEndings() {
+		// The king on the sixth ahead of its pawn wins whoever moves; further back, only with the opposition
+		assertEquals(Tablebase.Outcome.WIN, tablebase.probe(Fen.load("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1")).outcome());
+		assertEquals(Tablebase.Outcome.LOSS, tablebase.probe(Fen.load("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1")).outcome());
+		assertEquals(Tablebase.Outcome.DRAW, tablebase.probe(Fen.load("8/8/4k3/8/4K3/4P3/8/8 w - - 0 1")).outcome());
+		assertEquals(Tablebase.Outcome.LOSS, tablebase.probe(Fen.load("8/8/4k3/8/4K3/4P3/8/8 b - - 0 1")).outcome());
+		assertEquals(Tablebase.Outcome.DRAW, tablebase.probe(Fen.load("8/8/8/8/8/2k5/8/KB6 w - - 0 1")).outcome());
+	}
+
+	@Test
+	void rookMatesFromTheCorner() {
+		assertEquals(Tablebase.Outcome.WIN, tablebase.probe(Fen.load("8/8/8/4k3/8/8/8/R3K3 w - - 0 1")).outcome());
+	}
+}
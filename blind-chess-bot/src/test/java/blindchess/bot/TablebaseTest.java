@@ -0,0 +1,73 @@
+package blindchess.bot;
+
+
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.ChessMove;
+import chess.gameplay.Fen;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Probes a single small table; {@link TablebaseGenerationTest} builds every three-piece table.
+ */
+class TablebaseTest
+{
+	@TempDir
+	static Path directory;
+
+	private static Tablebase tablebase;
+	private static List<TablebaseGenerator.Generated> generated;
+
+	@BeforeAll
+	static void generateTable() throws IOException {
+		// Captures only lead to bare kings, so no other table is needed
+		generated = new TablebaseGenerator(directory).generate("KQvK");
+		tablebase = new Tablebase(directory);
+	}
+
+	@Test
+	void generatesOnlyWhatTheTableNeeds() {
+		assertEquals(List.of("KQvK"), generated.stream().map(TablebaseGenerator.Generated::name).toList());
+	}
+
+	@Test
+	void findsMateInOneForEitherColor() {
+		assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), tablebase.probe(Fen.load("7k/8/6K1/8/8/8/8/1Q6 w - - 0 1")));
+		// The same position with colors swapped is looked up in the same table
+		assertEquals(new Tablebase.Result(Tablebase.Outcome.WIN, 1), tablebase.probe(Fen.load("1q6/8/8/8/8/6k1/8/7K b - - 0 1")));
+		assertEquals(new Tablebase.Result(Tablebase.Outcome.LOSS, 0), tablebase.probe(Fen.load("1Q5k/8/6K1/8/8/8/8/8 b - - 0 1")));
+	}
+
+	@Test
+	void skipsPositionsItCannotAnswer() {
+		assertNull(tablebase.probe(Fen.load(Fen.STARTING_POSITION)));
+		// Four pieces, but no four-piece table was generated
+		assertNull(tablebase.probe(Fen.load("4k3/8/8/8/8/8/8/R3K2R w - - 0 1")));
+		// Nor the rook table
+		assertNull(tablebase.probe(Fen.load("8/8/8/4k3/8/8/8/R3K3 w - - 0 1")));
+	}
+
+	@Test
+	void botMatesInTheTablesDistance() {
+		MinimaxChessBot bot = new MinimaxChessBot(BotConfig.DEFAULTS.withDefaultLimits(SearchLimits.depth(1)).withTablebase(tablebase));
+		ChessGameImpl game = Fen.load("8/8/8/3k4/8/8/8/Q3K3 w - - 0 1");
+		int plies = tablebase.probe(game).plies();
+
+		for (int ply = 0; ply < plies; ply++) {
+			ChessMove move = bot.chooseMove(game, game.getTeamTurn());
+			game.makeMoveUnchecked(move);
+		}
+		assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+	}
+}
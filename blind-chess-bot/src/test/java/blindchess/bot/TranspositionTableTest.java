@@ -0,0 +1,78 @@
+package blindchess.bot;
+
+
+import blindchess.notation.ChessNotation;
+import chess.gameplay.ChessGameImpl;
+import chess.gameplay.InvalidMoveException;
+import chess.gameplay.PackedMove;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class TranspositionTableTest
+{
+	@Test
+	void storedEntryRoundTrips() {
+		TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+		int move = PackedMove.of(12, 28, null);
+
+		table.store(42L, 5, TranspositionTable.Bound.LOWER, -317, move);
+		long entry = table.probe(42L);
+
+		assertEquals(-317, TranspositionTable.score(entry));
+		assertEquals(move, TranspositionTable.move(entry));
+		assertEquals(5, TranspositionTable.depth(entry));
+		assertEquals(TranspositionTable.Bound.LOWER, TranspositionTable.bound(entry));
+		assertEquals(0L, table.probe(43L));
+	}
+
+	@Test
+	void depthPreferredKeepsDeeperEntryWithinOneSearch() {
+		TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+		long otherKey = 7L + ((long) table.capacity() << 1);
+
+		table.store(7L, 6, TranspositionTable.Bound.EXACT, 10, PackedMove.NONE);
+		table.store(otherKey, 2, TranspositionTable.Bound.EXACT, 20, PackedMove.NONE);
+		assertEquals(6, TranspositionTable.depth(table.probe(7L)));
+
+		for (int search = 0; search < TranspositionTable.RECENT_GENERATIONS; search++) {
+			table.newSearch();
+		}
+		table.store(otherKey, 2, TranspositionTable.Bound.EXACT, 20, PackedMove.NONE);
+		assertEquals(20, TranspositionTable.score(table.probe(otherKey)));
+	}
+
+	@Test
+	void recentEntriesStayProtectedAcrossTheGenerationWrap() {
+		TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+		long otherKey = 7L + ((long) table.capacity() << 1);
+		// To the last generation before the wrap back to 1
+		for (int search = 0; search < 62; search++) {
+			table.newSearch();
+		}
+		table.store(7L, 6, TranspositionTable.Bound.EXACT, 10, PackedMove.NONE);
+
+		// An overlapping search that started just after, in generation 1
+		table.newSearch();
+		table.store(otherKey, 2, TranspositionTable.Bound.EXACT, 20, PackedMove.NONE);
+		assertEquals(10, TranspositionTable.score(table.probe(7L)));
+	}
+
+	@Test
+	void transposedMoveOrdersShareAKey() throws InvalidMoveException {
+		ChessGameImpl first = new ChessGameImpl();
+		first.getBoard().resetBoard();
+		ChessGameImpl second = new ChessGameImpl();
+		second.getBoard().resetBoard();
+
+		for (String notation : new String[] {"Nf3", "Nf6", "e4"}) {
+			first.makeMove(ChessNotation.parse(notation, first));
+		}
+		for (String notation : new String[] {"e4", "Nf6", "Nf3"}) {
+			second.makeMove(ChessNotation.parse(notation, second));
+		}
+
+		assertEquals(first.getZobristKey(), second.getZobristKey());
+	}
+}
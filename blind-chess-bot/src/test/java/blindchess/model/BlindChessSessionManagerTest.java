@@ -0,0 +1,34 @@
+package blindchess.model;
+
+
+import blindchess.bot.ChessBot;
+import blindchess.bot.MinimaxChessBot;
+import chess.gameplay.ChessGame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+
+class BlindChessSessionManagerTest
+{
+	private final ChessBot bot = new MinimaxChessBot(1);
+
+	@Test
+	void moveIsPlayedOnReloadedSession(@TempDir Path spillDirectory) {
+		BlindChessSessionManager manager = new BlindChessSessionManager(bot,
+				SessionManagerConfig.DEFAULTS.withMaxSessions(1).withSpillDirectory(spillDirectory));
+		String sessionId = manager.createSession(GameMode.HISTORY, ChessGame.TeamColor.WHITE).getSessionId();
+		BlindChessSession fetched = manager.getSession(sessionId);
+		// Pushes the first game out of memory, leaving the fetched copy closed
+		manager.createSession(GameMode.HISTORY, ChessGame.TeamColor.WHITE);
+
+		BlindChessSessionManager.PlayedMove move = manager.acceptPlayerMove(sessionId, "e4");
+		assertNotSame(fetched, move.session());
+		assertEquals("e4", move.san());
+		assertEquals("e4", manager.getSession(sessionId).capture().moveHistory().get(0));
+	}
+}
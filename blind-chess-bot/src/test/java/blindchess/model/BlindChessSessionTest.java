@@ -1,9 +1,18 @@
 package blindchess.model;
 
 
+import blindchess.bot.ChessBot;
 import blindchess.bot.MinimaxChessBot;
+import blindchess.bot.SearchLimits;
+import chess.gameplay.ChessGame;
+import chess.gameplay.ChessMove;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -57,4 +66,126 @@ class BlindChessSessionTest
 		assertNotNull(session.getLatestMove());
 		assertTrue(session.isPlayerTurn());
 	}
+
+	@Test
+	void startingFenSetsPositionAndMoveNumbers() {
+		// Black to move on move 10, so the bot replies first when the player takes White
+		BlindChessSession session = new BlindChessSession(
+				"session-fen",
+				GameMode.HISTORY,
+				chess.gameplay.ChessGame.TeamColor.WHITE,
+				new MinimaxChessBot(1),
+				SessionOptions.DEFAULTS.withStartingFen("4k3/8/8/8/8/8/4P3/4K3 b - - 3 10")
+		);
+
+		assertTrue(session.isPlayerTurn());
+		assertTrue(session.getVisibleHistory().get(0).startsWith("10... "));
+		assertTrue(session.getFen().endsWith(" w - - 4 11"));
+	}
+
+	@Test
+	void startingFenMayAlreadyBeDecided() {
+		BlindChessSession session = new BlindChessSession(
+				"session-mated",
+				GameMode.HISTORY,
+				chess.gameplay.ChessGame.TeamColor.WHITE,
+				new MinimaxChessBot(1),
+				SessionOptions.DEFAULTS.withStartingFen("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1")
+		);
+
+		assertEquals(SessionStatus.CHECKMATE, session.getStatus());
+		assertFalse(session.isPlayerTurn());
+	}
+
+	@Test
+	void acceptedMoveLeavesBotReplyPending() {
+		BlindChessSession session = new BlindChessSession(
+				"session-pending",
+				GameMode.HISTORY,
+				chess.gameplay.ChessGame.TeamColor.WHITE,
+				new MinimaxChessBot(1)
+		);
+
+		assertEquals("e4", session.acceptPlayerMove("e4"));
+		assertTrue(session.isBotPending());
+		assertFalse(session.isPlayerTurn());
+		assertEquals("e4", session.getLatestMove());
+
+		String botMove = session.playPendingBotTurn();
+		assertNotNull(botMove);
+		assertFalse(session.isBotPending());
+		assertTrue(session.isPlayerTurn());
+		assertEquals(botMove, session.getLatestMove());
+	}
+
+	@Test
+	void listenersHearEachStepOfATurn() {
+		// Black to move first, so the history opens with "10... "
+		BlindChessSession session = new BlindChessSession(
+				"session-listened",
+				GameMode.HISTORY,
+				chess.gameplay.ChessGame.TeamColor.BLACK,
+				new MinimaxChessBot(1),
+				SessionOptions.DEFAULTS.withStartingFen("4k3/8/8/8/8/8/4P3/4K3 b - - 3 10")
+		);
+		List<String> heard = new ArrayList<>();
+		session.addListener(new SessionListener()
+		{
+			@Override
+			public void movePlayed(BlindChessSession session, int moveCount, ChessGame.TeamColor color, String san) {
+				heard.add(moveCount + " " + color + " " + session.getLatestHistoryLine());
+			}
+
+			@Override
+			public void botThinking(BlindChessSession session) {
+				heard.add("thinking");
+			}
+		});
+
+		session.playPlayerMove("Kd7");
+		List<String> history = session.getVisibleHistory();
+		assertEquals(List.of("1 BLACK 10... Kd7", "thinking", "2 WHITE " + history.get(1)), heard);
+		assertEquals(history.get(history.size() - 1), session.getLatestHistoryLine());
+	}
+
+	@Test
+	void ponderedReplyIsAnsweredWithoutSearching() throws InterruptedException {
+		// All twenty replies to the bot's first move are pondered
+		CountingBot bot = new CountingBot();
+		Ponderer ponderer = new Ponderer(1, 20);
+		BlindChessSession session = new BlindChessSession(
+				"session-ponder",
+				GameMode.HISTORY,
+				chess.gameplay.ChessGame.TeamColor.BLACK,
+				bot,
+				SessionOptions.DEFAULTS.withPonderer(ponderer).withLeaveOpeningBotMovePending(true)
+		);
+		session.playPendingBotTurn();
+		while (ponderer.activeSearches() > 0) {
+			Thread.sleep(1);
+		}
+		int searches = bot.searches.get();
+
+		BlindChessSession.TurnOutcome outcome = session.playPlayerMove("Nf6");
+
+		assertNotNull(outcome.botMove());
+		assertEquals(searches, bot.searches.get());
+	}
+
+	private static final class CountingBot implements ChessBot
+	{
+		private final ChessBot bot = new MinimaxChessBot(1);
+		private final AtomicInteger searches = new AtomicInteger();
+
+		@Override
+		public ChessMove chooseMove(ChessGame game, ChessGame.TeamColor teamColor) {
+			searches.incrementAndGet();
+			return bot.chooseMove(game, teamColor);
+		}
+
+		@Override
+		public ChessMove ponder(ChessGame game, ChessGame.TeamColor teamColor, SearchLimits limits, AtomicBoolean cancelled) {
+			return bot.ponder(game, teamColor, limits, cancelled);
+		}
+	}
 }
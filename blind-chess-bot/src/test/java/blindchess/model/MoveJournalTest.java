@@ -0,0 +1,97 @@
+package blindchess.model;
+
+
+import blindchess.bot.ChessBot;
+import blindchess.bot.MinimaxChessBot;
+import chess.gameplay.ChessGame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class MoveJournalTest
+{
+	private final ChessBot bot = new MinimaxChessBot(1);
+
+	@Test
+	void sessionIsRecoveredFromSnapshotAndJournal(@TempDir Path directory) throws Exception {
+		BlindChessSession session = new BlindChessSession("journaled", GameMode.HISTORY, ChessGame.TeamColor.WHITE, bot);
+		try (MoveJournal journal = new MoveJournal(directory, 3)) {
+			journal.start(session);
+			// Four moves: a snapshot after the third, the fourth journaled after it
+			session.playPlayerMove("e4");
+			session.playPlayerMove("d4");
+			journal.sync().join();
+		}
+		assertEquals(1, Files.readAllLines(directory.resolve("journaled.journal")).size());
+
+		try (MoveJournal journal = new MoveJournal(directory, 3)) {
+			BlindChessSession recovered = journal.recover("journaled", bot, null);
+			assertEquals(session.getFen(), recovered.getFen());
+			assertEquals(session.getVisibleHistory(), recovered.getVisibleHistory());
+			assertTrue(recovered.isPlayerTurn());
+
+			// Recovered sessions keep journaling
+			recovered.resignPlayer();
+			assertEquals(SessionStatus.RESIGNED, journal.recover("journaled", bot, null).getStatus());
+			assertNull(journal.recover("unknown", bot, null));
+		}
+	}
+
+	@Test
+	void pendingBotMoveStaysPendingAfterRecovery(@TempDir Path directory) {
+		BlindChessSession session = new BlindChessSession("pending", GameMode.NO_HISTORY, ChessGame.TeamColor.WHITE, bot);
+		try (MoveJournal journal = new MoveJournal(directory, MoveJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+			journal.start(session);
+			session.acceptPlayerMove("e4");
+		}
+
+		try (MoveJournal journal = new MoveJournal(directory, MoveJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+			BlindChessSession recovered = journal.recover("pending", bot, null);
+			assertTrue(recovered.isBotPending());
+			assertEquals(List.of("e4"), recovered.getVisibleHistory());
+			assertTrue(recovered.playPendingBotTurn() != null);
+		}
+	}
+
+	@Test
+	void finishedGameIsDeletedWhenClosed(@TempDir Path directory) throws Exception {
+		BlindChessSession session = new BlindChessSession("finished", GameMode.HISTORY, ChessGame.TeamColor.WHITE, bot);
+		try (MoveJournal journal = new MoveJournal(directory, MoveJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+			journal.start(session);
+			session.playPlayerMove("e4");
+			session.resignPlayer();
+			session.close();
+		}
+
+		try (var files = Files.list(directory)) {
+			assertFalse(files.findAny().isPresent());
+		}
+	}
+
+	@Test
+	void writeFailureIsReportedToTheNextSync(@TempDir Path directory) {
+		// Not a name the journal will give a file
+		BlindChessSession session = new BlindChessSession("not/a/file", GameMode.HISTORY, ChessGame.TeamColor.WHITE, bot);
+		try (MoveJournal journal = new MoveJournal(directory, MoveJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+			journal.start(session);
+			CompletionException failure = assertThrows(CompletionException.class, () -> journal.sync().join());
+			assertInstanceOf(UncheckedIOException.class, failure.getCause());
+
+			// Reported once; the journal carries on for everything else
+			journal.sync().join();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package blindchess.model;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class SearchSchedulerTest
+{
+	@Test
+	void sessionHasOneTurnInFlight() throws Exception {
+		SearchScheduler scheduler = new SearchScheduler(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+
+		CompletableFuture<String> first = scheduler.schedule("session", () -> await(release, "e5"));
+		CompletableFuture<String> second = scheduler.schedule("session", () -> "never run");
+		assertSame(first, second);
+
+		release.countDown();
+		assertEquals("e5", first.get(5, TimeUnit.SECONDS));
+		assertEquals("d5", scheduler.schedule("session", () -> "d5").get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void fullQueueRefusesNewSessions() throws Exception {
+		SearchScheduler scheduler = new SearchScheduler(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+
+		CompletableFuture<String> running = scheduler.schedule("running", () -> {
+			started.countDown();
+			return await(release, "e5");
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		CompletableFuture<String> queued = scheduler.schedule("queued", () -> "d5");
+		assertEquals(1, scheduler.queuedTurns());
+		assertThrows(RejectedExecutionException.class, () -> scheduler.schedule("refused", () -> "c5"));
+
+		release.countDown();
+		assertEquals("e5", running.get(5, TimeUnit.SECONDS));
+		assertEquals("d5", queued.get(5, TimeUnit.SECONDS));
+		// A refused session is not left marked as in flight
+		assertEquals("c5", scheduler.schedule("refused", () -> "c5").get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void failedTurnLeavesSessionFree() throws Exception {
+		SearchScheduler scheduler = new SearchScheduler(1, 1);
+
+		CompletableFuture<String> failed = scheduler.schedule("session", () -> {
+			throw new StackOverflowError();
+		});
+		ExecutionException thrown = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(StackOverflowError.class, thrown.getCause());
+		assertEquals("e5", scheduler.schedule("session", () -> "e5").get(5, TimeUnit.SECONDS));
+	}
+
+	private static String await(CountDownLatch latch, String result) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return result;
+	}
+}
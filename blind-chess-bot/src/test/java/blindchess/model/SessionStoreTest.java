@@ -0,0 +1,106 @@
+package blindchess.model;
+
+
+import blindchess.bot.ChessBot;
+import blindchess.bot.MinimaxChessBot;
+import chess.gameplay.ChessGame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class SessionStoreTest
+{
+	private final ChessBot bot = new MinimaxChessBot(1);
+	private final AtomicLong now = new AtomicLong();
+
+	@Test
+	void idleGameIsSpilledAndReloaded(@TempDir Path spillDirectory) {
+		SessionStore store = store(Duration.ofMinutes(1), 10, spillDirectory);
+		BlindChessSession session = session("spilled");
+		session.playPlayerMove("e4");
+		store.add(session);
+
+		now.addAndGet(Duration.ofMinutes(2).toMillis());
+		store.reap();
+		assertEquals(new SessionStore.Metrics(0, 0, 1, 0, 0), store.metrics());
+		assertTrue(Files.exists(spillDirectory.resolve("spilled.json")));
+
+		BlindChessSession reloaded = store.get("spilled");
+		assertNotSame(session, reloaded);
+		assertEquals(session.getFen(), reloaded.getFen());
+		assertEquals(session.getVisibleHistory(), reloaded.getVisibleHistory());
+		assertTrue(reloaded.isPlayerTurn());
+		assertSame(reloaded, store.get("spilled"));
+		assertEquals(new SessionStore.Metrics(1, 0, 1, 1, 0), store.metrics());
+
+		reloaded.playPlayerMove("d4");
+		assertTrue(reloaded.getVisibleHistory().get(1).startsWith("2. d4"));
+	}
+
+	@Test
+	void finishedGamesAreEvictedFirst(@TempDir Path spillDirectory) {
+		SessionStore store = store(null, 2, spillDirectory);
+		BlindChessSession resigned = session("resigned");
+		resigned.resignPlayer();
+		store.add(resigned);
+		now.incrementAndGet();
+		BlindChessSession active = session("active");
+		store.add(active);
+		now.incrementAndGet();
+		store.get("resigned");
+
+		// The resigned game was used more recently, but finished games leave before games in progress
+		store.add(session("newest"));
+		assertEquals(new SessionStore.Metrics(2, 1, 0, 0, 0), store.metrics());
+		assertThrows(IllegalArgumentException.class, () -> store.get("resigned"));
+		assertSame(active, store.get("active"));
+	}
+
+	@Test
+	void gamesAreForgottenWithoutSpillDirectory() {
+		SessionStore store = store(null, 1, null);
+		store.add(session("first"));
+		now.incrementAndGet();
+		store.add(session("second"));
+
+		assertEquals(new SessionStore.Metrics(1, 0, 0, 0, 1), store.metrics());
+		assertThrows(IllegalArgumentException.class, () -> store.get("first"));
+	}
+
+	@Test
+	void moveOnSessionEvictedAfterGetIsRefused(@TempDir Path spillDirectory) {
+		SessionStore store = store(null, 1, spillDirectory);
+		store.add(session("first"));
+		BlindChessSession fetched = store.get("first");
+
+		// Another game pushes the first out of memory before the request holding it plays its move
+		now.incrementAndGet();
+		store.add(session("second"));
+		assertThrows(SessionClosedException.class, () -> fetched.acceptPlayerMove("e4"));
+		assertThrows(SessionClosedException.class, fetched::resignPlayer);
+
+		BlindChessSession reloaded = store.get("first");
+		assertNotSame(fetched, reloaded);
+		assertEquals("e4", reloaded.acceptPlayerMove("e4"));
+	}
+
+	private SessionStore store(Duration idleTimeout, int maxSessions, Path spillDirectory) {
+		return new SessionStore(idleTimeout, maxSessions, spillDirectory,
+				snapshot -> new BlindChessSession(snapshot, bot, null), null, now::get, false);
+	}
+
+	private BlindChessSession session(String sessionId) {
+		return new BlindChessSession(sessionId, GameMode.HISTORY, ChessGame.TeamColor.WHITE, bot);
+	}
+}
@@ -0,0 +1,63 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+import chess.pieces.ChessPieceImpl;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class AttacksTest
+{
+	@Test
+	void slidersStopOnTheFirstBlockerInEveryDirection() {
+		int d4 = Bitboards.square(4, 4);
+		long blockers = bit(6, 4) | bit(4, 2) | bit(2, 2) | bit(7, 7);
+
+		assertEquals(bit(5, 4) | bit(6, 4) | bit(3, 4) | bit(2, 4) | bit(1, 4)
+				| bit(4, 5) | bit(4, 6) | bit(4, 7) | bit(4, 8) | bit(4, 3) | bit(4, 2), Attacks.rook(d4, blockers));
+		assertEquals(bit(5, 5) | bit(6, 6) | bit(7, 7) | bit(5, 3) | bit(6, 2) | bit(7, 1)
+				| bit(3, 5) | bit(2, 6) | bit(1, 7) | bit(3, 3) | bit(2, 2), Attacks.bishop(d4, blockers));
+	}
+
+	@Test
+	void betweenAndLineFollowSharedRays() {
+		int a1 = Bitboards.square(1, 1);
+		int d4 = Bitboards.square(4, 4);
+
+		assertEquals(bit(2, 2) | bit(3, 3), Attacks.between(a1, d4));
+		assertEquals(Attacks.between(a1, d4), Attacks.between(d4, a1));
+		assertEquals(Attacks.bishop(a1, 0) & Attacks.bishop(Bitboards.square(8, 8), 0) | bit(1, 1) | bit(8, 8), Attacks.line(a1, d4));
+		assertEquals(0, Attacks.between(a1, Bitboards.square(2, 3)));
+		assertEquals(0, Attacks.line(a1, Bitboards.square(2, 3)));
+	}
+
+	@Test
+	void isSquareAttackedAgreesWithAttackersTo() {
+		for (Perft.Case perftCase : Perft.STANDARD_CASES) {
+			ChessBoardImpl board = Fen.load(perftCase.fen()).getBoard();
+			for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+				for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+					boolean attacked = Attacks.attackersTo(board, square, color, board.occupancy()) != 0;
+					assertEquals(attacked, board.isSquareAttacked(square, color), perftCase.name() + " square " + square);
+				}
+			}
+		}
+	}
+
+	@Test
+	void checkDetectionStopsAtBlockers() {
+		ChessGameImpl game = Fen.load("4k3/8/8/8/8/8/4R3/4K3 b - - 0 1");
+		assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+
+		game.getBoard().addPiece(ChessPositionImpl.of(5, 5), new ChessPieceImpl(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+		assertFalse(game.isInCheck(ChessGame.TeamColor.BLACK));
+	}
+
+	private static long bit(int row, int col) {
+		return Bitboards.bit(Bitboards.square(row, col));
+	}
+}
@@ -0,0 +1,92 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+class ChessBoardImplTest
+{
+	@Test
+	void masksAgreeWithSquaresOnAFullBoard() {
+		ChessBoardImpl board = new ChessBoardImpl();
+		board.resetBoard();
+		assertMasksAgree(board, "reset");
+		assertEquals(Bitboards.square(1, 5), board.kingSquare(ChessGame.TeamColor.WHITE));
+		assertEquals(Bitboards.square(8, 5), board.kingSquare(ChessGame.TeamColor.BLACK));
+	}
+
+	@Test
+	void replacingAndRemovingPiecesKeepsMasksInStep() {
+		ChessBoardImpl board = new ChessBoardImpl();
+		board.resetBoard();
+		ChessPiece knight = TestBoards.piece('N');
+
+		// Onto a black pawn, which has to leave the black masks
+		board.addPiece(TestBoards.position("d7"), knight);
+		board.removePiece(TestBoards.position("b1"));
+		board.removePiece(TestBoards.position("d4"));
+		// A null piece empties the square, by either kind of address
+		board.addPiece(TestBoards.position("a2"), null);
+		board.addPiece(Bitboards.square(7, 1), null);
+		assertNull(board.getPiece(Bitboards.square(2, 1)));
+		assertNull(board.getPiece(TestBoards.position("a7")));
+		assertSame(knight, board.getPiece(Bitboards.square(7, 4)));
+		assertNull(board.getPiece(TestBoards.position("b1")));
+		assertMasksAgree(board, "edited");
+
+		ChessBoardImpl copy = ChessBoardImpl.copyOf(board);
+		assertMasksAgree(copy, "copy");
+		assertEquals(board.pieceKey(), copy.pieceKey());
+	}
+
+	@Test
+	void drawnBoardsAgreeToo() {
+		assertMasksAgree(TestBoards.board(
+				"r...k..r",
+				"p.ppqpb.",
+				"bn..pnp.",
+				"...PN...",
+				".p..P...",
+				"..N..Q.p",
+				"PPPBBPPP",
+				"R...K..R"), "kiwipete");
+	}
+
+	@Test
+	void masksAgreeWithSquaresInStandardPositions() {
+		for (Perft.Case perftCase : Perft.STANDARD_CASES) {
+			assertMasksAgree(Fen.load(perftCase.fen()).getBoard(), perftCase.name());
+		}
+	}
+
+	private static void assertMasksAgree(ChessBoardImpl board, String name) {
+		long occupied = 0;
+		for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+			long team = 0;
+			for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+				long mask = board.pieces(color, type);
+				assertEquals(0, team & mask, name);
+				team |= mask;
+			}
+			assertEquals(team, board.occupancy(color), name + " " + color);
+			occupied |= team;
+		}
+		assertEquals(occupied, board.occupancy(), name);
+
+		for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+			ChessPiece piece = board.getPiece(square);
+			assertSame(piece, board.getPiece(Bitboards.position(square)), name + " square " + square);
+			if (piece == null) {
+				assertEquals(0, occupied & Bitboards.bit(square), name + " square " + square);
+			} else {
+				assertEquals(Bitboards.bit(square), board.pieces(piece.teamColor(), piece.getPieceType()) & Bitboards.bit(square),
+						name + " square " + square);
+			}
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class ChessGameImplTest
+{
+	@Test
+	void unmakeRestoresEveryMoveAndKeyTwoPliesDeep() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.setBoard(TestBoards.board(
+				"r...k..r",
+				".P......",
+				"........",
+				"...pP...",
+				"........",
+				"........",
+				"......p.",
+				"R...K..R"));
+		game.getBoard().setLastMove(new ChessMoveImpl(TestBoards.position("d7"), TestBoards.position("d5"), null));
+		game.getBoard().getPiece(TestBoards.position("d5")).markAsMoved();
+
+		// Castling, en passant and promotions, with and without capture, all come up
+		Set<String> moves = names(game.allValidMoves(ChessGame.TeamColor.WHITE));
+		assertTrue(moves.containsAll(List.of("e1c1", "e5d6", "b7b8q", "b7a8n")), moves.toString());
+
+		roundTrip(game, 2, "");
+	}
+
+	// Castling, en passant, promotions and captures all come up within two plies of these
+	@Test
+	void unmakeRestoresStandardPositionsTwoPliesDeep() {
+		for (Perft.Case perftCase : Perft.STANDARD_CASES) {
+			roundTrip(Fen.load(perftCase.fen()), 2, perftCase.name());
+		}
+	}
+
+	@Test
+	void unmakeWithoutMoveIsRefused() {
+		ChessGameImpl game = new ChessGameImpl();
+		game.getBoard().resetBoard();
+		assertThrows(IllegalStateException.class, game::unmakeMove);
+	}
+
+	private static void roundTrip(ChessGameImpl game, int depth, String line) {
+		String state = state(game);
+		String fen = Fen.toFen(game);
+		long key = game.getZobristKey();
+		for (ChessMove move : game.allValidMoves(game.getTeamTurn())) {
+			String moveLine = line + " " + name(move);
+			game.makeMoveUnchecked(move);
+			// The incrementally updated key matches one computed from scratch
+			assertEquals(freshKey(game), game.getZobristKey(), moveLine);
+			assertEquals(Fen.load(Fen.toFen(game)).getZobristKey(), game.getZobristKey(), moveLine);
+			if (depth > 1) {
+				roundTrip(game, depth - 1, moveLine);
+			}
+			game.unmakeMove();
+			assertEquals(state, state(game), moveLine);
+			assertEquals(fen, Fen.toFen(game), moveLine);
+			assertEquals(key, game.getZobristKey(), moveLine);
+		}
+	}
+
+	private static long freshKey(ChessGameImpl game) {
+		ChessGameImpl copy = new ChessGameImpl();
+		copy.setBoard(ChessBoardImpl.copyOf(game.getBoard()));
+		copy.setTeamTurn(game.getTeamTurn());
+		return copy.getZobristKey();
+	}
+
+	// Every piece with its moved flag, the turn and the last move
+	private static String state(ChessGameImpl game) {
+		StringBuilder state = new StringBuilder();
+		ChessBoardImpl board = game.getBoard();
+		for (int square = 0; square < Bitboards.SQUARE_COUNT; square++) {
+			ChessPiece piece = board.getPiece(square);
+			state.append(piece == null ? "." : piece.teamColor().name().charAt(0) + piece.getPieceType().name()
+					+ (piece.hasMoved() ? "*" : "")).append(' ');
+		}
+		ChessMove lastMove = board.getLastMove();
+		return state.append(game.getTeamTurn()).append(' ').append(lastMove == null ? "-" : name(lastMove))
+				.append(' ').append(board.occupancy()).toString();
+	}
+
+	private static Set<String> names(List<ChessMove> moves) {
+		Set<String> names = new TreeSet<>();
+		for (ChessMove move : moves) {
+			names.add(name(move));
+		}
+		return names;
+	}
+
+	private static String name(ChessMove move) {
+		ChessPiece.PieceType promotion = move.getPromotionPiece();
+		return TestBoards.name(move.getStartPosition()) + TestBoards.name(move.getEndPosition())
+				+ (promotion == null ? "" : promotion == ChessPiece.PieceType.KNIGHT ? "n" : promotion.name().substring(0, 1).toLowerCase());
+	}
+}
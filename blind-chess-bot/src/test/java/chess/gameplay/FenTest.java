@@ -0,0 +1,66 @@
+package chess.gameplay;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+class FenTest
+{
+	@Test
+	void standardPositionsRoundTrip() {
+		assertEquals(Fen.STARTING_POSITION, Fen.toFen(Fen.load(Fen.STARTING_POSITION)));
+		for (Perft.Case perftCase : Perft.STANDARD_CASES) {
+			assertEquals(perftCase.fen(), Fen.toFen(Fen.load(perftCase.fen())), perftCase.name());
+		}
+	}
+
+	@Test
+	void clocksAdvanceWithMovesAndUnwindWithUnmake() {
+		ChessGameImpl game = Fen.load(Fen.STARTING_POSITION);
+
+		game.makeMoveUnchecked(new ChessMoveImpl(new ChessPositionImpl(1, 7), new ChessPositionImpl(3, 6), null));
+		game.makeMoveUnchecked(new ChessMoveImpl(new ChessPositionImpl(7, 5), new ChessPositionImpl(5, 5), null));
+		assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/5N2/PPPPPPPP/RNBQKB1R w KQkq e6 0 2", Fen.toFen(game));
+
+		game.makeMoveUnchecked(new ChessMoveImpl(new ChessPositionImpl(3, 6), new ChessPositionImpl(1, 7), null));
+		assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/8/PPPPPPPP/RNBQKBNR b KQkq - 1 2", Fen.toFen(game));
+
+		game.unmakeMove();
+		game.unmakeMove();
+		game.unmakeMove();
+		assertEquals(Fen.STARTING_POSITION, Fen.toFen(game));
+	}
+
+	@Test
+	void nullMoveDropsEnPassantAndIsTakenBack() {
+		String fen = "rnbqkbnr/pppp1ppp/8/4p3/8/5N2/PPPPPPPP/RNBQKB1R w KQkq e6 0 2";
+		ChessGameImpl game = Fen.load(fen);
+		long key = game.getZobristKey();
+
+		game.makeNullMove();
+		assertEquals("rnbqkbnr/pppp1ppp/8/4p3/8/5N2/PPPPPPPP/RNBQKB1R b KQkq - 1 2", Fen.toFen(game));
+
+		game.unmakeMove();
+		assertEquals(fen, Fen.toFen(game));
+		assertEquals(key, game.getZobristKey());
+	}
+
+	@Test
+	void countersDefaultWhenOmitted() {
+		assertEquals(Fen.STARTING_POSITION, Fen.toFen(Fen.load("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq -")));
+	}
+
+	@Test
+	void rejectsMalformedAndUnplayablePositions() {
+		assertThrows(IllegalArgumentException.class, () -> Fen.load("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+		assertThrows(IllegalArgumentException.class, () -> Fen.load("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+		assertThrows(IllegalArgumentException.class, () -> Fen.load("8/8/8/8/8/8/8/4K3 w - - 0 1"));
+		assertThrows(IllegalArgumentException.class, () -> Fen.load("4k3/8/8/8/8/8/8/4K2P w - - 0 1"));
+		// Black to move, yet the white king is already attacked by the rook
+		assertThrows(IllegalArgumentException.class, () -> Fen.load("4k3/8/8/8/8/8/8/r3K3 b - - 0 1"));
+		assertThrows(IllegalArgumentException.class, () -> Fen.load("4k3/8/8/8/8/8/8/4K3 w K - 0 1"));
+	}
+}
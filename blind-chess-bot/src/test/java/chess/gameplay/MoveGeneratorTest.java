@@ -0,0 +1,94 @@
+package chess.gameplay;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+class MoveGeneratorTest
+{
+	@Test
+	void pinnedPiecesOnlyMoveAlongThePin() {
+		// The knight is pinned on the file, the bishop on the diagonal
+		ChessBoardImpl board = TestBoards.board(
+				"....k...",
+				"....r...",
+				"........",
+				"........",
+				".......b",
+				"........",
+				"....NB..",
+				"....K...");
+
+		assertEquals(Set.of(), moves(board, Bitboards.bit(Bitboards.square(2, 5))));
+		assertEquals(Set.of("f2g3", "f2h4"), moves(board, Bitboards.bit(Bitboards.square(2, 6))));
+	}
+
+	@Test
+	void checkIsAnsweredByBlockingOrMovingTheKing() {
+		ChessBoardImpl board = TestBoards.board(
+				"....r.k.",
+				"........",
+				"........",
+				"........",
+				"........",
+				"........",
+				"...N....",
+				"R...K...");
+
+		assertEquals(Set.of("e1d1", "e1f1", "e1f2", "d2e4"), moves(board, ~0L));
+	}
+
+	@Test
+	void doubleCheckIsOnlyAnsweredByTheKing() {
+		// The queen could take the knight, but the rook would still give check
+		ChessBoardImpl board = TestBoards.board(
+				"....k...",
+				"........",
+				"........",
+				"........",
+				".....Q..",
+				".....n..",
+				"........",
+				"r...K...");
+
+		assertEquals(Set.of("e1e2", "e1f2"), moves(board, ~0L));
+	}
+
+	@Test
+	void enPassantThatExposesTheKingIsLeftOut() {
+		// Taking on c6 would empty the rank between the king and the rook
+		ChessBoardImpl board = TestBoards.board(
+				"........",
+				"........",
+				"........",
+				"KPp....r",
+				"........",
+				"........",
+				"........",
+				"....k...");
+		board.setLastMove(new ChessMoveImpl(TestBoards.position("c7"), TestBoards.position("c5"), null));
+
+		Set<String> moves = moves(board, ~0L);
+		assertTrue(moves.contains("b5b6"));
+		assertFalse(moves.contains("b5c6"));
+	}
+
+	private static Set<String> moves(ChessBoardImpl board, long fromMask) {
+		List<ChessMove> moves = new ArrayList<>();
+		MoveGenerator.generate(board, ChessGame.TeamColor.WHITE, fromMask, moves);
+		Set<String> names = new TreeSet<>();
+		for (ChessMove move : moves) {
+			names.add(TestBoards.name(move.getStartPosition()) + TestBoards.name(move.getEndPosition()));
+		}
+		return names;
+	}
+}
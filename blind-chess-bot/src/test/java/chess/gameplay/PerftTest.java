@@ -0,0 +1,56 @@
+package chess.gameplay;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+class PerftTest
+{
+	// Deep enough to reach castling, en passant and promotions in every standard case while staying quick
+	private static final int MOVE_GENERATOR_DEPTH = 3;
+	private static final int VALID_MOVES_DEPTH = 2;
+
+	@Test
+	void moveGeneratorMatchesReferenceCounts() {
+		for (Perft.Case perftCase : Perft.STANDARD_CASES) {
+			ChessGameImpl game = Fen.load(perftCase.fen());
+			assertEquals(perftCase.expected(MOVE_GENERATOR_DEPTH), Perft.perft(game, MOVE_GENERATOR_DEPTH, Perft.MOVE_GENERATOR),
+					perftCase.name());
+		}
+	}
+
+	@Test
+	void packedMovesMatchReferenceCounts() {
+		for (Perft.Case perftCase : Perft.STANDARD_CASES) {
+			ChessGameImpl game = Fen.load(perftCase.fen());
+			long key = game.getZobristKey();
+			assertEquals(perftCase.expected(MOVE_GENERATOR_DEPTH), Perft.perft(game, MOVE_GENERATOR_DEPTH), perftCase.name());
+			assertEquals(key, game.getZobristKey(), perftCase.name());
+		}
+	}
+
+	@Test
+	void validMovesMatchesReferenceCounts() {
+		for (Perft.Case perftCase : Perft.STANDARD_CASES) {
+			ChessGameImpl game = Fen.load(perftCase.fen());
+			assertEquals(perftCase.expected(VALID_MOVES_DEPTH), Perft.perft(game, VALID_MOVES_DEPTH, Perft.VALID_MOVES),
+					perftCase.name());
+		}
+	}
+
+	@Test
+	void divideSumsToPerftAndLeavesThePositionUnchanged() {
+		ChessGameImpl game = Fen.load(Perft.STANDARD_CASES.get(1).fen());
+		long key = game.getZobristKey();
+
+		Map<String, Long> counts = Perft.divide(game, 2, Perft.MOVE_GENERATOR);
+
+		assertEquals(48, counts.size());
+		assertEquals(2_039, counts.values().stream().mapToLong(Long::longValue).sum());
+		assertEquals(key, game.getZobristKey());
+	}
+}
@@ -0,0 +1,55 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+import chess.pieces.ChessPieceImpl;
+
+
+/**
+ * Boards for tests, drawn one rank per string from rank 8 down to rank 1, with FEN piece letters and '.' for an
+ * empty square.
+ */
+final class TestBoards
+{
+	private TestBoards() {
+	}
+
+	static ChessBoardImpl board(String... ranks) {
+		if (ranks.length != 8) {
+			throw new IllegalArgumentException("A board has eight ranks.");
+		}
+		ChessBoardImpl board = new ChessBoardImpl();
+		for (int rank = 0; rank < 8; rank++) {
+			for (int col = 1; col <= 8; col++) {
+				char letter = ranks[rank].charAt(col - 1);
+				if (letter != '.') {
+					board.addPiece(new ChessPositionImpl(8 - rank, col), piece(letter));
+				}
+			}
+		}
+		return board;
+	}
+
+	static ChessPiece piece(char letter) {
+		ChessGame.TeamColor color = Character.isUpperCase(letter) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+		ChessPiece.PieceType type = switch (Character.toLowerCase(letter)) {
+			case 'p' -> ChessPiece.PieceType.PAWN;
+			case 'n' -> ChessPiece.PieceType.KNIGHT;
+			case 'b' -> ChessPiece.PieceType.BISHOP;
+			case 'r' -> ChessPiece.PieceType.ROOK;
+			case 'q' -> ChessPiece.PieceType.QUEEN;
+			case 'k' -> ChessPiece.PieceType.KING;
+			default -> throw new IllegalArgumentException("Not a piece: " + letter);
+		};
+		return new ChessPieceImpl(color, type);
+	}
+
+	// Coordinate form, as in "e2e4"
+	static String name(ChessPosition position) {
+		return (char) ('a' + position.getCol() - 1) + Integer.toString(position.getRow());
+	}
+
+	static ChessPosition position(String name) {
+		return new ChessPositionImpl(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+	}
+}
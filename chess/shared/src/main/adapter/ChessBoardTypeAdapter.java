@@ -58,7 +58,7 @@ public class ChessBoardTypeAdapter extends TypeAdapter<ChessBoard>
 		int row = Integer.parseInt(parts[0]);
 		int column = Integer.parseInt(parts[1]);
 		
-		return new ChessPositionImpl(row, column);
+		return ChessPositionImpl.of(row, column);
 	}
 	
 	private ChessPiece parsePiece(String pieceString) {
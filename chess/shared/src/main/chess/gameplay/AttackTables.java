@@ -0,0 +1,163 @@
+package chess.gameplay;
+
+
+import chess.pieces.ChessPiece;
+
+import java.util.Arrays;
+
+
+/**
+ * Precomputed target squares for every piece movement, built once when the class loads so move generation and
+ * check detection never have to step through direction arrays or test board bounds.
+ * <p>
+ * Knight and king targets are plain per-square lists. Sliding pieces use one ray per square and direction,
+ * ordered outwards from the square, so a slider's moves are read off a ray until the first occupied square.
+ */
+public final class AttackTables
+{
+	// Ray directions; the first four are the rook's, the last four the bishop's
+	public static final int[] ROOK_DIRECTIONS = {0, 1, 2, 3};
+	public static final int[] BISHOP_DIRECTIONS = {4, 5, 6, 7};
+	public static final int[] QUEEN_DIRECTIONS = {0, 1, 2, 3, 4, 5, 6, 7};
+
+	private static final int[][] KNIGHT_STEPS = {
+			{2, 1}, {1, 2}, {-2, 1}, {-1, 2},
+			{2, -1}, {1, -2}, {-2, -1}, {-1, -2}
+	};
+	private static final int[][] KING_STEPS = {
+			{1, 0}, {1, 1}, {0, 1}, {-1, 1},
+			{-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+	};
+	// North, East, South, West, Northeast, Northwest, Southeast, Southwest
+	private static final int[][] DIRECTIONS = {
+			{1, 0}, {0, 1}, {-1, 0}, {0, -1},
+			{1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+	};
+
+	// Indexed by square, (row - 1) * 8 + (col - 1)
+	private static final ChessPosition[][] KNIGHT_TARGETS = new ChessPosition[64][];
+	private static final ChessPosition[][] KING_TARGETS = new ChessPosition[64][];
+	// Indexed by square, then direction
+	private static final ChessPosition[][][] RAYS = new ChessPosition[64][DIRECTIONS.length][];
+
+	static {
+		for (int row = 1; row <= 8; row++) {
+			for (int col = 1; col <= 8; col++) {
+				int square = index(row, col);
+				KNIGHT_TARGETS[square] = steps(row, col, KNIGHT_STEPS);
+				KING_TARGETS[square] = steps(row, col, KING_STEPS);
+				for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+					RAYS[square][direction] = ray(row, col, DIRECTIONS[direction]);
+				}
+			}
+		}
+	}
+
+	private AttackTables() {
+	}
+
+	/**
+	 * @return the squares a knight on the given square moves to on an empty board
+	 */
+	public static ChessPosition[] knightTargets(ChessPosition position) {
+		return KNIGHT_TARGETS[index(position.getRow(), position.getCol())];
+	}
+
+	/**
+	 * @return the squares a king on the given square steps to on an empty board, castling aside
+	 */
+	public static ChessPosition[] kingTargets(ChessPosition position) {
+		return KING_TARGETS[index(position.getRow(), position.getCol())];
+	}
+
+	/**
+	 * @param direction one of the entries of {@link #QUEEN_DIRECTIONS}
+	 *
+	 * @return the squares from the given square to the edge of the board in one direction, nearest first
+	 */
+	public static ChessPosition[] ray(ChessPosition position, int direction) {
+		return RAYS[index(position.getRow(), position.getCol())][direction];
+	}
+
+	/**
+	 * Checks whether any piece of a team attacks a square, by looking outwards from the square for a piece that
+	 * could reach it instead of generating every move of the attacking team.
+	 *
+	 * @param board   The board to check.
+	 * @param square  The square to check.
+	 * @param byColor The attacking team.
+	 *
+	 * @return true if the square is attacked, false otherwise.
+	 */
+	public static boolean isSquareAttacked(ChessBoard board, ChessPosition square, ChessGame.TeamColor byColor) {
+		int index = index(square.getRow(), square.getCol());
+
+		if (hasPiece(board, KNIGHT_TARGETS[index], byColor, ChessPiece.PieceType.KNIGHT)
+				|| hasPiece(board, KING_TARGETS[index], byColor, ChessPiece.PieceType.KING)) {
+			return true;
+		}
+
+		// Pawns attack diagonally forwards, so an attacking pawn stands one row behind the square from its side
+		int pawnRow = square.getRow() + (byColor == ChessGame.TeamColor.WHITE ? -1 : 1);
+		if (pawnRow >= 1 && pawnRow <= 8) {
+			for (int col = square.getCol() - 1; col <= square.getCol() + 1; col += 2) {
+				if (col >= 1 && col <= 8 && isPiece(board.getPiece(ChessPositionImpl.of(pawnRow, col)), byColor, ChessPiece.PieceType.PAWN)) {
+					return true;
+				}
+			}
+		}
+
+		for (int direction : QUEEN_DIRECTIONS) {
+			ChessPiece.PieceType slider = direction < 4 ? ChessPiece.PieceType.ROOK : ChessPiece.PieceType.BISHOP;
+			for (ChessPosition position : RAYS[index][direction]) {
+				ChessPiece piece = board.getPiece(position);
+				if (piece != null) {
+					if (isPiece(piece, byColor, slider) || isPiece(piece, byColor, ChessPiece.PieceType.QUEEN)) {
+						return true;
+					}
+					break;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasPiece(ChessBoard board, ChessPosition[] positions, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+		for (ChessPosition position : positions) {
+			if (isPiece(board.getPiece(position), color, type)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isPiece(ChessPiece piece, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+		return piece != null && piece.teamColor() == color && piece.getPieceType() == type;
+	}
+
+	private static int index(int row, int col) {
+		return (row - 1) * 8 + (col - 1);
+	}
+
+	private static ChessPosition[] steps(int row, int col, int[][] offsets) {
+		int count = 0;
+		ChessPosition[] targets = new ChessPosition[offsets.length];
+		for (int[] offset : offsets) {
+			int newRow = row + offset[0];
+			int newCol = col + offset[1];
+			if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
+				targets[count++] = ChessPositionImpl.of(newRow, newCol);
+			}
+		}
+		return Arrays.copyOf(targets, count);
+	}
+
+	private static ChessPosition[] ray(int row, int col, int[] direction) {
+		int length = 0;
+		ChessPosition[] ray = new ChessPosition[7];
+		for (int r = row + direction[0], c = col + direction[1]; r >= 1 && r <= 8 && c >= 1 && c <= 8; r += direction[0], c += direction[1]) {
+			ray[length++] = ChessPositionImpl.of(r, c);
+		}
+		return Arrays.copyOf(ray, length);
+	}
+}
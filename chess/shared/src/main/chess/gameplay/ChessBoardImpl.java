@@ -29,7 +29,7 @@ public class ChessBoardImpl implements ChessBoard
 		StringBuilder sb = new StringBuilder();
 		for (int row = 1; row <= 8; row++) {
 			for (int col = 1; col <= 8; col++) {
-				ChessPiece piece = getPiece(new ChessPositionImpl(row, col));
+				ChessPiece piece = getPiece(ChessPositionImpl.of(row, col));
 				sb.append((piece == null) ? "." : piece.getPieceType().toString().charAt(0));
 				sb.append(" ");
 			}
@@ -45,35 +45,35 @@ public class ChessBoardImpl implements ChessBoard
 		
 		// Setting up the pawns
 		for (int col = 1; col <= 8; col++) {
-			board.put(new ChessPositionImpl(2, col), new PawnPiece(ChessGame.TeamColor.WHITE));
-			board.put(new ChessPositionImpl(7, col), new PawnPiece(ChessGame.TeamColor.BLACK));
+			board.put(ChessPositionImpl.of(2, col), new PawnPiece(ChessGame.TeamColor.WHITE));
+			board.put(ChessPositionImpl.of(7, col), new PawnPiece(ChessGame.TeamColor.BLACK));
 		}
 		
 		// Setting up the rooks
-		board.put(new ChessPositionImpl(1, 1), new RookPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(1, 8), new RookPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 1), new RookPiece(ChessGame.TeamColor.BLACK));
-		board.put(new ChessPositionImpl(8, 8), new RookPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(1, 1), new RookPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(1, 8), new RookPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(8, 1), new RookPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(8, 8), new RookPiece(ChessGame.TeamColor.BLACK));
 		
 		// Setting up the knights
-		board.put(new ChessPositionImpl(1, 2), new KnightPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(1, 7), new KnightPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 2), new KnightPiece(ChessGame.TeamColor.BLACK));
-		board.put(new ChessPositionImpl(8, 7), new KnightPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(1, 2), new KnightPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(1, 7), new KnightPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(8, 2), new KnightPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(8, 7), new KnightPiece(ChessGame.TeamColor.BLACK));
 		
 		// Setting up the bishops
-		board.put(new ChessPositionImpl(1, 3), new BishopPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(1, 6), new BishopPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 3), new BishopPiece(ChessGame.TeamColor.BLACK));
-		board.put(new ChessPositionImpl(8, 6), new BishopPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(1, 3), new BishopPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(1, 6), new BishopPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(8, 3), new BishopPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(8, 6), new BishopPiece(ChessGame.TeamColor.BLACK));
 		
 		// Setting up the queens
-		board.put(new ChessPositionImpl(1, 4), new QueenPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 4), new QueenPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(1, 4), new QueenPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(8, 4), new QueenPiece(ChessGame.TeamColor.BLACK));
 		
 		// Setting up the kings
-		board.put(new ChessPositionImpl(1, 5), new KingPiece(ChessGame.TeamColor.WHITE));
-		board.put(new ChessPositionImpl(8, 5), new KingPiece(ChessGame.TeamColor.BLACK));
+		board.put(ChessPositionImpl.of(1, 5), new KingPiece(ChessGame.TeamColor.WHITE));
+		board.put(ChessPositionImpl.of(8, 5), new KingPiece(ChessGame.TeamColor.BLACK));
 	}
 	
 	@Override
@@ -30,37 +30,19 @@ public class ChessGameImpl implements ChessGame
 	}
 	
 	/**
-	 * Checks if a given square is under attack by the enemy team.
+	 * Checks if a given square is attacked by a team.
 	 *
-	 * @param position  The position to check.
-	 * @param teamColor The current team color.
+	 * @param square  The square to check, or null.
+	 * @param byColor The attacking team.
 	 *
-	 * @return true if the square is under attack, false otherwise.
+	 * @return true if the square is attacked, false otherwise or if there is no square.
 	 */
-	private boolean isSquareUnderAttack(ChessPosition position, TeamColor teamColor) {
-		// Determine enemy color
-		TeamColor enemyColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-		
-		// Iterate through all positions on the board
-		for (ChessPosition pos : ChessPositionImpl.getAllPositions()) {
-			ChessPiece piece = board.getPiece(pos);
-			
-			// Check if piece exists, belongs to the enemy and can attack the position
-			if (piece != null && piece.teamColor() == enemyColor) {
-				Collection<ChessMove> moves = piece.pieceMoves(board, pos);
-				
-				// If the piece is a king, limit its movement to 1 square
-				if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-					moves.removeIf(move -> Math.abs(move.getEndPosition().getCol() - move.getStartPosition().getCol()) > 1);
-				}
-				
-				// Check if any of the moves can attack the given position
-				if (moves.stream().anyMatch(move -> move.getEndPosition().equals(position))) {
-					return true;
-				}
-			}
-		}
-		return false;
+	private boolean isSquareAttacked(ChessPosition square, TeamColor byColor) {
+		return square != null && AttackTables.isSquareAttacked(board, square, byColor);
+	}
+	
+	private static TeamColor opposite(TeamColor color) {
+		return (color == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
 	}
 	
 	/**
@@ -81,7 +63,7 @@ public class ChessGameImpl implements ChessGame
 		}
 		
 		// Fetch the rook piece and validate its conditions for castling
-		ChessPiece rook = board.getPiece(new ChessPositionImpl(position.getRow(), kingSide ? 8 : 1));
+		ChessPiece rook = board.getPiece(ChessPositionImpl.of(position.getRow(), kingSide ? 8 : 1));
 		if (rook == null || rook.getPieceType() != ChessPiece.PieceType.ROOK || rook.hasMoved()) {
 			return false;
 		}
@@ -89,8 +71,8 @@ public class ChessGameImpl implements ChessGame
 		// Ensure there are no pieces in between the king and rook and the path isn't under attack
 		int[] range = kingSide ? new int[] {1, 2} : new int[] {1, 2, 3};
 		for (int i : range) {
-			ChessPosition checkPos = new ChessPositionImpl(position.getRow(), position.getCol() + (kingSide ? i : -i));
-			if (board.getPiece(checkPos) != null || isSquareUnderAttack(checkPos, color)) {
+			ChessPosition checkPos = ChessPositionImpl.of(position.getRow(), position.getCol() + (kingSide ? i : -i));
+			if (board.getPiece(checkPos) != null || isSquareAttacked(checkPos, opposite(color))) {
 				return false;
 			}
 		}
@@ -119,10 +101,10 @@ public class ChessGameImpl implements ChessGame
 		// Handle castling logic for the king
 		if (piece.getPieceType() == ChessPiece.PieceType.KING) {
 			if (canCastle(board, startPosition, piece.teamColor(), true)) {
-				validMoves.add(new ChessMoveImpl(startPosition, new ChessPositionImpl(startPosition.getRow(), startPosition.getCol() + 2), null));
+				validMoves.add(new ChessMoveImpl(startPosition, ChessPositionImpl.of(startPosition.getRow(), startPosition.getCol() + 2), null));
 			}
 			if (canCastle(board, startPosition, piece.teamColor(), false)) {
-				validMoves.add(new ChessMoveImpl(startPosition, new ChessPositionImpl(startPosition.getRow(), startPosition.getCol() - 2), null));
+				validMoves.add(new ChessMoveImpl(startPosition, ChessPositionImpl.of(startPosition.getRow(), startPosition.getCol() - 2), null));
 			}
 		}
 		
@@ -149,7 +131,7 @@ public class ChessGameImpl implements ChessGame
 			for (int colDirection : new int[] {-1, 1}) {
 				int column = startPosition.getCol() + colDirection;
 				if (column < 1 || column > 7) continue;
-				ChessPosition adjPos = new ChessPositionImpl(startPosition.getRow(), column);
+				ChessPosition adjPos = ChessPositionImpl.of(startPosition.getRow(), column);
 				ChessPiece adjPiece = board.getPiece(adjPos);
 				
 				// Validate if the adjacent piece is an enemy pawn that moved two squares
@@ -157,7 +139,7 @@ public class ChessGameImpl implements ChessGame
 					ChessMove lastMove = board.getLastMove();
 					if (lastMove != null && lastMove.getEndPosition().equals(adjPos) &&
 							Math.abs(lastMove.getStartPosition().getRow() - lastMove.getEndPosition().getRow()) == 2) {
-						ChessPosition endPosition = new ChessPositionImpl(startPosition.getRow() + direction, startPosition.getCol() + colDirection);
+						ChessPosition endPosition = ChessPositionImpl.of(startPosition.getRow() + direction, startPosition.getCol() + colDirection);
 						moves.add(new ChessMoveImpl(startPosition, endPosition, null));
 					}
 				}
@@ -187,7 +169,7 @@ public class ChessGameImpl implements ChessGame
 		ChessPosition kingPosition = (piece.getPieceType() == ChessPiece.PieceType.KING) ? move.getEndPosition() : findCurrentKingsPosition(piece.teamColor());
 		
 		// Determine if the king is under attack
-		boolean isCheck = isSquareUnderAttack(kingPosition, piece.teamColor());
+		boolean isCheck = isSquareAttacked(kingPosition, opposite(piece.teamColor()));
 		
 		// Revert the move
 		board.addPiece(move.getStartPosition(), piece);
@@ -232,11 +214,11 @@ public class ChessGameImpl implements ChessGame
 				Math.abs(move.getEndPosition().getCol() - move.getStartPosition().getCol()) == 1 &&
 				board.getPiece(move.getEndPosition()) == null) {
 			// Move the piece that is capturing
-			ChessPosition capturingPawnPos = new ChessPositionImpl(move.getEndPosition().getRow(), move.getEndPosition().getCol());
+			ChessPosition capturingPawnPos = ChessPositionImpl.of(move.getEndPosition().getRow(), move.getEndPosition().getCol());
 			board.removePiece(capturingPawnPos);
 			
 			// Remove the captured piece
-			ChessPosition capturedPawnPos = new ChessPositionImpl(move.getStartPosition().getRow(), move.getEndPosition().getCol());
+			ChessPosition capturedPawnPos = ChessPositionImpl.of(move.getStartPosition().getRow(), move.getEndPosition().getCol());
 			board.removePiece(capturedPawnPos);
 		}
 		
@@ -245,12 +227,12 @@ public class ChessGameImpl implements ChessGame
 			int colDiff = move.getEndPosition().getCol() - move.getStartPosition().getCol();
 			if (Math.abs(colDiff) == 2) {
 				ChessPosition rookOriginalPosition = (colDiff == 2) ?
-						new ChessPositionImpl(move.getStartPosition().getRow(), 8) :
-						new ChessPositionImpl(move.getStartPosition().getRow(), 1);
+						ChessPositionImpl.of(move.getStartPosition().getRow(), 8) :
+						ChessPositionImpl.of(move.getStartPosition().getRow(), 1);
 				
 				ChessPosition rookNewPosition = (colDiff == 2) ?
-						new ChessPositionImpl(move.getStartPosition().getRow(), 6) :
-						new ChessPositionImpl(move.getStartPosition().getRow(), 4);
+						ChessPositionImpl.of(move.getStartPosition().getRow(), 6) :
+						ChessPositionImpl.of(move.getStartPosition().getRow(), 4);
 				
 				ChessPiece rook = board.getPiece(rookOriginalPosition);
 				board.removePiece(rookOriginalPosition);
@@ -299,7 +281,7 @@ public class ChessGameImpl implements ChessGame
 	
 	@Override
 	public boolean isInCheck(TeamColor teamColor) {
-		return isSquareUnderAttack(findCurrentKingsPosition(teamColor), teamColor);
+		return isSquareAttacked(findCurrentKingsPosition(teamColor), opposite(teamColor));
 	}
 	
 	@Override
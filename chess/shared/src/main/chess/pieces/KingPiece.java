@@ -40,26 +40,11 @@ public class KingPiece implements ChessPiece
 	public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
 		Collection<ChessMove> moves = new ArrayList<>();
 		
-		// Add standard moves for the king
-		// Possible directions for the king to move
-		int[][] directions = {
-				{1, 0}, {1, 1}, {0, 1}, {-1, 1},
-				{-1, 0}, {-1, -1}, {0, -1}, {1, -1}
-		};
-		
-		// Iterate through all possible moves and validate
-		for (int[] direction : directions) {
-			int newRow = myPosition.getRow() + direction[0];
-			int newCol = myPosition.getCol() + direction[1];
-			
-			// Skip if the move is outside the board
-			if (newRow < 1 || newRow > 8 || newCol < 1 || newCol > 8) continue;
-			
-			ChessPosition newPosition = new ChessPositionImpl(newRow, newCol);
-			ChessPiece targetPiece = board.getPiece(newPosition);
+		for (ChessPosition newPosition : AttackTables.kingTargets(myPosition)) {
+			ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
 			
-			// Add move if target square is empty or contains opponent's piece
-			if (targetPiece == null || targetPiece.teamColor() != this.teamColor()) {
+			// Either the square is empty, or there's an opponent's piece that can be captured
+			if (pieceAtNewPosition == null || pieceAtNewPosition.teamColor() != this.teamColor()) {
 				moves.add(new ChessMoveImpl(myPosition, newPosition, null));
 			}
 		}
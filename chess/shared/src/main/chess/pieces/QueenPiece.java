@@ -40,35 +40,20 @@ public class QueenPiece implements ChessPiece
 	public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
 		Collection<ChessMove> moves = new ArrayList<>();
 		
-		// Directions: North, East, South, West, Northeast, Northwest, Southeast, Southwest
-		int[][] directions = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-		
-		for (int[] direction : directions) {
-			int row = myPosition.getRow();
-			int col = myPosition.getCol();
-			
-			while (true) {
-				row += direction[0];
-				col += direction[1];
-				
-				if (row < 1 || row > 8 || col < 1 || col > 8) {
-					break; // Out of board bounds
-				}
-				
-				ChessPosition newPosition = new ChessPositionImpl(row, col);
+		for (int direction : AttackTables.QUEEN_DIRECTIONS) {
+			for (ChessPosition newPosition : AttackTables.ray(myPosition, direction)) {
 				ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
 				
 				if (pieceAtNewPosition == null) {
 					// Empty square, add as a possible move
 					moves.add(new ChessMoveImpl(myPosition, newPosition, null));
-				} else if (pieceAtNewPosition.teamColor() != this.teamColor()) {
-					// Opponent's piece, capture it and break
-					moves.add(new ChessMoveImpl(myPosition, newPosition, null));
-					break;
 				} else {
-					break; // Own piece, block the path
+					// Opponent's piece can be captured; either way the path ends here
+					if (pieceAtNewPosition.teamColor() != this.teamColor()) {
+						moves.add(new ChessMoveImpl(myPosition, newPosition, null));
+					}
+					break;
 				}
-				
 			}
 		}
 		
@@ -27,7 +27,7 @@ public class TestFactory
 	}
 	
 	public static ChessPosition getNewPosition(Integer row, Integer col) {
-		return new ChessPositionImpl(row, col);
+		return ChessPositionImpl.of(row, col);
 	}
 	
 	public static ChessMove getNewMove(ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType promotionPiece) {